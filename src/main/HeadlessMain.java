@@ -0,0 +1,305 @@
+package main;
+
+import main.controllers.MonteCarloRunner;
+import main.controllers.ParameterSweepRunner;
+import main.controllers.SimulationController;
+import main.model.SimulationParameters;
+import main.model.SweepDefinition;
+import main.model.enums.AlgorithmType;
+import main.model.enums.WeatherEnum;
+import main.model.results.MonteCarloReport;
+import main.utils.ExcelUtils;
+import main.utils.SweepCsvWriter;
+import main.view.HeadlessRenderer;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Created by Krzysztof Baran
+ * Druga klasa główna aplikacji, uruchamiająca symulację z linii poleceń bez ekranu.
+ * Przyjmuje te same parametry co ekran główny (w postaci --klucz=wartość), wykonuje symulację z nieograniczoną prędkością
+ * i zapisuje wyniki do plików excel. Z opcją --sweep wykonuje przegląd parametrów (wszystkie kombinacje podanych wartości)
+ * i zapisuje podsumowania konfiguracji do pliku CSV. Nie odwołuje się do klas JavaFX, więc nie inicjalizuje toolkitu
+ * graficznego i może być uruchamiana na maszynach bez ekranu
+ */
+public class HeadlessMain {
+    /**
+     * Szerokość i wysokość sceny symulacji (jak w oknie symulacji)
+     */
+    private static final int TERRAIN_WIDTH = 1000;
+    private static final int TERRAIN_HEIGHT = 600;
+    /**
+     * Kod wyjścia dla niepoprawnych argumentów
+     */
+    private static final int INVALID_ARGUMENTS_EXIT_CODE = 2;
+    /**
+     * DateTimeFormatter do formatowania daty w nazwie pliku z wynikami przeglądu parametrów
+     */
+    private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss");
+    /**
+     * Opis dostępnych argumentów
+     */
+    private static final String USAGE = "Usage: java main.HeadlessMain [options]\n"
+        + "  --vertical=N       vertical belts on the first crossing (default 1)\n"
+        + "  --vertical2=N      vertical belts on the second crossing (default 1)\n"
+        + "  --horizontal=N     horizontal belts (default 1)\n"
+        + "  --carsLimit=N      cars limit on every belt (default 10)\n"
+        + "  --time=SECONDS     simulation time (default 60)\n"
+        + "  --weather=W        SUNNY, RAINY, SNOWY, GLAZE, FOGGY, ALL or RANDOM (default SUNNY)\n"
+        + "  --algorithm=A      FIXED_TIME or CARS_COUNT (default FIXED_TIME)\n"
+        + "  --seed=N           random seed (default: random)\n"
+        + "  --runs=N           repeat the simulation N times with seeds derived from --seed (default 1)\n"
+        + "  --output=DIR       directory for the result files (default: working directory)\n"
+        + "  --statsOnly        keep only per-belt statistics, without per-car result sheets (constant memory);\n"
+        + "                     always the case with --runs greater than 1 and with --sweep\n"
+        + "  --offHeap          keep the state of cars on the belts in direct (off-heap) buffers\n"
+        + "  --sweep            run every combination of the given values and write one CSV row per combination;\n"
+        + "                     --vertical, --vertical2, --horizontal and --carsLimit then take comma separated values\n"
+        + "                     or ranges FROM..TO[:STEP], --weather and --algorithm take comma separated values,\n"
+        + "                     --runs is the number of runs of every combination";
+
+    /**
+     * Funkcja główna, która parsuje argumenty, wykonuje symulację i wypisuje nazwy plików z wynikami
+     * @param args Argumenty w postaci --klucz=wartość
+     * @throws Exception Wyjątek, który może zostać rzucony w trakcie symulacji lub zapisu wyników
+     */
+    public static void main(String[] args) throws Exception {
+        Map<String, String> arguments;
+        SimulationParameters parameters = null;
+        SweepDefinition sweepDefinition = null;
+        int runs;
+        File outputDirectory;
+        boolean statsOnly;
+        boolean offHeap;
+        try {
+            arguments = parseArguments(args);
+            if (arguments.containsKey("help")) {
+                System.out.println(USAGE);
+                return;
+            }
+            long seed = arguments.containsKey("seed") ? Long.parseLong(arguments.remove("seed")) : new Random().nextLong();
+            if (arguments.remove("sweep") != null) {
+                sweepDefinition = new SweepDefinition(
+                    parsePositiveValues(arguments, "vertical", 1),
+                    parsePositiveValues(arguments, "vertical2", 1),
+                    parsePositiveValues(arguments, "horizontal", 1),
+                    parsePositiveValues(arguments, "carsLimit", 10),
+                    parseWeathers(arguments.getOrDefault("weather", WeatherEnum.SUNNY.name())),
+                    parseAlgorithms(arguments.getOrDefault("algorithm", AlgorithmType.FIXED_TIME.name())),
+                    parsePositive(arguments, "time", 60),
+                    TERRAIN_WIDTH, TERRAIN_HEIGHT, parsePositive(arguments, "runs", 1), seed);
+                runs = sweepDefinition.getRunsPerConfiguration();
+            } else {
+                parameters = new SimulationParameters(
+                    parseWeather(arguments.getOrDefault("weather", WeatherEnum.SUNNY.name())),
+                    AlgorithmType.valueOf(arguments.getOrDefault("algorithm", AlgorithmType.FIXED_TIME.name()).toUpperCase()),
+                    parsePositive(arguments, "vertical", 1),
+                    parsePositive(arguments, "vertical2", 1),
+                    parsePositive(arguments, "horizontal", 1),
+                    parsePositive(arguments, "carsLimit", 10),
+                    parsePositive(arguments, "time", 60),
+                    TERRAIN_WIDTH, TERRAIN_HEIGHT, seed);
+                runs = parsePositive(arguments, "runs", 1);
+            }
+            outputDirectory = new File(arguments.getOrDefault("output", "."));
+            statsOnly = arguments.remove("statsOnly") != null;
+            offHeap = arguments.remove("offHeap") != null;
+            arguments.remove("weather");
+            arguments.remove("algorithm");
+            arguments.remove("output");
+            if (!arguments.isEmpty()) {
+                throw new IllegalArgumentException("Unknown option --" + arguments.keySet().iterator().next());
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(INVALID_ARGUMENTS_EXIT_CODE);
+            return;
+        }
+        if (!outputDirectory.isDirectory() && !outputDirectory.mkdirs()) {
+            throw new IllegalStateException("Cannot create output directory " + outputDirectory);
+        }
+        if (sweepDefinition != null) {
+            runSweep(sweepDefinition, outputDirectory, offHeap);
+        } else if (runs == 1) {
+            runSingle(parameters, outputDirectory, statsOnly, offHeap);
+        } else {
+            //Raport wielu uruchomień korzysta wyłącznie ze statystyk pasów, więc --statsOnly jest tu zawsze spełnione
+            MonteCarloRunner monteCarloRunner = new MonteCarloRunner(parameters, runs, parameters.getSeed());
+            monteCarloRunner.setOffHeapVehicles(offHeap);
+            MonteCarloReport report = monteCarloRunner.run();
+            System.out.println(ExcelUtils.exportMonteCarloReport(report, outputDirectory));
+        }
+    }
+
+    /**
+     * Wykonanie jednej symulacji i zapisanie jej wyników
+     * @param parameters Parametry symulacji
+     * @param outputDirectory Katalog na pliki z wynikami
+     * @param statsOnly True, jeśli nie przechowujemy wyników poszczególnych samochodów
+     * @param offHeap True, jeśli stan samochodów na pasach przechowywany jest poza stertą
+     * @throws InterruptedException Jeśli wątek został przerwany w trakcie oczekiwania na wyniki
+     */
+    private static void runSingle(SimulationParameters parameters, File outputDirectory, boolean statsOnly, boolean offHeap)
+        throws InterruptedException {
+        SimulationController simulationController = new SimulationController(parameters, SimulationController.UNLIMITED_SPEED);
+        simulationController.setOutputDirectory(outputDirectory);
+        simulationController.setRetainSpeedResults(!statsOnly);
+        simulationController.setOffHeapVehicles(offHeap);
+        HeadlessRenderer renderer = new HeadlessRenderer();
+        renderer.bind(simulationController);
+        //Symulację wykonujemy w aktualnym wątku, renderer bez ekranu od razu otrzymuje wyniki
+        simulationController.runSimulation(renderer);
+        List<String> resFilenames = renderer.awaitResults();
+        if (resFilenames == null) {
+            throw new IllegalStateException("Could not write simulation results");
+        }
+        System.out.println("Seed: " + parameters.getSeed());
+        resFilenames.forEach(System.out::println);
+    }
+
+    /**
+     * Wykonanie przeglądu parametrów i zapisanie podsumowań kolejnych konfiguracji do pliku CSV (na bieżąco)
+     * @param sweepDefinition Definicja przeglądu parametrów
+     * @param outputDirectory Katalog na plik z wynikami
+     * @param offHeap True, jeśli stan samochodów na pasach przechowywany jest poza stertą
+     * @throws IOException Jeśli nie udało się zapisać wyników
+     * @throws InterruptedException Jeśli wątek został przerwany w trakcie oczekiwania na wyniki
+     * @throws ExecutionException Jeśli któraś z symulacji zakończyła się wyjątkiem
+     */
+    private static void runSweep(SweepDefinition sweepDefinition, File outputDirectory, boolean offHeap)
+        throws IOException, InterruptedException, ExecutionException {
+        String filename = new File(outputDirectory, "sweep_" + formatter.format(LocalDateTime.now()) + ".csv").getPath();
+        try (SweepCsvWriter csvWriter = new SweepCsvWriter(new FileWriter(filename))) {
+            ParameterSweepRunner sweepRunner = new ParameterSweepRunner(sweepDefinition);
+            sweepRunner.setOffHeapVehicles(offHeap);
+            sweepRunner.run(csvWriter);
+        }
+        System.out.println("Seed: " + sweepDefinition.getBaseSeed());
+        System.out.println(filename);
+    }
+
+    /**
+     * Parsowanie argumentów w postaci --klucz=wartość (lub samego --klucz)
+     * @param args Argumenty aplikacji
+     * @return Mapa kluczy i wartości argumentów
+     */
+    private static Map<String, String> parseArguments(String[] args) {
+        Map<String, String> res = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Invalid argument " + arg);
+            }
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                res.put(arg.substring(2), "");
+            } else {
+                res.put(arg.substring(2, separator), arg.substring(separator + 1));
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Parsowanie dodatniej liczby całkowitej z argumentów (argument jest usuwany z mapy)
+     * @param arguments Mapa argumentów
+     * @param key Klucz argumentu
+     * @param defaultValue Wartość domyślna, jeśli argument nie został podany
+     * @return Wartość argumentu
+     */
+    private static int parsePositive(Map<String, String> arguments, String key, int defaultValue) {
+        String value = arguments.remove(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        int res = Integer.parseInt(value);
+        if (res < 1) {
+            throw new IllegalArgumentException("--" + key + " must be positive");
+        }
+        return res;
+    }
+
+    /**
+     * Parsowanie listy dodatnich liczb całkowitych z argumentów (argument jest usuwany z mapy).
+     * Wartości oddzielone są przecinkami, a każda z nich może być przedziałem OD..DO lub OD..DO:KROK
+     * @param arguments Mapa argumentów
+     * @param key Klucz argumentu
+     * @param defaultValue Wartość domyślna, jeśli argument nie został podany
+     * @return Lista wartości argumentu
+     */
+    private static List<Integer> parsePositiveValues(Map<String, String> arguments, String key, int defaultValue) {
+        String value = arguments.remove(key);
+        List<Integer> res = new ArrayList<>();
+        if (value == null) {
+            res.add(defaultValue);
+            return res;
+        }
+        for (String part : value.split(",")) {
+            int rangeSeparator = part.indexOf("..");
+            if (rangeSeparator < 0) {
+                res.add(Integer.parseInt(part));
+                continue;
+            }
+            //Przedział OD..DO z opcjonalnym krokiem po dwukropku
+            int stepSeparator = part.indexOf(':', rangeSeparator);
+            int from = Integer.parseInt(part.substring(0, rangeSeparator));
+            int to = Integer.parseInt(part.substring(rangeSeparator + 2, stepSeparator < 0 ? part.length() : stepSeparator));
+            int step = stepSeparator < 0 ? 1 : Integer.parseInt(part.substring(stepSeparator + 1));
+            res.addAll(SweepDefinition.range(from, to, step));
+        }
+        for (int element : res) {
+            if (element < 1) {
+                throw new IllegalArgumentException("--" + key + " must be positive");
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Parsowanie listy warunków pogodowych oddzielonych przecinkami
+     * @param value Nazwy pogody lub RANDOM
+     * @return Lista warunków pogodowych (null dla pogody losowej)
+     */
+    private static List<WeatherEnum> parseWeathers(String value) {
+        List<WeatherEnum> res = new ArrayList<>();
+        for (String part : value.split(",")) {
+            res.add(parseWeather(part));
+        }
+        return res;
+    }
+
+    /**
+     * Parsowanie listy typów algorytmu zmiany świateł oddzielonych przecinkami
+     * @param value Nazwy algorytmów
+     * @return Lista typów algorytmu
+     */
+    private static List<AlgorithmType> parseAlgorithms(String value) {
+        List<AlgorithmType> res = new ArrayList<>();
+        for (String part : value.split(",")) {
+            res.add(AlgorithmType.valueOf(part.toUpperCase()));
+        }
+        return res;
+    }
+
+    /**
+     * Parsowanie warunków pogodowych
+     * @param value Nazwa pogody lub RANDOM
+     * @return Warunki pogodowe (null dla pogody losowej, jak na ekranie głównym)
+     */
+    private static WeatherEnum parseWeather(String value) {
+        if ("RANDOM".equalsIgnoreCase(value)) {
+            return null;
+        }
+        return WeatherEnum.valueOf(value.toUpperCase());
+    }
+}
@@ -5,6 +5,7 @@ import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
+import main.view.SpriteCache;
 
 /**
  * Created by Krzysztof Baran
@@ -14,13 +15,15 @@ import javafx.stage.Stage;
 public class Main extends Application {
 
     /**
-     * Funkcja uruchamiana przy starcie aplikacji, wczytuje ekran mainScreen,
+     * Funkcja uruchamiana przy starcie aplikacji, wczytuje obrazy i ekran mainScreen,
      * ustawia tytuł ekranu na TrafficLights - main, rozmiar na 800x600 oraz wyświetla scenę
      * @param primaryStage Parametr sceny, która może zostać ustawiona
      * @throws Exception Wyjątek, który może zostać rzucony podczas wczytywania resource'a itp...
      */
     @Override
     public void start(Stage primaryStage) throws Exception{
+        //Wczytujemy z góry wszystkie obrazy, aby nie dekodować ich w trakcie symulacji
+        SpriteCache.preload();
         Parent root = FXMLLoader.load(getClass().getResource("/resources/screens/mainScreen.fxml"));
         primaryStage.setTitle("TrafficLights - main");
         primaryStage.setScene(new Scene(root, 800, 400));
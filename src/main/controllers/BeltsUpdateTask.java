@@ -0,0 +1,63 @@
+package main.controllers;
+
+import main.model.belts.TrafficBelt;
+
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Created by Krzysztof Baran
+ * Zadanie fork/join wykonujące zadaną operację dla zakresu pasów drogowych.
+ * Zakres dzielony jest na połowy aż do pojedynczych pasów, które przetwarzane są równolegle w puli ForkJoinPool
+ */
+public class BeltsUpdateTask extends RecursiveAction {
+    /**
+     * Wersja klasy (RecursiveAction implementuje Serializable)
+     */
+    private static final long serialVersionUID = 1L;
+    /**
+     * Operacja wykonywana dla pasa o zadanym indeksie
+     */
+    private final IntConsumer beltAction;
+    /**
+     * Początek (włącznie) i koniec (wyłącznie) zakresu indeksów pasów
+     */
+    private final int from, to;
+
+    /**
+     * Konstruktor zadania dla wszystkich pasów z listy
+     * @param belts Pasy drogowe
+     * @param beltAction Operacja wykonywana dla pasa o zadanym indeksie
+     */
+    public BeltsUpdateTask(List<TrafficBelt> belts, IntConsumer beltAction) {
+        this(beltAction, 0, belts.size());
+    }
+
+    /**
+     * Konstruktor zadania dla zakresu indeksów pasów
+     * @param beltAction Operacja wykonywana dla pasa o zadanym indeksie
+     * @param from Początek zakresu (włącznie)
+     * @param to Koniec zakresu (wyłącznie)
+     */
+    private BeltsUpdateTask(IntConsumer beltAction, int from, int to) {
+        this.beltAction = beltAction;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Wykonanie operacji dla pojedynczego pasa lub podział zakresu na dwie połowy wykonywane równolegle
+     */
+    @Override
+    protected void compute() {
+        if (to - from <= 1) {
+            if (from < to) {
+                beltAction.accept(from);
+            }
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        invokeAll(new BeltsUpdateTask(beltAction, from, middle), new BeltsUpdateTask(beltAction, middle, to));
+    }
+}
@@ -13,6 +13,7 @@ import javafx.scene.control.Slider;
 import javafx.scene.control.Spinner;
 import javafx.stage.Stage;
 import main.model.enums.AlgorithmType;
+import main.model.enums.RendererType;
 import main.model.enums.WeatherEnum;
 import main.utils.NumberUtils;
 
@@ -99,6 +100,16 @@ public class MainController implements Initializable {
      */
     @FXML
     private RadioButton fixedTimeRB;
+    /**
+     * Przycisk typu radio odpowiadający za rysowanie symulacji na jednym obiekcie Canvas
+     */
+    @FXML
+    private RadioButton canvasRB;
+    /**
+     * Przycisk typu radio odpowiadający za rysowanie symulacji za pomocą grafu sceny
+     */
+    @FXML
+    private RadioButton sceneGraphRB;
 
     /**
      * Metoda wołana podczas tworzenia MainControllera przez framework JavaFX
@@ -111,6 +122,8 @@ public class MainController implements Initializable {
         sunnyRB.setSelected(true);
         //Ustawiamy algorytm zmiany świateł przy stałym czasie jako domyślnie zaznaczony
         fixedTimeRB.setSelected(true);
+        //Ustawiamy rysowanie za pomocą grafu sceny jako domyślnie zaznaczone
+        sceneGraphRB.setSelected(true);
         //Patch na spinnera, który pozwala wpisywać wartości ręcznie.
         //Zakładamy listenera eventów na pole tekstowe i jeśli wpisana wartość jest typu int,
         //to aktualizujemy wartość spinnera
@@ -154,6 +167,7 @@ public class MainController implements Initializable {
                             (int)horizontalBeltsCount.getValue(),
                             (int)carsLimit.getValue(),
                             timeSpinner.getValue(),
+                            getRendererFromRadioButtons(),
                             TERRAIN_WIDTH, TERRAIN_HEIGHT);
                     //Zamykamy okno główne i prezentujemy okno symulacji
                     ((Stage)generateButton.getScene().getWindow()).close();
@@ -175,6 +189,14 @@ public class MainController implements Initializable {
         return fixedTimeRB.isSelected() ? AlgorithmType.FIXED_TIME : AlgorithmType.CARS_COUNT;
     }
 
+    /**
+     * Metoda pobierająca enumerator sposobu rysowania w zależności od wybranej wartości na ekranie przez użytkownika
+     * @return Enumerator z wybranym przez użytkownika sposobem rysowania
+     */
+    private RendererType getRendererFromRadioButtons() {
+        return canvasRB.isSelected() ? RendererType.CANVAS : RendererType.SCENE_GRAPH;
+    }
+
     /**
      * Metoda pobierająca enumerator pogody w zależności od wybranej wartośći na ekranie przez użytkownika
      * @return Enumerator pogody wybrany przez użytkownika. Jeśli pogoda losowa => null
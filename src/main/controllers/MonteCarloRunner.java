@@ -0,0 +1,190 @@
+package main.controllers;
+
+import main.model.SimulationParameters;
+import main.model.results.MonteCarloReport;
+import main.model.results.SimulationRunResult;
+import main.view.HeadlessRenderer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Created by Krzysztof Baran
+ * Wielokrotne uruchomienie tej samej konfiguracji symulacji z różnymi ziarnami generatora wartości losowych.
+ * Symulacje wykonywane są bez ekranu, z nieograniczoną prędkością i równolegle na wszystkich rdzeniach (każda symulacja
+ * przetwarza swoje pasy sekwencyjnie w jednym wątku), a ich wyniki łączone są w jeden raport.
+ * Ziarna kolejnych uruchomień wyznaczane są z ziarna bazowego, więc ten sam runner daje zawsze ten sam raport
+ */
+public class MonteCarloRunner {
+    /**
+     * Parametry symulacji wspólne dla wszystkich uruchomień (ziarno jest nadpisywane)
+     */
+    private final SimulationParameters parameters;
+    /**
+     * Liczba uruchomień symulacji
+     */
+    private final int runsCount;
+    /**
+     * Ziarno, z którego wyznaczane są ziarna kolejnych uruchomień
+     */
+    private final long baseSeed;
+    /**
+     * Liczba wątków, na których równolegle wykonywane są symulacje
+     */
+    private final int threadsCount;
+    /**
+     * Flaga mówiąca o tym, czy pasy symulacji przechowują stan samochodów poza stertą
+     */
+    private boolean offHeapVehicles;
+
+    /**
+     * Konstruktor runnera wykonującego symulacje na wszystkich dostępnych rdzeniach
+     * @param parameters Parametry symulacji wspólne dla wszystkich uruchomień
+     * @param runsCount Liczba uruchomień symulacji
+     * @param baseSeed Ziarno, z którego wyznaczane są ziarna kolejnych uruchomień
+     */
+    public MonteCarloRunner(SimulationParameters parameters, int runsCount, long baseSeed) {
+        this(parameters, runsCount, baseSeed, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Konstruktor runnera wykonującego symulacje na zadanej liczbie wątków
+     * @param parameters Parametry symulacji wspólne dla wszystkich uruchomień
+     * @param runsCount Liczba uruchomień symulacji
+     * @param baseSeed Ziarno, z którego wyznaczane są ziarna kolejnych uruchomień
+     * @param threadsCount Liczba wątków, na których równolegle wykonywane są symulacje
+     */
+    public MonteCarloRunner(SimulationParameters parameters, int runsCount, long baseSeed, int threadsCount) {
+        if (runsCount < 1) {
+            throw new IllegalArgumentException("Runs count must be positive");
+        }
+        if (threadsCount < 1) {
+            throw new IllegalArgumentException("Threads count must be positive");
+        }
+        this.parameters = parameters;
+        this.runsCount = runsCount;
+        this.baseSeed = baseSeed;
+        this.threadsCount = threadsCount;
+    }
+
+    /**
+     * Metoda wykonująca wszystkie uruchomienia symulacji i łącząca ich wyniki w raport.
+     * Wątek wołający czeka na zakończenie wszystkich symulacji
+     * @return Raport z połączonymi wynikami wszystkich uruchomień
+     * @throws InterruptedException Jeśli wątek wołający został przerwany w trakcie oczekiwania
+     * @throws ExecutionException Jeśli któraś z symulacji zakończyła się wyjątkiem
+     */
+    public MonteCarloReport run() throws InterruptedException, ExecutionException {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threadsCount, runsCount));
+        try {
+            //Ziarna losujemy z góry, aby nie zależały od kolejności wykonania symulacji
+            List<Future<SimulationRunResult>> futures = new ArrayList<>(runsCount);
+            for (long seed : deriveSeeds(baseSeed, runsCount)) {
+                SimulationParameters runParameters = parameters.withSeed(seed);
+                futures.add(executor.submit(() -> runSingle(runParameters, offHeapVehicles)));
+            }
+            //Wyniki odbieramy w kolejności uruchomień
+            List<SimulationRunResult> results = new ArrayList<>(runsCount);
+            for (Future<SimulationRunResult> future : futures) {
+                results.add(future.get());
+            }
+            return new MonteCarloReport(results);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Metoda wykonująca wszystkie uruchomienia symulacji jedno po drugim w aktualnym wątku
+     * (z tymi samymi ziarnami co run), np. gdy równolegle wykonywane są już różne konfiguracje
+     * @param parameters Parametry symulacji wspólne dla wszystkich uruchomień
+     * @param runsCount Liczba uruchomień symulacji
+     * @param baseSeed Ziarno, z którego wyznaczane są ziarna kolejnych uruchomień
+     * @param offHeapVehicles True, jeśli pasy mają przechowywać stan samochodów poza stertą
+     * @return Raport z połączonymi wynikami wszystkich uruchomień
+     * @throws InterruptedException Jeśli wątek został przerwany w trakcie symulacji
+     */
+    static MonteCarloReport runSequentially(SimulationParameters parameters, int runsCount, long baseSeed, boolean offHeapVehicles)
+        throws InterruptedException {
+        List<SimulationRunResult> results = new ArrayList<>(runsCount);
+        for (long seed : deriveSeeds(baseSeed, runsCount)) {
+            results.add(runSingle(parameters.withSeed(seed), offHeapVehicles));
+        }
+        return new MonteCarloReport(results);
+    }
+
+    /**
+     * Wyznaczenie ziaren kolejnych uruchomień z ziarna bazowego
+     * @param baseSeed Ziarno bazowe
+     * @param runsCount Liczba uruchomień
+     * @return Ziarna kolejnych uruchomień
+     */
+    private static long[] deriveSeeds(long baseSeed, int runsCount) {
+        Random random = new Random(baseSeed);
+        long[] res = new long[runsCount];
+        for (int i = 0; i < runsCount; i++) {
+            res[i] = random.nextLong();
+        }
+        return res;
+    }
+
+    /**
+     * Metoda wykonująca jedną symulację bez ekranu i zbierająca jej wyniki
+     * @param runParameters Parametry symulacji z ziarnem tego uruchomienia
+     * @param offHeapVehicles True, jeśli pasy mają przechowywać stan samochodów poza stertą
+     * @return Wyniki symulacji
+     * @throws InterruptedException Jeśli wątek został przerwany w trakcie symulacji
+     */
+    static SimulationRunResult runSingle(SimulationParameters runParameters, boolean offHeapVehicles) throws InterruptedException {
+        SimulationController simulationController = new SimulationController(runParameters, SimulationController.UNLIMITED_SPEED);
+        //Symulacje są już wykonywane równolegle, więc pasy każdej z nich przetwarzamy w jej własnym wątku
+        simulationController.setBeltsParallelism(1);
+        //Raport korzysta wyłącznie ze statystyk pasów, więc wyników poszczególnych samochodów nie przechowujemy
+        simulationController.setRetainSpeedResults(false);
+        simulationController.setOffHeapVehicles(offHeapVehicles);
+        HeadlessRenderer renderer = new HeadlessRenderer();
+        renderer.bind(simulationController);
+        if (!simulationController.simulate(renderer)) {
+            throw new InterruptedException("Simulation interrupted");
+        }
+        return simulationController.collectRunResult();
+    }
+
+    /**
+     * Ustawienie, czy pasy wszystkich symulacji mają przechowywać stan samochodów poza stertą.
+     * Musi zostać ustawione przed wywołaniem run
+     * @param offHeapVehicles True, jeśli stan samochodów ma być przechowywany poza stertą
+     */
+    public void setOffHeapVehicles(boolean offHeapVehicles) {
+        this.offHeapVehicles = offHeapVehicles;
+    }
+
+    /**
+     * Getter dla parametrów symulacji wspólnych dla wszystkich uruchomień
+     * @return Parametry symulacji
+     */
+    public SimulationParameters getParameters() {
+        return parameters;
+    }
+
+    /**
+     * Getter dla liczby uruchomień symulacji
+     * @return Liczba uruchomień symulacji
+     */
+    public int getRunsCount() {
+        return runsCount;
+    }
+
+    /**
+     * Getter dla ziarna, z którego wyznaczane są ziarna kolejnych uruchomień
+     * @return Ziarno bazowe
+     */
+    public long getBaseSeed() {
+        return baseSeed;
+    }
+}
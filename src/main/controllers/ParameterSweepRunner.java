@@ -0,0 +1,115 @@
+package main.controllers;
+
+import main.model.SimulationParameters;
+import main.model.SweepDefinition;
+import main.model.results.MonteCarloReport;
+import main.model.results.SweepResult;
+
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Created by Krzysztof Baran
+ * Przegląd parametrów symulacji: każda konfiguracja z siatki definicji przeglądu jest zadaniem wykonywanym w ograniczonej
+ * puli wątków (wszystkie uruchomienia konfiguracji jedno po drugim w wątku zadania, bez ekranu i z nieograniczoną prędkością).
+ * Podsumowanie konfiguracji przekazywane jest dalej zaraz po jej zakończeniu, w kolejności zakończenia zadań,
+ * a pojedyncze pomiary nie są przechowywane, więc pamięć nie rośnie z rozmiarem siatki
+ */
+public class ParameterSweepRunner {
+    /**
+     * Definicja przeglądu parametrów
+     */
+    private final SweepDefinition sweepDefinition;
+    /**
+     * Liczba wątków, na których równolegle wykonywane są konfiguracje
+     */
+    private final int threadsCount;
+    /**
+     * Flaga mówiąca o tym, czy pasy symulacji przechowują stan samochodów poza stertą
+     */
+    private boolean offHeapVehicles;
+
+    /**
+     * Konstruktor przeglądu wykonywanego na wszystkich dostępnych rdzeniach
+     * @param sweepDefinition Definicja przeglądu parametrów
+     */
+    public ParameterSweepRunner(SweepDefinition sweepDefinition) {
+        this(sweepDefinition, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Konstruktor przeglądu wykonywanego na zadanej liczbie wątków
+     * @param sweepDefinition Definicja przeglądu parametrów
+     * @param threadsCount Liczba wątków, na których równolegle wykonywane są konfiguracje
+     */
+    public ParameterSweepRunner(SweepDefinition sweepDefinition, int threadsCount) {
+        if (threadsCount < 1) {
+            throw new IllegalArgumentException("Threads count must be positive");
+        }
+        this.sweepDefinition = sweepDefinition;
+        this.threadsCount = threadsCount;
+    }
+
+    /**
+     * Metoda wykonująca wszystkie konfiguracje przeglądu. Podsumowania przekazywane są w wątku wołającym,
+     * w kolejności zakończenia konfiguracji (numer konfiguracji w siatce jest zapisany w podsumowaniu)
+     * @param resultConsumer Odbiorca podsumowań kolejnych zakończonych konfiguracji
+     * @throws InterruptedException Jeśli wątek wołający został przerwany w trakcie oczekiwania
+     * @throws ExecutionException Jeśli któraś z symulacji zakończyła się wyjątkiem
+     */
+    public void run(Consumer<SweepResult> resultConsumer) throws InterruptedException, ExecutionException {
+        List<SimulationParameters> configurations = sweepDefinition.expand();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threadsCount, configurations.size()));
+        try {
+            CompletionService<SweepResult> completionService = new ExecutorCompletionService<>(executor);
+            for (int i = 0; i < configurations.size(); i++) {
+                final int configurationIndex = i;
+                final SimulationParameters parameters = configurations.get(i);
+                completionService.submit(() -> runConfiguration(configurationIndex, parameters));
+            }
+            //Odbieramy podsumowania w kolejności zakończenia konfiguracji
+            for (int i = 0; i < configurations.size(); i++) {
+                resultConsumer.accept(completionService.take().get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Metoda wykonująca wszystkie uruchomienia jednej konfiguracji i tworząca jej podsumowanie
+     * @param configurationIndex Numer konfiguracji w siatce przeglądu
+     * @param parameters Parametry symulacji konfiguracji
+     * @return Podsumowanie konfiguracji
+     * @throws InterruptedException Jeśli wątek został przerwany w trakcie symulacji
+     */
+    private SweepResult runConfiguration(int configurationIndex, SimulationParameters parameters) throws InterruptedException {
+        long start = System.nanoTime();
+        MonteCarloReport report =
+            MonteCarloRunner.runSequentially(parameters, sweepDefinition.getRunsPerConfiguration(), sweepDefinition.getBaseSeed(),
+                offHeapVehicles);
+        return new SweepResult(configurationIndex, parameters, report, (System.nanoTime() - start) / 1_000_000L);
+    }
+
+    /**
+     * Ustawienie, czy pasy wszystkich symulacji mają przechowywać stan samochodów poza stertą.
+     * Musi zostać ustawione przed wywołaniem run
+     * @param offHeapVehicles True, jeśli stan samochodów ma być przechowywany poza stertą
+     */
+    public void setOffHeapVehicles(boolean offHeapVehicles) {
+        this.offHeapVehicles = offHeapVehicles;
+    }
+
+    /**
+     * Getter dla definicji przeglądu parametrów
+     * @return Definicja przeglądu parametrów
+     */
+    public SweepDefinition getSweepDefinition() {
+        return sweepDefinition;
+    }
+}
@@ -1,7 +1,9 @@
 package main.controllers;
 
-import javafx.application.Platform;
-import javafx.scene.image.ImageView;
+import main.model.Car;
+import main.model.SimulationClock;
+import main.model.SimulationParameters;
+import main.model.SimulationScheduler;
 import main.model.belts.DownTrafficBelt;
 import main.model.belts.LeftTrafficBelt;
 import main.model.belts.RightTrafficBelt;
@@ -10,22 +12,65 @@ import main.model.belts.TrafficBelt;
 import main.model.TrafficLightsAndCrossing;
 import main.model.belts.UpTrafficBelt;
 import main.model.enums.AlgorithmType;
+import main.model.enums.LightColorEnum;
 import main.model.enums.WeatherEnum;
-import main.utils.DateUtils;
+import main.model.results.BeltStatistics;
+import main.model.results.SimulationRunResult;
 import main.utils.ExcelUtils;
+import main.view.FrameUpdate;
+import main.view.SimulationRenderer;
 
-import java.time.LocalDateTime;
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
 
 /**
  * Created by Krzysztof Baran
- * Kontroler odpowiedzialny za obsługę warstwy logicznej symulacji oraz wywołanie zmian na ekranie przez terrain controllera
+ * Kontroler odpowiedzialny za obsługę warstwy logicznej symulacji oraz wywołanie zmian na ekranie przez renderer.
+ * Nie zależy od JavaFX, dzięki czemu symulacja może zostać uruchomiona bez ekranu
  */
 public class SimulationController {
+    /**
+     * Mnożnik prędkości symulacji odpowiadający czasowi rzeczywistemu
+     */
+    public static final double REAL_TIME_SPEED = 1.0;
+    /**
+     * Mnożnik prędkości symulacji oznaczający wykonywanie iteracji tak szybko, jak pozwala procesor
+     */
+    public static final double UNLIMITED_SPEED = 0.0;
+    /**
+     * Opóźnienie startu symulacji w milisekundach (przeskalowane przez mnożnik prędkości)
+     */
+    private static final long START_DELAY = 1000;
+    /**
+     * Czas symulacji w milisekundach do pierwszej zmiany świateł w algorytmie stałego interwału
+     */
+    private static final long FIXED_LIGHTS_FIRST_CHANGE = 2000;
+    /**
+     * Czas symulacji w milisekundach pomiędzy zmianami świateł w algorytmie stałego interwału
+     */
+    private static final long FIXED_LIGHTS_CHANGE_PERIOD = 6000;
+    /**
+     * Czas symulacji w milisekundach do pierwszej zmiany pogody losowej
+     */
+    private static final long RANDOM_WEATHER_FIRST_CHANGE = 5000;
+    /**
+     * Czas symulacji w milisekundach pomiędzy zmianami pogody losowej
+     */
+    private static final long RANDOM_WEATHER_CHANGE_PERIOD = 18000;
+    /**
+     * Parametry, z którymi została utworzona symulacja
+     */
+    private final SimulationParameters parameters;
+    /**
+     * Generator wartości losowych symulacji (losowanie pogody i ziaren generatorów pasów)
+     */
+    private final Random random;
     /**
      * Wybrany przez użytkownika typ algorytmu
      */
@@ -70,6 +115,66 @@ public class SimulationController {
      * Flaga mówiąca o tym, czy pogoda ma być iterowana po kolei w stałym czasie (true), czy ma być czysto losowa (false) jeśli ustawiona randomowa
      */
     private final boolean allWeatherIteration;
+    /**
+     * Zegar symulacji, odliczający takty (ustalone na 30 milisekund czasu symulacji każdy)
+     */
+    private final SimulationClock simulationClock;
+    /**
+     * Mnożnik prędkości symulacji względem czasu rzeczywistego (0 oznacza prędkość nieograniczoną)
+     */
+    private final double speedMultiplier;
+    /**
+     * Harmonogram zdarzeń symulacji (zmiany świateł i pogody) odmierzanych w taktach zegara symulacji
+     */
+    private final SimulationScheduler scheduler;
+    /**
+     * Liczba wątków, na których równolegle przetwarzane są pasy drogowe (1 => przetwarzanie sekwencyjne)
+     */
+    private int beltsParallelism = Runtime.getRuntime().availableProcessors();
+    /**
+     * Pula wątków do równoległego przetwarzania pasów, tworzona na czas trwania symulacji
+     */
+    private volatile ForkJoinPool beltsPool;
+    /**
+     * Wszystkie pasy drogowe w stałej kolejności (poziome, pionowe na pierwszym i na drugim skrzyżowaniu)
+     */
+    private final List<TrafficBelt> allBelts;
+    /**
+     * Samochody do usunięcia ze sceny z każdego z pasów w aktualnej iteracji (indeks jak w allBelts)
+     */
+    private final List<List<Car>> removedCars;
+    /**
+     * Samochody dodane na scenę od ostatniej migawki przekazanej do renderera
+     */
+    private List<Car> frameAddedCars = new ArrayList<>();
+    /**
+     * Samochody usunięte ze sceny od ostatniej migawki przekazanej do renderera
+     */
+    private List<Car> frameRemovedCars = new ArrayList<>();
+    /**
+     * Nowa pogoda do pokazania przez renderer (null, jeśli pogoda nie zmieniła się od ostatniej migawki)
+     */
+    private WeatherEnum frameWeatherConditions;
+    /**
+     * Flaga mówiąca o tym, czy renderer korzysta z migawek (jeśli nie, zmiany na scenie nie są zbierane)
+     */
+    private boolean framesConsumed = true;
+    /**
+     * Katalog, w którym zapisywane są pliki z wynikami symulacji (null => katalog roboczy aplikacji)
+     */
+    private volatile File outputDirectory;
+    /**
+     * Opóźnienie pętli symulacji względem planowanego czasu rzeczywistego ostatniej iteracji (w nanosekundach)
+     */
+    private volatile long lagNanos;
+    /**
+     * Największe opóźnienie iteracji pętli symulacji względem planowanego czasu rzeczywistego (w nanosekundach)
+     */
+    private volatile long maxLagNanos;
+    /**
+     * Liczba taktów wykonanych bez przekazania migawki do renderera (połączonych z kolejną migawką przy nadrabianiu opóźnienia)
+     */
+    private volatile long coalescedTicksCount;
 
     /**
      * Konstruktor kotrolera symulacji, inicjalizujący odpowiednie wartości przed startem
@@ -86,11 +191,60 @@ public class SimulationController {
     public SimulationController(WeatherEnum weatherConditions, AlgorithmType algorithmType, int verticalBeltsCount, int verticalBelts2Count,
                                 int horizontalBeltsCount,
                                 int carsLimit, int simulationTime, int width, int height) {
+        this(weatherConditions, algorithmType, verticalBeltsCount, verticalBelts2Count, horizontalBeltsCount, carsLimit, simulationTime,
+            width, height, REAL_TIME_SPEED);
+    }
+
+    /**
+     * Konstruktor kotrolera symulacji, inicjalizujący odpowiednie wartości przed startem, z zadanym mnożnikiem prędkości.
+     * Ziarno generatora wartości losowych jest losowane, więc każde uruchomienie symulacji przebiega inaczej
+     * @param weatherConditions Warunki pogodowe
+     * @param algorithmType Typ algorytmu zmiany świateł
+     * @param verticalBeltsCount Liczba pasów pionowych na skrzyżowaniu pierwszym
+     * @param verticalBelts2Count Liczba pasów pionowych na skrzyżowaniu drugim
+     * @param horizontalBeltsCount Liczba pasów poziomych
+     * @param carsLimit Limit samochodów na każdym z pasów
+     * @param simulationTime Czas trwania symulacji (w sekundach czasu symulacji), ustawiony przez użytkownika
+     * @param width Szerokość okna
+     * @param height Wysokość okna
+     * @param speedMultiplier Mnożnik prędkości względem czasu rzeczywistego (np. 10 lub 100), UNLIMITED_SPEED dla maksymalnej prędkości
+     */
+    public SimulationController(WeatherEnum weatherConditions, AlgorithmType algorithmType, int verticalBeltsCount, int verticalBelts2Count,
+                                int horizontalBeltsCount,
+                                int carsLimit, int simulationTime, int width, int height, double speedMultiplier) {
+        this(new SimulationParameters(weatherConditions, algorithmType, verticalBeltsCount, verticalBelts2Count, horizontalBeltsCount,
+            carsLimit, simulationTime, width, height, new Random().nextLong()), speedMultiplier);
+    }
+
+    /**
+     * Konstruktor kotrolera symulacji dla zadanego zestawu parametrów, z zadanym mnożnikiem prędkości.
+     * Wszystkie wartości losowe symulacji (pogoda, przyspieszenia i prędkości samochodów) pochodzą z generatora
+     * zainicjalizowanego ziarnem z parametrów, więc symulacja uruchomiona z tym samym ziarnem daje te same wyniki
+     * @param parameters Parametry symulacji
+     * @param speedMultiplier Mnożnik prędkości względem czasu rzeczywistego (np. 10 lub 100), UNLIMITED_SPEED dla maksymalnej prędkości
+     */
+    public SimulationController(SimulationParameters parameters, double speedMultiplier) {
+        if (speedMultiplier < 0) {
+            throw new IllegalArgumentException("Speed multiplier cannot be negative");
+        }
+        this.parameters = parameters;
+        this.speedMultiplier = speedMultiplier;
+        this.random = new Random(parameters.getSeed());
+        WeatherEnum weatherConditions = parameters.getWeatherConditions();
+        int verticalBeltsCount = parameters.getVerticalBeltsCount();
+        int verticalBelts2Count = parameters.getVerticalBelts2Count();
+        int horizontalBeltsCount = parameters.getHorizontalBeltsCount();
+        int carsLimit = parameters.getCarsLimit();
+        int width = parameters.getWidth();
+        int height = parameters.getHeight();
+        //Inicjalizacja zegara symulacji, ustawiamy 30 milisekund na każdą iterację
+        this.simulationClock = new SimulationClock(30);
+        this.scheduler = new SimulationScheduler(simulationClock);
         //Jeśli warunki pogodowe przekazane z okna są puste, świadczy to o dynamicznie zmiennej pogodzie
         this.dynamicWeather = weatherConditions == null || weatherConditions == WeatherEnum.ALL;
         this.allWeatherIteration = weatherConditions == WeatherEnum.ALL;
         //Jeśli pogoda jest dynamiczna, to losujemy, wpp przypisujemy wybraną lub kolejną jeśli ustawione na pogody po kolei
-        this.weatherConditions = weatherConditions == null ? WeatherEnum.getRandom() :
+        this.weatherConditions = weatherConditions == null ? WeatherEnum.getRandom(random) :
             (weatherConditions == WeatherEnum.ALL ? WeatherEnum.getNext(weatherConditions) : weatherConditions);
         //Zapisujemy historyczą wartość ostatniej pogody panującej na scenie
         weatherConditionsList = new ArrayList<>();
@@ -118,148 +272,324 @@ public class SimulationController {
             belt.setStoppingDistFact(this.weatherConditions.getStoppingDistanceFactor());
             belt.getCrossingAndLights().add(crossings.get(1));
         }
+        //Zapamiętujemy wszystkie pasy w stałej kolejności, w której wykonywane są operacje sekwencyjne
+        allBelts = new ArrayList<>();
+        allBelts.addAll(horizontalBelts);
+        allBelts.addAll(verticalBelts);
+        allBelts.addAll(verticalBelts2);
+        removedCars = new ArrayList<>(Collections.nCopies(allBelts.size(), Collections.emptyList()));
+        //Każdy pas losuje samochody z własnego generatora (pasy przetwarzane są równolegle), ziarna pochodzą z generatora symulacji
+        for (TrafficBelt belt : allBelts) {
+            belt.setRandomSeed(random.nextLong());
+        }
         //Przypisujemy czas symulacji i typ algorytmu
-        this.simulationTime = simulationTime;
-        this.algorithmType = algorithmType;
-
-    }
-
-    /**
-     * Metoda odpowiadająca za wystartowanie symulacji
-     * @param terrainController Kontroler graficznej reprezentacji ekranu symulacji
-     */
-    public void startSimulation(final TerrainController terrainController) {
-        //Ustawiamy 30 milisekund na każdą iterację
-        final int taskPeriod = 30;
-        //Obliczamy ile iteracji potrzebujemy, aby zachować czas symulacji przy ustalonej ilości klatek na sekundę
-        final double[] interval = { (double) simulationTime * 1000.0 / (double) taskPeriod };
-        //Inicjalizujemy timer
-        Timer timer = new Timer(true);
-        //Ustawiamy czas startu symulacji, aby później było możliwe jego obliczenie
-        final LocalDateTime iterationStart = LocalDateTime.now();
-        //Ustawiamy iteracje ze stały czasem wywołania (co 1/30 sekundy), z sekundowym (1000ms) opóźnieniem startu
-        timer.scheduleAtFixedRate(new TimerTask() {
-            @Override
-            public void run() {
-                synchronized (interval) {
-                    //Wywołujey iterację symulacji
-                    simulationIteration(terrainController);
-                    //Sprawdzamy, czy jeszcze powinniśmy wywoływać kolejną iterację?
-                    if (--interval[0] <= 1) {
-                        //Jeśli nie kontynuujemy, to zamykamy timer
-                        timer.cancel();
-                        synchronized (weatherConditionsList) {
-                            //Po zamknięciu timera, zbieramy rezultaty symulacji i zapisujemy je na dysku
-                            List<String> resFilenames = collectResultsToFiles(DateUtils.calculateInSeconds(iterationStart, LocalDateTime.now()),
-                                weatherConditionsList);
-                            //W wątku UI inicjalizujemy i pokazujemy ekran podsumowania
-                            Platform.runLater(() -> terrainController.showResultsScreen(resFilenames));
-                        }
-                    }
-                }
+        this.simulationTime = parameters.getSimulationTime();
+        this.algorithmType = parameters.getAlgorithmType();
+    }
+
+    /**
+     * Metoda odpowiadająca za wystartowanie symulacji w osobnym wątku
+     * @param renderer Renderer prezentujący stan symulacji
+     */
+    public void startSimulation(final SimulationRenderer renderer) {
+        Thread simulationThread = new Thread(() -> runSimulation(renderer), "simulation-loop");
+        simulationThread.setDaemon(true);
+        simulationThread.start();
+    }
+
+    /**
+     * Metoda wykonująca całą symulację w aktualnym wątku, a następnie zapisująca wyniki na dysku
+     * i pokazująca je przez renderer
+     * @param renderer Renderer prezentujący stan symulacji
+     */
+    public void runSimulation(final SimulationRenderer renderer) {
+        //Przerwana symulacja nie ma wyników do pokazania
+        if (!simulate(renderer)) {
+            return;
+        }
+        synchronized (weatherConditionsList) {
+            //Po ostatniej iteracji zbieramy rezultaty symulacji i zapisujemy je na dysku
+            List<String> resFilenames = collectResultsToFiles(simulationClock.getElapsedMillis() / 1000, weatherConditionsList,
+                renderer.getDroppedFramesCount());
+            //W wątku renderera pokazujemy podsumowanie
+            renderer.runInRenderThread(() -> renderer.showResults(resFilenames));
+        }
+    }
+
+    /**
+     * Metoda wykonująca wszystkie iteracje symulacji w aktualnym wątku, bez zapisywania wyników.
+     * Każda iteracja przesuwa zegar symulacji o jeden takt. Iteracje wywoływane są co czas trwania taktu podzielony przez
+     * mnożnik prędkości, a dla prędkości nieograniczonej jedna po drugiej, tak szybko jak pozwala procesor.
+     * Fizyka liczona jest w aktualnym wątku, a do renderera po każdej iteracji trafia jedynie migawka zmian na scenie
+     * @param renderer Renderer prezentujący stan symulacji
+     * @return True, jeśli wykonane zostały wszystkie iteracje, false jeśli wątek został przerwany
+     */
+    public boolean simulate(final SimulationRenderer renderer) {
+        //Migawki tworzymy tylko dla renderera, który je wyświetla
+        framesConsumed = renderer.consumesFrames();
+        //Planujemy zmiany świateł i pogody w harmonogramie symulacji
+        initTimedEvents();
+        //Tworzymy pulę wątków do równoległego przetwarzania pasów
+        beltsPool = beltsParallelism > 1 ? new ForkJoinPool(beltsParallelism) : null;
+        try {
+            return runIterations(renderer);
+        } finally {
+            if (beltsPool != null) {
+                beltsPool.shutdown();
+                beltsPool = null;
             }
-        }, 1000, taskPeriod);
-        //Jeśli wybranym algorytmem zmiany świateł jest stały interwał czasowy, to startujemy timer2,
-        //który jest odpowiedzialny za ich zimanę w stałym interwale czasowym
-        if (algorithmType == AlgorithmType.FIXED_TIME) {
-            Timer timer2 = new Timer(true);
-            //Ustawiamy 3sek (3000ms) opóźnienia pierwszej zmiany świateł i zmieniamy je co 6sek (6000ms)
-            timer2.scheduleAtFixedRate(new TimerTask() {
-                @Override
-                public void run() {
-                    //Jeśli nie kontynuujemy symulacji, gdyż czas się skończył, zamykamy timer
-                    synchronized (interval) {
-                        if (interval[0] <= 1) {
-                            timer2.cancel();
-                            return;
-                        }
-                        //Dla każdego ze skrzyżowań, zmieniamy światła
-                        for (TrafficLightsAndCrossing cross : crossings) {
-                            cross.changeLights();
-                        }
-                    }
-                }
-            }, 3000, 6000);
-        }
-        //Jeśli ustawiliśmy dynamiczną pogodę, inicjalizujemy kolejny timer, który będzie ją zmieniał w stałym czasie
-        //Pogoda zmieni się z pierwszym opóźnieniem 6sek (6000ms) i będzie się zmieniać co 18sek (18000ms)
-        //Natomiast jeśli pogoda ma się zmieniać po kolei, to:
-        //obliczamy czas zmiany tak, aby wszystkie pogody panowały w równym przedziale czasowym
-        //opóźnienie pierwszej zmiany ustawiamy na przedział czasowy + 1sek, aby zrównać opóźnienie startu symulacji
+        }
+    }
+
+    /**
+     * Metoda wykonująca wszystkie iteracje symulacji w zadanym tempie
+     * @param renderer Renderer prezentujący stan symulacji
+     * @return True, jeśli wykonane zostały wszystkie iteracje, false jeśli wątek został przerwany
+     */
+    private boolean runIterations(final SimulationRenderer renderer) {
+        //Obliczamy ile iteracji potrzebujemy, aby zachować czas symulacji przy ustalonym czasie trwania taktu
+        final long iterations = simulationClock.toTicks(simulationTime * 1000L);
+        //Obliczamy odstęp pomiędzy iteracjami w czasie rzeczywistym (0 dla prędkości nieograniczonej)
+        final long iterationPeriodNanos = toRealTimeNanos(simulationClock.getTickMillis());
+        //Pierwsza iteracja startuje z sekundowym (1000ms) opóźnieniem, przeskalowanym przez mnożnik prędkości
+        long nextIterationTime = System.nanoTime() + toRealTimeNanos(START_DELAY);
+        for (long i = 0; i < iterations; i++) {
+            //Czekamy na czas kolejnej iteracji, jeśli symulacja nie ma działać z nieograniczoną prędkością
+            if (!waitUntil(nextIterationTime)) {
+                return false;
+            }
+            //Zapamiętujemy, o ile iteracja jest spóźniona względem planu (np. po pauzie GC; 0, jeśli jest na czas)
+            //oraz największe takie spóźnienie
+            if (iterationPeriodNanos > 0) {
+                lagNanos = Math.max(0, System.nanoTime() - nextIterationTime);
+                maxLagNanos = Math.max(maxLagNanos, lagNanos);
+            }
+            nextIterationTime += iterationPeriodNanos;
+            //Wywołujemy iterację symulacji - każdy takt jest wykonywany, więc czas symulacji pozostaje dokładny
+            iterate();
+            //Jeśli kolejny takt jest już zaległy, to nadrabiamy go bez rysowania, a zmiany trafią do renderera
+            //w jednej migawce po nadrobieniu opóźnienia. Ostatni takt zawsze jest przekazywany do renderera
+            if (iterationPeriodNanos > 0 && i < iterations - 1 && System.nanoTime() >= nextIterationTime) {
+                coalescedTicksCount++;
+                continue;
+            }
+            if (framesConsumed) {
+                renderer.renderFrame(createFrame());
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Metoda planująca w harmonogramie cykliczne zmiany świateł (dla algorytmu stałego interwału) i pogody (dla pogody dynamicznej).
+     * Wszystkie czasy liczone są w czasie symulacji od pierwszej iteracji
+     */
+    private void initTimedEvents() {
+        //Pogoda zmieniana jest przed światłami, jeśli obie zmiany przypadają na ten sam takt
         if (dynamicWeather) {
-            Timer weatherTimer = new Timer(true);
-            final int weatherChangePeriod = allWeatherIteration ? (simulationTime * 1000 / WeatherEnum.getAllowedWeatherCount()) : 18000;
-            final int weatherFirstChangeDelay = allWeatherIteration ? weatherChangePeriod + 1000 : 6000;
-            weatherTimer.scheduleAtFixedRate(new TimerTask() {
-                @Override
-                public void run() {
-                    synchronized (interval) {
-                        //Pobieramy nową losową pogodę z enumeratora warunków pogodowych
-                        weatherConditions = allWeatherIteration ? WeatherEnum.getNext(weatherConditions) : WeatherEnum.getRandom();
-                        //Zapisujemy nową pogodę do listy z historią pogody
-                        synchronized (weatherConditionsList) {
-                            weatherConditionsList.add(weatherConditions);
-                        }
-                        //Zmieniamy znak poogdy w wątku UI
-                        Platform.runLater(() -> terrainController.setWeatherSign(weatherConditions));
-                        //Ustawiamy współczynnik odległości hamowania z wylosowanych warunków pogodowych
-                        TrafficBelt.setStoppingDistFact(weatherConditions.getStoppingDistanceFactor());
-                        //Dla każdego pasa zmieniamy prędkość obliczamy prędkość maksymalną pojazdów zgodnie
-                        //z parametrami w nowych warunkach pogodowych
-                        for (TrafficBelt belt : getAllBelts()) {
-                            belt.changeCarsSpeed(weatherConditions);
-                        }
-                    }
-                }
-            }, weatherFirstChangeDelay, weatherChangePeriod);
+            scheduleWeatherChanges();
+        }
+        //Światła zmieniamy po raz pierwszy po 2 sekundach i następnie co 6 sekund
+        if (algorithmType == AlgorithmType.FIXED_TIME) {
+            scheduler.scheduleAtFixedRate(FIXED_LIGHTS_FIRST_CHANGE, FIXED_LIGHTS_CHANGE_PERIOD,
+                () -> crossings.forEach(TrafficLightsAndCrossing::changeLights));
         }
     }
 
+    /**
+     * Metoda planująca w harmonogramie cykliczne zmiany pogody
+     */
+    private void scheduleWeatherChanges() {
+        //Pogoda zmieni się pierwszy raz po 5 sekundach i będzie się zmieniać co 18 sekund.
+        //Natomiast jeśli pogoda ma się zmieniać po kolei, to obliczamy czas zmiany tak,
+        //aby wszystkie pogody panowały w równym przedziale czasowym
+        long weatherChangePeriod = allWeatherIteration ? (simulationTime * 1000L / WeatherEnum.getAllowedWeatherCount()) : RANDOM_WEATHER_CHANGE_PERIOD;
+        long weatherFirstChange = allWeatherIteration ? weatherChangePeriod : RANDOM_WEATHER_FIRST_CHANGE;
+        scheduler.scheduleAtFixedRate(weatherFirstChange, weatherChangePeriod, this::changeWeather);
+    }
+
+    /**
+     * Przeliczenie czasu symulacji na czas rzeczywisty przy aktualnym mnożniku prędkości
+     * @param simulationMillis Czas symulacji w milisekundach
+     * @return Czas rzeczywisty w nanosekundach, 0 dla prędkości nieograniczonej
+     */
+    private long toRealTimeNanos(long simulationMillis) {
+        if (speedMultiplier <= UNLIMITED_SPEED) {
+            return 0;
+        }
+        return (long) (simulationMillis * 1_000_000L / speedMultiplier);
+    }
+
+    /**
+     * Metoda usypiająca aktualny wątek do zadanego czasu
+     * @param deadline Czas (System.nanoTime) do którego należy czekać
+     * @return False, jeśli wątek został przerwany, wpp true
+     */
+    private boolean waitUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            try {
+                Thread.sleep(remaining / 1_000_000L, (int) (remaining % 1_000_000L));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        //Przy prędkości nieograniczonej nie czekamy, więc przerwanie wątku sprawdzamy bezpośrednio
+        return !Thread.currentThread().isInterrupted();
+    }
+
     /**
      * Metoda pomocnicza, zbierająca informację do excela i zapisująca je na dysku
      * @param simulationTimeInSeconds Czas trwania symulacji w sekundach
      * @param weatherConditionsList Lista warunków pogodowych jakie trwały w czasie symulacji
+     * @param droppedFramesCount Liczba klatek pominiętych przez renderer
      * @return Nazwa plików zapisanych na dysku
      */
-    private synchronized List<String> collectResultsToFiles(long simulationTimeInSeconds, List<WeatherEnum> weatherConditionsList) {
-        return ExcelUtils.exportResults(getAllBelts(), weatherConditionsList, simulationTimeInSeconds);
-    }
-
-    /**
-     * Metoda wywołująca wszystkie składowe jednej iteracji symulacji
-     * @param terrainController Kontroler graficznej reprezentacji ekranu symulacji
-     */
-    private synchronized void simulationIteration(final TerrainController terrainController) {
-        //W wątku UI:
-        Platform.runLater(() -> {
-            //Flaga, mówiąca o tym, czy powinniśmy zmienić światła, jeśli wybrany został algorytm ziany świateł
-            //w zależności od ilości samochodów
-            boolean changeLightsSwitch = false;
-            //Dla każdego z pasów
-            for (TrafficBelt belt : SimulationController.this.getAllBelts()) {
-                //Przesuwamy wszystkie samochody w iteracji i usuwamy z ekranu za pomocą terrainControllera
-                //samochody, które opuściły już scenę
-                terrainController.removeCarsFromStage(belt.moveCars());
-                //Próbujemy dodać nowy samochód dla parametrów z obecnych warunków pogodowych
-                ImageView res = belt.addCar(weatherConditions);
-                //Jeśli się udało dodać go na pas, to dodajemy do ekranu za pomocą terrainControllera
-                if (res != null) {
-                    terrainController.addCarOnStage(res);
-                }
-                //Jeśli przekroczyliśmy dla któregoś z pasów maksymalną ilość niepowodzeń ruchu samochodów lub
-                //ich dodania do pasa, a wybrany jest algorytm zmiany świateł w zleżności od tych prób,
-                //zaznaczamy flagę zmiany świateł
-                if (belt.isAboveMaxTries() && algorithmType == AlgorithmType.CARS_COUNT) {
-                    changeLightsSwitch = true;
-                }
+    private synchronized List<String> collectResultsToFiles(long simulationTimeInSeconds, List<WeatherEnum> weatherConditionsList,
+                                                            long droppedFramesCount) {
+        return ExcelUtils.exportResults(getAllBelts(), crossings, weatherConditionsList, simulationTimeInSeconds, outputDirectory,
+            getMaxLagMillis(), getCoalescedTicksCount(), droppedFramesCount);
+    }
+
+    /**
+     * Metoda zbierająca wyniki zakończonej symulacji w pamięci (bez zapisu na dysku), np. do połączenia z wynikami
+     * innych uruchomień tej samej konfiguracji
+     * @return Wyniki symulacji
+     */
+    public synchronized SimulationRunResult collectRunResult() {
+        List<String> beltLabels = new ArrayList<>(allBelts.size());
+        List<BeltStatistics> beltStatistics = new ArrayList<>(allBelts.size());
+        long[] beltCarsLeft = new long[allBelts.size()];
+        for (int i = 0; i < allBelts.size(); i++) {
+            TrafficBelt belt = allBelts.get(i);
+            beltLabels.add(belt.getBeltDirection().toString() + " " + belt.getBeltNumber());
+            beltStatistics.add(belt.getStatistics());
+            beltCarsLeft[i] = belt.getCarsThatLeftTheStage();
+        }
+        long[] crossingCollisions = new long[crossings.size()];
+        for (int i = 0; i < crossings.size(); i++) {
+            crossingCollisions[i] = crossings.get(i).getCollisionsCount();
+        }
+        synchronized (weatherConditionsList) {
+            return new SimulationRunResult(parameters.getSeed(), beltLabels, beltStatistics, beltCarsLeft, crossingCollisions,
+                new ArrayList<>(weatherConditionsList));
+        }
+    }
+
+    /**
+     * Metoda wykonująca jedną iterację symulacji: przesunięcie zegara, zdarzenia z harmonogramu zaplanowane na aktualny takt,
+     * ruch samochodów na wszystkich pasach oraz zebranie zmian na scenie do kolejnej migawki
+     */
+    private synchronized void iterate() {
+        //Przesuwamy zegar symulacji o jeden takt
+        simulationClock.tick();
+        //Wykonujemy zdarzenia, których takt nadszedł (zmiany pogody, cykliczne zmiany świateł, koniec świateł żółtych)
+        scheduler.runDueEvents();
+        //Faza planowania: dla każdego z pasów (równolegle) decydujemy o ruchu samochodów na podstawie stanu z początku iteracji
+        forEachBelt(i -> allBelts.get(i).planMoves());
+        //Faza wykonania: dla każdego z pasów (równolegle) przesuwamy samochody i zbieramy te, które opuściły scenę
+        forEachBelt(i -> removedCars.set(i, allBelts.get(i).commitMoves()));
+        //Flaga, mówiąca o tym, czy powinniśmy zmienić światła, jeśli wybrany został algorytm ziany świateł
+        //w zależności od ilości samochodów
+        boolean changeLightsSwitch = false;
+        //Dla każdego z pasów (sekwencyjnie, w stałej kolejności)
+        for (int i = 0; i < allBelts.size(); i++) {
+            TrafficBelt belt = allBelts.get(i);
+            //Zapamiętujemy do usunięcia z ekranu samochody, które opuściły już scenę
+            if (framesConsumed) {
+                frameRemovedCars.addAll(removedCars.get(i));
+            }
+            //Próbujemy dodać nowy samochód dla parametrów z obecnych warunków pogodowych
+            Car res = belt.addCar(weatherConditions);
+            //Jeśli się udało dodać go na pas, to zapamiętujemy go do dodania na ekran
+            if (res != null && framesConsumed) {
+                frameAddedCars.add(res);
+            }
+            //Jeśli przekroczyliśmy dla któregoś z pasów maksymalną ilość niepowodzeń ruchu samochodów lub
+            //ich dodania do pasa, a wybrany jest algorytm zmiany świateł w zleżności od tych prób,
+            //zaznaczamy flagę zmiany świateł
+            if (belt.isAboveMaxTries() && algorithmType == AlgorithmType.CARS_COUNT) {
+                changeLightsSwitch = true;
             }
-            //Jeśli wybrany został algorytm zmiany świateł względem samochodów i powinniśmy je zmienić,
-            //to dla każdego ze skrzyżowań robimy ich zmianę
-            if (changeLightsSwitch) {
-                SimulationController.this.getAllBelts().forEach(TrafficBelt::resetCarsTriesCounter);
-                crossings.forEach(TrafficLightsAndCrossing::changeLights);
+        }
+        //Po przesunięciu samochodów na wszystkich pasach wykrywamy zderzenia samochodów z prostopadłych pasów na skrzyżowaniach
+        crossings.forEach(TrafficLightsAndCrossing::detectCollisions);
+        //Jeśli wybrany został algorytm zmiany świateł względem samochodów i powinniśmy je zmienić,
+        //to dla każdego ze skrzyżowań robimy ich zmianę
+        if (changeLightsSwitch) {
+            getAllBelts().forEach(TrafficBelt::resetCarsTriesCounter);
+            crossings.forEach(TrafficLightsAndCrossing::changeLights);
+        }
+    }
+
+    /**
+     * Metoda tworząca migawkę zmian na scenie od poprzedniej migawki: dodane i usunięte samochody, pozycje samochodów
+     * na wszystkich pasach, kolory świateł oraz nową pogodę
+     * @return Migawka zmian na scenie
+     */
+    private synchronized FrameUpdate createFrame() {
+        int carsCount = 0;
+        for (TrafficBelt belt : allBelts) {
+            carsCount += belt.getCarsCount();
+        }
+        Car[] cars = new Car[carsCount];
+        int[] carsX = new int[carsCount];
+        int[] carsY = new int[carsCount];
+        int offset = 0;
+        for (TrafficBelt belt : allBelts) {
+            offset = belt.copyCarPositions(cars, carsX, carsY, offset);
+        }
+        LightColorEnum[] verticalLights = new LightColorEnum[crossings.size()];
+        LightColorEnum[] horizontalLights = new LightColorEnum[crossings.size()];
+        for (int i = 0; i < crossings.size(); i++) {
+            verticalLights[i] = crossings.get(i).getVerticalLight();
+            horizontalLights[i] = crossings.get(i).getHorizontalLight();
+        }
+        FrameUpdate frame = new FrameUpdate(simulationClock.getTick(), frameAddedCars, frameRemovedCars, cars, carsX, carsY,
+            verticalLights, horizontalLights, frameWeatherConditions);
+        //Listy przekazane w migawce należą od teraz do renderera, kolejne zmiany zbieramy w nowych
+        frameAddedCars = new ArrayList<>();
+        frameRemovedCars = new ArrayList<>();
+        frameWeatherConditions = null;
+        return frame;
+    }
+
+    /**
+     * Metoda wykonująca zadaną operację dla każdego z pasów - równolegle w puli wątków lub sekwencyjnie, jeśli pula nie istnieje.
+     * Metoda kończy się dopiero po przetworzeniu wszystkich pasów
+     * @param beltAction Operacja wykonywana dla pasa o zadanym indeksie
+     */
+    private void forEachBelt(IntConsumer beltAction) {
+        if (beltsPool == null) {
+            for (int i = 0; i < allBelts.size(); i++) {
+                beltAction.accept(i);
             }
-        });
+        } else {
+            beltsPool.invoke(new BeltsUpdateTask(allBelts, beltAction));
+        }
+    }
+
+    /**
+     * Metoda zmieniająca pogodę na kolejną (lub losową) i przeliczająca prędkości samochodów dla nowych warunków
+     */
+    private void changeWeather() {
+        //Pobieramy nową losową pogodę z enumeratora warunków pogodowych
+        weatherConditions = allWeatherIteration ? WeatherEnum.getNext(weatherConditions) : WeatherEnum.getRandom(random);
+        //Zapisujemy nową pogodę do listy z historią pogody
+        synchronized (weatherConditionsList) {
+            weatherConditionsList.add(weatherConditions);
+        }
+        //Zapamiętujemy zmianę znaku pogody do kolejnej migawki
+        if (framesConsumed) {
+            frameWeatherConditions = weatherConditions;
+        }
+        //Dla każdego pasa ustawiamy współczynnik odległości hamowania z wylosowanych warunków pogodowych
+        //i obliczamy prędkość maksymalną pojazdów zgodnie z parametrami w nowych warunkach pogodowych
+        for (TrafficBelt belt : getAllBelts()) {
+            belt.setStoppingDistFact(weatherConditions.getStoppingDistanceFactor());
+            belt.changeCarsSpeed(weatherConditions);
+        }
     }
 
     /**
@@ -286,8 +616,8 @@ public class SimulationController {
         int x2From = 3 * windowWidth / 4 - verticalBelts2Count * TrafficBelt.BELT_HEIGHT - 3;
         int x2To = 3 * windowWidth / 4 + verticalBelts2Count * TrafficBelt.BELT_HEIGHT + 3;
         //Dodajemy skrzyżowania do listy wynikowej
-        res.add(new TrafficLightsAndCrossing(x1From, x1To, yFrom, yTo, verticalBeltsCount));
-        res.add(new TrafficLightsAndCrossing(x2From, x2To, yFrom, yTo, verticalBelts2Count));
+        res.add(new TrafficLightsAndCrossing(x1From, x1To, yFrom, yTo, verticalBeltsCount, 0, scheduler));
+        res.add(new TrafficLightsAndCrossing(x2From, x2To, yFrom, yTo, verticalBelts2Count, 1, scheduler));
         return res;
     }
 
@@ -310,7 +640,8 @@ public class SimulationController {
         //Tworzymy pasy o kierunku w dół i wysokości = wysokość okna + 20px (aby samochód mógł się schować poza ekran)
         for (int i = 0; i < verticalBeltsCount; i++) {
             TrafficBelt belt =
-                new DownTrafficBelt(beltNr++, carsLimit, beltsXStart, 0, TrafficBelt.BELT_HEIGHT, windowHeight + 20, null, null);
+                new DownTrafficBelt(beltNr++, carsLimit, beltsXStart, 0, TrafficBelt.BELT_HEIGHT, windowHeight + 20, null, null,
+                    simulationClock);
             res.add(belt);
             beltsXStart += TrafficBelt.BELT_HEIGHT;
         }
@@ -321,7 +652,8 @@ public class SimulationController {
         //Tworzymy pasy o kierunku w górę i wysokości = wysokość okna + 20px (aby samochód mógł się schować poza ekran)
         for (int i = 0; i < verticalBeltsCount; i++) {
             TrafficBelt belt =
-                new UpTrafficBelt(beltNr++, carsLimit, beltsXStart, 0, TrafficBelt.BELT_HEIGHT, windowHeight + 20, null, null);
+                new UpTrafficBelt(beltNr++, carsLimit, beltsXStart, 0, TrafficBelt.BELT_HEIGHT, windowHeight + 20, null, null,
+                    simulationClock);
             res.add(belt);
             beltsXStart += TrafficBelt.BELT_HEIGHT;
         }
@@ -360,7 +692,7 @@ public class SimulationController {
         //Tworzymy pasy o kierunku w lewo i szerokości = szerokość okna + 20px (aby samochód mógł się schować poza ekran)
         for (int i = 0; i < horizontalBeltsCount; i++) {
             TrafficBelt belt = new LeftTrafficBelt(beltNr++, carsLimit, 0, beltsYStart, windowWidth + 20, TrafficBelt.BELT_HEIGHT,
-                leftBeltSpeedControlStart, leftBeltSpeedControlEnd);
+                leftBeltSpeedControlStart, leftBeltSpeedControlEnd, simulationClock);
             res.add(belt);
             beltsYStart += TrafficBelt.BELT_HEIGHT;
         }
@@ -371,7 +703,7 @@ public class SimulationController {
         //Tworzymy pasy o kierunku w prawo i szerokości = szerokość okna + 20px (aby samochód mógł się schować poza ekran)
         for (int i = 0; i < horizontalBeltsCount; i++) {
             TrafficBelt belt = new RightTrafficBelt(beltNr++, carsLimit, 0, beltsYStart, windowWidth + 20, TrafficBelt.BELT_HEIGHT,
-                rightBeltSpeedControlStart, rightBeltSpeedControlEnd);
+                rightBeltSpeedControlStart, rightBeltSpeedControlEnd, simulationClock);
             res.add(belt);
             beltsYStart += TrafficBelt.BELT_HEIGHT;
         }
@@ -382,15 +714,55 @@ public class SimulationController {
     }
 
     /**
-     * Metoda dodaje wszystkie pasy na jedną listę i zwraca ją
+     * Getter dla wszystkich pasów drogowych w stałej kolejności
      * @return Lista wszystkich pasów drogowych
      */
     public List<TrafficBelt> getAllBelts() {
-        List<TrafficBelt> res = new ArrayList<>();
-        res.addAll(horizontalBelts);
-        res.addAll(verticalBelts);
-        res.addAll(verticalBelts2);
-        return res;
+        return allBelts;
+    }
+
+    /**
+     * Setter dla liczby wątków, na których równolegle przetwarzane są pasy drogowe.
+     * Musi zostać ustawiony przed startem symulacji
+     * @param beltsParallelism Liczba wątków (1 => przetwarzanie sekwencyjne)
+     */
+    public void setBeltsParallelism(int beltsParallelism) {
+        if (beltsParallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        this.beltsParallelism = beltsParallelism;
+    }
+
+    /**
+     * Setter dla katalogu, w którym zapisywane są pliki z wynikami symulacji
+     * @param outputDirectory Katalog na wyniki (null => katalog roboczy aplikacji)
+     */
+    public void setOutputDirectory(File outputDirectory) {
+        this.outputDirectory = outputDirectory;
+    }
+
+    /**
+     * Ustawienie, czy pasy mają przechowywać wyniki każdego z samochodów do końca symulacji.
+     * Bez nich zużycie pamięci nie rośnie z czasem symulacji, a arkusze z wynikami poszczególnych samochodów są puste
+     * (statystyki i wykresy są zapisywane zawsze). Musi zostać ustawione przed startem symulacji
+     * @param retainSpeedResults True, jeśli wyniki samochodów mają być przechowywane
+     */
+    public void setRetainSpeedResults(boolean retainSpeedResults) {
+        for (TrafficBelt belt : allBelts) {
+            belt.setRetainSpeedResults(retainSpeedResults);
+        }
+    }
+
+    /**
+     * Ustawienie, czy pasy mają przechowywać stan samochodów poza stertą (w buforach bezpośrednich).
+     * Pozwala symulować bardzo duże liczby samochodów bez powiększania sterty i długich przerw odśmiecacza.
+     * Musi zostać ustawione przed startem symulacji
+     * @param offHeapVehicles True, jeśli stan samochodów ma być przechowywany poza stertą
+     */
+    public void setOffHeapVehicles(boolean offHeapVehicles) {
+        for (TrafficBelt belt : allBelts) {
+            belt.setOffHeapVehicles(offHeapVehicles);
+        }
     }
 
     /**
@@ -416,4 +788,60 @@ public class SimulationController {
     public List<SpeedRadar> getSpeedRadars() {
         return speedRadars;
     }
+
+    /**
+     * Getter dla zegara symulacji
+     * @return Zegar symulacji
+     */
+    public SimulationClock getSimulationClock() {
+        return simulationClock;
+    }
+
+    /**
+     * Getter dla harmonogramu zdarzeń symulacji
+     * @return Harmonogram zdarzeń symulacji
+     */
+    public SimulationScheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Getter dla aktualnego opóźnienia pętli symulacji względem czasu rzeczywistego
+     * @return Opóźnienie ostatniej iteracji w milisekundach (0 dla prędkości nieograniczonej)
+     */
+    public double getLagMillis() {
+        return lagNanos / 1_000_000.0;
+    }
+
+    /**
+     * Getter dla największego opóźnienia pętli symulacji względem czasu rzeczywistego
+     * @return Największe opóźnienie iteracji w milisekundach (0 dla prędkości nieograniczonej)
+     */
+    public double getMaxLagMillis() {
+        return maxLagNanos / 1_000_000.0;
+    }
+
+    /**
+     * Getter dla liczby taktów połączonych z kolejną migawką przy nadrabianiu opóźnienia
+     * @return Liczba taktów wykonanych bez przekazania migawki do renderera
+     */
+    public long getCoalescedTicksCount() {
+        return coalescedTicksCount;
+    }
+
+    /**
+     * Getter dla parametrów, z którymi została utworzona symulacja
+     * @return Parametry symulacji (w tym ziarno generatora wartości losowych)
+     */
+    public SimulationParameters getParameters() {
+        return parameters;
+    }
+
+    /**
+     * Getter dla mnożnika prędkości symulacji
+     * @return Mnożnik prędkości symulacji względem czasu rzeczywistego (0 oznacza prędkość nieograniczoną)
+     */
+    public double getSpeedMultiplier() {
+        return speedMultiplier;
+    }
 }
@@ -1,286 +1,143 @@
 package main.model;
 
-import javafx.scene.image.Image;
-import javafx.scene.image.ImageView;
 import main.model.belts.TrafficBelt;
+import main.model.belts.VehicleStore;
 import main.model.enums.DirectionEnum;
 import main.model.enums.WeatherEnum;
-import main.utils.DateUtils;
+import main.model.results.SpeedResult;
+import main.model.results.WeatherSpeeds;
 
-import java.awt.*;
-import java.time.LocalDateTime;
 import java.util.*;
-import java.util.List;
 
 /**
  * Created by Krzysztof Baran
- * Obiekt reprezentujący samochód oraz wszelkie operacje z nim związane (przyspieszanie, obliczanie pozycji itd)
- * Dziedziczy po ImageView przez co sam w sobie jest obiektem sceny zawierającym obraz wewnątrz
+ * Obiekt reprezentujący samochód oraz jego statystyki (prędkości średnie, pogoda, czasy dojazdu do skrzyżowań).
+ * Stan zmieniany w każdej iteracji (pozycja, prędkość, przyspieszenie, prędkość maksymalna, kolizja, pomiar odcinkowy)
+ * przechowywany jest w kolumnowym magazynie pasa (VehicleStore), a samochód jest uchwytem do swojego miejsca w nim.
+ * Jest czystym obiektem modelu, niezależnym od JavaFX. Za jego wyświetlenie odpowiada renderer (pakiet main.view)
  */
-public class Car extends ImageView {
+public class Car {
     /**
-     * Generator liczb losowych aby niezależnie zmieniać przyspieszenie samochodów z elementem losowości
+     * Rozmiar pojazdu na scenie (większy z wymiarów), używany do wykrywania opuszczenia pasa
      */
-    private final static Random RANDOM = new Random();
+    public static final int CAR_SIZE = TrafficBelt.BELT_HEIGHT - 2;
     /**
-     * Pozycja początkowa pojazdu na scenie.
-     * Służy również do obliczenia całkowitej średniej prędkości poruszania się pojazdu
+     * Magazyn stanu samochodów pasa, na którym znajduje się pojazd, oraz numer miejsca pojazdu w tym magazynie
      */
-    private final Point beginPos;
+    private final VehicleStore vehicles;
+    private final int slot;
     /**
-     * Czas i data pojawienia się pojazdu na scenie.
+     * Współrzędna początkowa pojazdu wzdłuż pasa.
      * Służy również do obliczenia całkowitej średniej prędkości poruszania się pojazdu
      */
-    private final LocalDateTime carEnterOnStageTime;
+    private final int beginCoordinate;
     /**
-     * Pozycja końcowa pojazdu podczas zdejmowania go ze sceny.
-     * Służy również do obliczenia całkowitej średniej prędkości poruszania się pojazdu
+     * Zegar symulacji, z którego odczytywane są takty dla wszystkich statystyk
      */
-    private Point endPos;
+    private final SimulationClock simulationClock;
     /**
-     * Czas i data zdjęcia pojazdu ze sceny.
+     * Takt symulacji, w którym pojazd pojawił się na scenie.
      * Służy również do obliczenia całkowitej średniej prędkości poruszania się pojazdu
      */
-    private LocalDateTime carLeftTheStageTime;
-    /**
-     * Maksymalna prędkość jaką może osiągnąć samochód
-     */
-    private Integer maxSpeed;
-    /**
-     * Aktualna prędkość samochodu
-     */
-    private int speed;
+    private final long carEnterOnStageTick;
     /**
-     * Aktualne przyspieszenie samochodu (gdy dodatnie -> porusza się w prawo lub dół, wpp w lewo lub górę)
-     */
-    private double acceleration;
-    /**
-     * Aktualna pozycja samochodu
-     */
-    private Point position;
-    /**
-     * Kierunek poruszania się pojazdu po osi X oraz Y. Jeśli xDirection = 1 => prawo, jeśli xDirection = -1 => lewo,
-     * jeśli yDirection = 1 => dół, jeśli yDirection = -1 => góra
-     */
-    private int xDirection, yDirection;
-    /**
-     * Data rozpoczęcia pomiaru odcinkowego jeśli takowy istnieje na pasie
+     * Współrzędna końcowa pojazdu wzdłuż pasa podczas zdejmowania go ze sceny.
+     * Służy również do obliczenia całkowitej średniej prędkości poruszania się pojazdu
      */
-    private LocalDateTime radarSpeedMeasureStarted;
+    private int endCoordinate;
     /**
-     * Data zakończenia pomiaru odcinkowego jeśli takowy istnieje na pasie
+     * Takt symulacji, w którym pojazd został zdjęty ze sceny.
+     * Służy również do obliczenia całkowitej średniej prędkości poruszania się pojazdu
      */
-    private LocalDateTime radarSpeedMeasureEnd;
+    private long carLeftTheStageTick = SimulationClock.NOT_SET;
     /**
-     * Pozycja w której rozpoczyna się i kończy pomiar odcinkowy jeśli takowy istnieje na pasie
+     * Kierunek poruszania się pojazdu (kierunek pasa na którym się znajduje)
      */
-    private Integer radarSpeedStartX, radarSpeedEndX;
+    private final DirectionEnum direction;
     /**
      * Aktuanie panująca pogoda na scenie.
      * Służy do gromadzenia statystyk w jakiej pogodzie jaka była prędkość średnia pojazdu
      */
     private WeatherEnum currentWeather;
     /**
-     * Data i czas kiedy następowała ostatnia zmiana pogody.
-     * Używana do przeliczeń średniej prędkości w obecnej pogodzie
+     * Takt symulacji, w którym następowała ostatnia zmiana pogody.
+     * Używany do przeliczeń średniej prędkości w obecnej pogodzie
      */
-    private LocalDateTime lastWeatherChangeTime;
+    private long lastWeatherChangeTick;
     /**
-     * Pozycja samochodu podczas ostatniej zmiany pogody.
+     * Współrzędna samochodu wzdłuż pasa podczas ostatniej zmiany pogody.
      * Używana do przeliczeń średniej prędkości w obecnej pogodzie
      */
-    private Point lastWeatherPosition;
+    private int lastWeatherCoordinate;
     /**
      * Statystyki prędkości średnich samochodu z podziałem na warunki pogodowe panujące na scenie
      */
-    private Map<WeatherEnum, List<Long>> speedsForWeather;
-    /**
-     * Flaga mówiąca o tym, czy samochód wziął udział w kolizji
-     */
-    private boolean carIsInCollision;
+    private final WeatherSpeeds speedsForWeather;
     /**
      * Pogoda w której kolizja nastąpiła
      */
     private WeatherEnum collisionWeather;
+    /**
+     * Maska skrzyżowań, na których aktualnie znajduje się samochód (bit o numerze skrzyżowania)
+     */
+    private long crossingMask;
+    /**
+     * Takt, od którego liczony jest czas dojazdu do kolejnego skrzyżowania (wjazd na scenę lub zjazd z poprzedniego skrzyżowania)
+     */
+    private long approachStartTick;
 
     /**
-     * Konstruktor obiektu samochodu
+     * Konstruktor obiektu samochodu. Samochód zajmuje miejsce w magazynie pasa na jego końcu
      *
+     * @param vehicles         Magazyn stanu samochodów pasa (określa też kierunek pasa, pomiar odcinkowy i zegar symulacji)
      * @param maxSpeed         Maksymalna prędkość jaką samochód może uzyskać (może ulec zimanie w zależności od pogody)
-     * @param direction        Kierunek poruszania się pojazdu
+     * @param acceleration     Przyspieszenie samochodu (patrz randomAcceleration)
      * @param beltXPos         Współrzędna X rozpoczęcia się pasu (pozycja na osi X z której startuje samochód)
      * @param beltYPos         Współrzędna Y rozpoczęcia się pasu (pozycja na osi Y z której startuje samochód)
-     * @param radarSpeedStartX Współrzędna X rozpoczęcia pomiaru odcinkowego na pasie, jeśli takowy istnieje
-     * @param radarSpeedEndX   Współrzędna X zakończenia pomiaru odcinkowego na pasie, jeśli takowy istnieje
      * @param weatherEnum      Początkowa pogoda panująca na scenie
      */
-    public Car(int maxSpeed, DirectionEnum direction, int beltXPos, int beltYPos, Integer radarSpeedStartX, Integer radarSpeedEndX, WeatherEnum weatherEnum) {
+    public Car(VehicleStore vehicles, int maxSpeed, double acceleration, int beltXPos, int beltYPos, WeatherEnum weatherEnum) {
         super();
-        if (direction == null) {
-            throw new IllegalArgumentException("Direction must be defined");
-        }
-        //Pobranie obrazu z resource'ów oraz ustawienie jego rozmiaru
-        loadImgAndResize(beltXPos, beltYPos);
-        //Ustawienie kierunków poruszania się pojazdu
-        xDirection = direction == DirectionEnum.RIGHT ? 1 : (direction == DirectionEnum.LEFT ? -1 : 0);
-        yDirection = direction == DirectionEnum.DOWN ? 1 : (direction == DirectionEnum.UP ? -1 : 0);
-        //Ustawienie aktualnej pozycji oraz pozycji początkowej pojazdu
-        this.position = new Point(beltXPos, beltYPos);
-        this.beginPos = new Point(beltXPos, beltYPos);
-        //Ustawienie daty pojawienia się samochodu na scenie
-        this.carEnterOnStageTime = LocalDateTime.now();
-        //Ustawienie aktualnej prędkości maksymalnej pojazdu (w zależności od pogody)
-        this.maxSpeed = maxSpeed;
-        //Ustawienie prędkości początkowej pojazdu wjeżdżającego na scenę
-        this.speed = maxSpeed / 4;
-        //Ustawienie przyspieszenia pojazdu w zależności od osiąganej prędkości maksymalnej
-        this.acceleration = (double) (maxSpeed + RANDOM.nextInt(30)) / 10.0;
-        //Ustawienie początku i końca pomiaru odcinkowego prędkości na pasie
-        this.radarSpeedStartX = radarSpeedStartX;
-        this.radarSpeedEndX = radarSpeedEndX;
+        //Ustawienie magazynu pasa oraz kierunku poruszania się pojazdu
+        this.vehicles = vehicles;
+        this.direction = vehicles.getDirection();
+        //Ustawienie pozycji początkowej pojazdu
+        this.beginCoordinate = direction.getXDirection() == 0 ? beltYPos : beltXPos;
+        //Ustawienie taktu pojawienia się samochodu na scenie
+        this.simulationClock = vehicles.getSimulationClock();
+        this.carEnterOnStageTick = simulationClock.getTick();
+        this.approachStartTick = carEnterOnStageTick;
         //Ustawienie aktualnej pogody
         this.currentWeather = weatherEnum;
-        //Ustawienie ostatniej zmiany pogody na aktualny czas
-        this.lastWeatherChangeTime = LocalDateTime.now();
+        //Ustawienie ostatniej zmiany pogody na aktualny takt
+        this.lastWeatherChangeTick = carEnterOnStageTick;
         //Ustawienie ostatniej pozycji pojazdy podczas zmiany pogody na aktualną
-        this.lastWeatherPosition = new Point(beltXPos, beltYPos);
+        this.lastWeatherCoordinate = beginCoordinate;
         //Zainicjowanie statystyk prędkości względem pogody
-        this.speedsForWeather = new HashMap<>();
+        this.speedsForWeather = new WeatherSpeeds();
         //Oznaczenie braku kolizji na początku
-        this.carIsInCollision = false;
         this.collisionWeather = null;
+        //Zajęcie miejsca w magazynie pasa z aktualną pozycją, prędkością początkową (w zależności od pogody) i przyspieszeniem
+        this.slot = vehicles.add(this, beltXPos, beltYPos, initialSpeed(maxSpeed), maxSpeed, acceleration);
     }
 
     /**
-     * Inicjalizacji tymczasowego obiektu samochodu do przeliczeń kolizji
-     * @param x Pozycja pojazdu na osi X
-     * @param y Pozycja pojazdu na osi Y
-     */
-    public Car(double x, double y) {
-        this.setX(x);
-        this.setY(y);
-        beginPos = null;
-        carEnterOnStageTime = null;
-    }
-
-    /**
-     * Inicjalizacji tymczasowego obiektu samochodu do przeliczeń kolizji
-     * @param c Aktualnie analizowany samochód
-     */
-    public Car(Car c) {
-        this.setX(c.getX());
-        this.setY(c.getY());
-        this.position = new Point(c.position.x, c.position.y);
-        this.xDirection = c.xDirection;
-        this.yDirection = c.yDirection;
-        beginPos = null;
-        carEnterOnStageTime = null;
-        this.maxSpeed = c.maxSpeed;
-        this.speed = c.speed;
-        this.acceleration = c.acceleration;
-    }
-
-    /**
-     * Wczytanie obiektu graficznego pojazdu i ustawienie jego pozycji na scenie
-     * @param startPosX Współrzędna startowa na osi X
-     * @param startPosY Współrzędna startowa na osi Y
-     */
-    private void loadImgAndResize(int startPosX, int startPosY) {
-        //Wczytanie obrazu z resource'ów
-        Image carImg = new Image(getClass().getClassLoader().getResourceAsStream("resources/images/car.png"));
-        setImage(carImg);
-        //Ustawienie maksymalnej wielkości obrazu
-        int maxSize = TrafficBelt.BELT_HEIGHT - 2;
-        //Pobranie większego wymiaru obrazu i obliczenie współczynnika, przez jaki trzeba przemnożyć obie wartości,
-        //aby większa z nich była rozmiaru maxSize
-        double scale = ((double) maxSize) / (carImg.getHeight() > carImg.getWidth() ? carImg.getHeight() : carImg.getWidth());
-        //Przeliczenie i ustawienie rozmiaru obrazu
-        setPreserveRatio(true);
-        setFitWidth(carImg.getWidth() * scale);
-        setFitHeight(carImg.getHeight() * scale);
-        //Ustawienie pozycji początkowej pojazdu
-        setX(startPosX);
-        setY(startPosY);
-    }
-
-    /**
-     * Metoda mająca przyspieszyć samochód lub jeśli osiągnął prędkość maksymalną, to ustrzymanie jej.
-     * Przelicza także nową pozycję na ekranie po danej iteracji symulacji
-     */
-    public void go() {
-        synchronized (maxSpeed) {
-            Point newPos = calculatePosition(acceleration);
-            setX(newPos.getX());
-            setY(newPos.getY());
-        }
-    }
-
-    /**
-     * Metoda mająca zwolnić samochód lub jeśli osiągnął 0, to ustrzymanie jej bez zmian.
-     * Przelicza także nową pozycję na ekranie po danej iteracji symulacji.
-     * Prędkość hamowania wynosi 5*przypieszenie
+     * Wylosowanie przyspieszenia pojazdu w zależności od osiąganej prędkości maksymalnej
+     * @param maxSpeed Maksymalna prędkość pojazdu
+     * @param random Generator liczb losowych symulacji (wspólny dla pasa, aby przebieg dało się powtórzyć dla tego samego ziarna)
+     * @return Przyspieszenie pojazdu
      */
-    public void stop() {
-        synchronized (maxSpeed) {
-            Point newPos = calculatePosition(-acceleration * 5);
-            setX(newPos.getX());
-            setY(newPos.getY());
-        }
-    }
-
-    /**
-     * Funkcja pomocnicza, której zadaniem jest przeliczenie nowej pozycji dla zadanej wartości przypieszenia
-     * Oblicza również aktualną prędkość oraz sprawdza i ustawia wartości związane z pomiarem odcinkowym
-     * @param accelerationValue Aktualne przyspieszenie
-     * @return Nowa pozycja pojazdu
-     */
-    private Point calculatePosition(double accelerationValue) {
-        //Obliczenie prędkości po osi X i Y
-        int xSpeed = calculateSpeed(xDirection, accelerationValue, speed);
-        int ySpeed = calculateSpeed(yDirection, accelerationValue, speed);
-        //Ustawienie prędkości
-        speed = xSpeed != 0 ? xSpeed : ySpeed;
-        //Zmiana pozycji samochodu
-        position.x += xSpeed;
-        position.y += ySpeed;
-        //Ustawienie wartości pomiaru odcinkowego, jeśli się rozpoczął lub skończył
-        checkAndMarkRadars(position);
-        return position;
+    public static double randomAcceleration(int maxSpeed, Random random) {
+        return (double) (maxSpeed + random.nextInt(30)) / 10.0;
     }
 
     /**
-     * Ustawienie wartości związanych z pomiarem odcinkowym, jeśli się zaczął, lub skończył
-     * @param position Aktualna pozycja samochodu
+     * Prędkość z jaką pojazd wjeżdża na scenę
+     * @param maxSpeed Maksymalna prędkość pojazdu
+     * @return Prędkość początkowa pojazdu
      */
-    private void checkAndMarkRadars(Point position) {
-        if (xDirection == 0 || radarSpeedStartX == null) {
-            return;
-        }
-        //Jeśli samochód porusza się w prawo i nie zakończył się jeszcze pomiar prędkości
-        if (xDirection > 0 && radarSpeedMeasureEnd == null) {
-            //Jeśli pozycja X przekroczyła pozycję rozpoczęcia pomiaru, a ten nie jest uwzględniony, oznacza to
-            //rozpoczęcie pomiaru, więc zapisujemy datę i czas rozpoczęcia pomiaru
-            if (position.x > radarSpeedStartX && radarSpeedMeasureStarted == null) {
-                radarSpeedMeasureStarted = LocalDateTime.now();
-            }
-            //Jeśli pozycja X przekroczyła pozycję zakończenia pomiaru, zapisujemy datę i czas zakończenia pomiaru
-            if (position.x > radarSpeedEndX) {
-                radarSpeedMeasureEnd = LocalDateTime.now();
-            }
-        }
-
-        //Jeśli samochód porusza się w lewo i nie zakończył się jeszcze pomiar prędkości
-        if (xDirection < 0 && radarSpeedMeasureEnd == null) {
-            //Jeśli pozycja X przekroczyła pozycję rozpoczęcia pomiaru, a ten nie jest uwzględniony, oznacza to
-            //rozpoczęcie pomiaru, więc zapisujemy datę i czas rozpoczęcia pomiaru
-            if (position.x < radarSpeedStartX && radarSpeedMeasureStarted == null) {
-                radarSpeedMeasureStarted = LocalDateTime.now();
-            }
-            //Jeśli pozycja X przekroczyła pozycję zakończenia pomiaru, zapisujemy datę i czas zakończenia pomiaru
-            if (position.x < radarSpeedEndX) {
-                radarSpeedMeasureEnd = LocalDateTime.now();
-            }
-        }
+    public static int initialSpeed(int maxSpeed) {
+        return maxSpeed / 4;
     }
 
     /**
@@ -289,37 +146,36 @@ public class Car extends ImageView {
      * @param newMaxSpeed Nowa prędkość maksymalna
      * @param newWeather Nowe warunki pogodowe
      */
-    public void changeMaxSpeed(int newMaxSpeed, WeatherEnum newWeather) {
-        synchronized (maxSpeed) {
-            maxSpeed = newMaxSpeed;
-            updateSpeedForTheWeather(newWeather);
-        }
+    public synchronized void changeMaxSpeed(int newMaxSpeed, WeatherEnum newWeather) {
+        vehicles.setMaxSpeed(slot, newMaxSpeed);
+        updateSpeedForTheWeather(newWeather);
     }
 
     /**
-     * Funkcja pomocnicza zapisująca wszystkie statystyki związane z ostatnią pogodą i ustawia nową
+     * Funkcja pomocnicza zapisująca wszystkie statystyki związane z ostatnią pogodą i ustawia nową.
+     * Nie tworzy żadnych obiektów, więc zmiana pogody dla wszystkich samochodów na scenie nie obciąża pamięci
      * @param newWeather Nowe warunki pogodowe
      */
     private synchronized void updateSpeedForTheWeather(WeatherEnum newWeather) {
         //Pobranie koordynatów ostatniej zmiany pogody (w zależności od osi)
-        int startCoordinate = xDirection == 0 ? lastWeatherPosition.y : lastWeatherPosition.x;
+        int startCoordinate = lastWeatherCoordinate;
         //Pobranie koordynatów z aktualnej pozyji samochodu (w zależności od osi)
-        int endCoordinate = xDirection == 0 ? position.y : position.x;
-        //Pobranie aktualnej daty
-        LocalDateTime nowDateTime = LocalDateTime.now();
-        //Obliczenie prędkości na odcinku -> pozycja podczas ostatniej zmiany pogody - aktualna pozycja
-        //w czasie obecznym - czas ostatniej zmiany pogody
-        long speed = calculateSpeedStats(startCoordinate, endCoordinate, lastWeatherChangeTime, nowDateTime);
-        //Jeśli obecnej pogody nie ma jeszcze w statystykach, to ją inicjujemy
-        if (!speedsForWeather.containsKey(currentWeather)) {
-            speedsForWeather.put(currentWeather, new ArrayList<>());
+        int endCoordinate = vehicles.getCoordinate(slot);
+        //Pobranie aktualnego taktu symulacji
+        long nowTick = simulationClock.getTick();
+        //Odcinek o zerowym czasie trwania (np. zmiana pogody w tym samym takcie, w którym samochód opuszcza scenę)
+        //nie ma prędkości, więc go nie zapisujemy
+        if (nowTick > lastWeatherChangeTick) {
+            //Obliczenie prędkości na odcinku -> pozycja podczas ostatniej zmiany pogody - aktualna pozycja
+            //w czasie obecznym - czas ostatniej zmiany pogody
+            long speed = calculateSpeedStats(startCoordinate, endCoordinate, lastWeatherChangeTick, nowTick);
+            //Dopisujemy obliczoną prędkość dla zadanych warunków pogodowych
+            speedsForWeather.add(currentWeather, speed);
         }
-        //Dopisujemy obliczoną prędkość dla zadanych warunków pogodowych
-        speedsForWeather.get(currentWeather).add(speed);
-        //Ustawienie ostatniego czasu zmiany pogody na aktualny
-        lastWeatherChangeTime = nowDateTime;
+        //Ustawienie ostatniego taktu zmiany pogody na aktualny
+        lastWeatherChangeTick = nowTick;
         //Ustawienie pozycji podczas ostatniej zmiany pogody na aktualną
-        lastWeatherPosition = new Point(position.x, position.y);
+        lastWeatherCoordinate = endCoordinate;
         //Ustawienie nowej pogody
         currentWeather = newWeather;
     }
@@ -329,9 +185,10 @@ public class Car extends ImageView {
      * @param direction Kierunek poruszania się pojazdu
      * @param accelerationValue Wartość obecnego przyspieszenia (dodatnie => gaz, ujemne => hamulec)
      * @param currentSpeed Obecna prędkość
+     * @param maxSpeed Maksymalna prędkość pojazdu
      * @return Nowa wartość prędkości pojazdu
      */
-    private int calculateSpeed(int direction, double accelerationValue, int currentSpeed) {
+    public static int calculateSpeed(int direction, double accelerationValue, int currentSpeed, int maxSpeed) {
         if (direction == 0) {
             return 0;
         }
@@ -354,46 +211,60 @@ public class Car extends ImageView {
 
     /**
      * Logika wywoływana przy usuwaniu pojazdu ze sceny
-     * Ustawian jest data usunięcia pojazdu oraz jego pozycja podczas usuwania go ze sceny do obliczeń
+     * Ustawiany jest takt usunięcia pojazdu oraz jego pozycja podczas usuwania go ze sceny do obliczeń
      * Aktualizowane są również dane o ostatniej pogodzie i prędkościach podczas niej
      */
     public void carRemoveLogic() {
-        this.carLeftTheStageTime = LocalDateTime.now();
-        this.endPos = new Point(position.x, position.y);
+        this.carLeftTheStageTick = simulationClock.getTick();
+        this.endCoordinate = vehicles.getCoordinate(slot);
         updateSpeedForTheWeather(currentWeather);
     }
 
     /**
-     * Getter dla pozycji pojazdu
-     * @return Aktualna pozycja pojazdu
+     * Getter dla pozycji pojazdu na osi X
+     * @return Aktualna pozycja pojazdu na osi X
+     */
+    public int getX() {
+        return vehicles.getX(slot);
+    }
+
+    /**
+     * Getter dla pozycji pojazdu na osi Y
+     * @return Aktualna pozycja pojazdu na osi Y
      */
-    public Point getPosition() {
-        return new Point((int) getX(), (int) getY());
+    public int getY() {
+        return vehicles.getY(slot);
     }
 
     /**
      * Metoda obliczająca średnią prędkość pojadu na całym odcinku trasy.
      * Pobieramy koordynaty początkowe, końcowe i wołamy metodę obliczania prędkości dla nich
-     * oraz czasu pojawienia się i zniknięcia pojazdy ze sceny
+     * oraz taktów pojawienia się i zniknięcia pojazdy ze sceny
      * @return Średnia prędkość pojazdy na całym odcinku trasy
      */
     public long getAverageSpeed() {
-        int startCoordinate = xDirection == 0 ? beginPos.y : beginPos.x;
-        int endCoordinate = xDirection == 0 ? endPos.y : endPos.x;
-        return calculateSpeedStats(startCoordinate, endCoordinate, carEnterOnStageTime, carLeftTheStageTime);
+        return calculateSpeedStats(beginCoordinate, endCoordinate, carEnterOnStageTick, carLeftTheStageTick);
     }
 
     /**
      * Obliczenie prędkości dla pomiaru odcinkowego, jeśli tylko takowy istniał.
-     * Jeśli brak punktów pomiaru, zwracany jest 'n/a'.
-     * Obliczana jest prędkość na podstawie odcinka pozycji startu i końca pomiaru oraz czasów ich przekroczenia
-     * @return 'n/a' jeśli brak pomiaru, jeśli pomiar istniał, to średnia prędkość podczas pomiaru
+     * Jeśli brak punktów pomiaru lub samochód nie przejechał całego odcinka, zwracany jest SpeedResult.RADAR_NOT_MEASURED.
+     * Obliczana jest prędkość na podstawie odcinka pozycji startu i końca pomiaru oraz taktów ich przekroczenia
+     * @return SpeedResult.RADAR_NOT_MEASURED jeśli brak pomiaru, jeśli pomiar istniał, to średnia prędkość podczas pomiaru
      */
-    public String getRadarMeasuredSpeed() {
-        if (radarSpeedStartX == null || radarSpeedEndX == null) {
-            return "n/a";
+    public long getRadarMeasuredSpeed() {
+        if (!vehicles.hasRadar()) {
+            return SpeedResult.RADAR_NOT_MEASURED;
         }
-        return String.valueOf(calculateSpeedStats(radarSpeedStartX, radarSpeedEndX, radarSpeedMeasureStarted, radarSpeedMeasureEnd));
+        //Pomiar niezakończony (lub zakończony w tym samym takcie) nie daje prędkości
+        long radarSpeedMeasureStarted = vehicles.getRadarStartTick(slot);
+        long radarSpeedMeasureEnd = vehicles.getRadarEndTick(slot);
+        if (radarSpeedMeasureStarted == SimulationClock.NOT_SET || radarSpeedMeasureEnd == SimulationClock.NOT_SET
+            || radarSpeedMeasureEnd <= radarSpeedMeasureStarted) {
+            return SpeedResult.RADAR_NOT_MEASURED;
+        }
+        return calculateSpeedStats(vehicles.getRadarSpeedStartX(), vehicles.getRadarSpeedEndX(), radarSpeedMeasureStarted,
+            radarSpeedMeasureEnd);
     }
 
     /**
@@ -401,13 +272,13 @@ public class Car extends ImageView {
      * Ustalone zostały 25 pikseli => 4 km. 0.5s symulacji to 1 godzina
      * @param position1 Pozycja początkowa pojazdu
      * @param position2 Pozycja końcowa pojazdu
-     * @param timeStart Czas rozpoczęcia pomiaru prędkości
-     * @param timeEnd Czas zakończenia pomiaru prędkości
+     * @param tickStart Takt rozpoczęcia pomiaru prędkości
+     * @param tickEnd Takt zakończenia pomiaru prędkości
      * @return Obliczona średnia prędkość dla danych parametrów
      */
-    private long calculateSpeedStats(double position1, double position2, LocalDateTime timeStart, LocalDateTime timeEnd) {
+    private long calculateSpeedStats(double position1, double position2, long tickStart, long tickEnd) {
         double distance = Math.abs(position1 - position2) / 25.0 * 4.0; //25 pikseli => 4km
-        double time = DateUtils.calculateInMilliSeconds(timeStart, timeEnd) / 500.0;   //0.5s = 1h
+        double time = simulationClock.calculateInMilliSeconds(tickStart, tickEnd) / 500.0;   //0.5s = 1h
         return (long) (distance / time);
     }
 
@@ -416,14 +287,46 @@ public class Car extends ImageView {
      * @return Maksymalna prędkość pojazdu
      */
     public int getMaxSpeed() {
-        return maxSpeed;
+        return vehicles.getMaxSpeed(slot);
+    }
+
+    /**
+     * Getter dla kierunku poruszania się pojazdu
+     * @return Kierunek poruszania się pojazdu
+     */
+    public DirectionEnum getDirection() {
+        return direction;
+    }
+
+    /**
+     * Getter dla aktualnej prędkości pojazdu (ze znakiem zgodnym z kierunkiem ruchu na osi)
+     * @return Aktualna prędkość pojazdu
+     */
+    public int getSpeed() {
+        return vehicles.getSpeed(slot);
+    }
+
+    /**
+     * Getter dla przyspieszenia pojazdu
+     * @return Przyspieszenie pojazdu
+     */
+    public double getAcceleration() {
+        return vehicles.getAcceleration(slot);
+    }
+
+    /**
+     * Getter dla numeru miejsca pojazdu w magazynie stanu samochodów pasa
+     * @return Numer miejsca pojazdu
+     */
+    public int getSlot() {
+        return slot;
     }
 
     /**
      * Getter dla statystyk prędkości podczas różnych warunków pogodowych
      * @return Statystyki prędkości podczas różnych warunków pogodowych
      */
-    public Map<WeatherEnum, List<Long>> getSpeedsForWeather() {
+    public WeatherSpeeds getSpeedsForWeather() {
         return speedsForWeather;
     }
 
@@ -437,15 +340,48 @@ public class Car extends ImageView {
 
 
     public boolean isInCollision() {
-        return carIsInCollision;
+        return vehicles.isInCollision(slot);
     }
 
     public void markCollision() {
-        carIsInCollision = true;
+        vehicles.markCollision(slot);
         collisionWeather = currentWeather;
     }
 
     public WeatherEnum getCollisionWeather() {
         return collisionWeather;
     }
+
+    /**
+     * Sprawdzenie, czy samochód znajduje się na zadanym skrzyżowaniu
+     * @param crossingIndex Numer skrzyżowania
+     * @return True, jeśli samochód jest na skrzyżowaniu, wpp false
+     */
+    public boolean isOnCrossing(int crossingIndex) {
+        return (crossingMask & (1L << crossingIndex)) != 0;
+    }
+
+    /**
+     * Oznaczenie wjazdu lub zjazdu samochodu ze skrzyżowania
+     * @param crossingIndex Numer skrzyżowania
+     * @param onCrossing True przy wjeździe na skrzyżowanie, false przy zjeździe
+     */
+    public void setOnCrossing(int crossingIndex, boolean onCrossing) {
+        if (onCrossing) {
+            crossingMask |= 1L << crossingIndex;
+        } else {
+            crossingMask &= ~(1L << crossingIndex);
+        }
+    }
+
+    /**
+     * Zakończenie dojazdu do skrzyżowania przy zjeździe z niego. Kolejny dojazd liczony jest od aktualnego taktu
+     * @return Czas dojazdu w milisekundach symulacji (od wjazdu na scenę lub zjazdu z poprzedniego skrzyżowania)
+     */
+    public long finishCrossingApproach() {
+        long nowTick = simulationClock.getTick();
+        long res = (long) simulationClock.calculateInMilliSeconds(approachStartTick, nowTick);
+        approachStartTick = nowTick;
+        return res;
+    }
 }
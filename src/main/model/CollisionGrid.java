@@ -0,0 +1,180 @@
+package main.model;
+
+import main.model.belts.TrafficBelt;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Created by Krzysztof Baran
+ * Jednorodna siatka (spatial hash) nad obszarem skrzyżowania, służąca do wykrywania zderzeń samochodów z prostopadłych pasów.
+ * W każdej iteracji samochody są wpisywane do komórek siatki, na które nachodzą, a porównywane są tylko samochody
+ * znajdujące się w tej samej komórce, dzięki czemu koszt jest prawie liniowy względem liczby samochodów na skrzyżowaniu.
+ * Listy samochodów w komórkach trzymane są w tablicach liczb całkowitych, aby nie tworzyć obiektów w każdej iteracji
+ */
+public class CollisionGrid {
+    /**
+     * Rozmiar boku komórki siatki w pikselach (nie mniejszy niż rozmiar samochodu, więc samochód zajmuje maksymalnie 4 komórki)
+     */
+    private static final int CELL_SIZE = TrafficBelt.BELT_HEIGHT;
+    /**
+     * Oznaczenie końca listy w komórce
+     */
+    private static final int EMPTY = -1;
+    /**
+     * Lewy górny róg obszaru siatki
+     */
+    private final int originX, originY;
+    /**
+     * Liczba kolumn i wierszy siatki
+     */
+    private final int columns, rows;
+    /**
+     * Indeks pierwszego wpisu w każdej z komórek
+     */
+    private final int[] cellHeads;
+    /**
+     * Indeks kolejnego wpisu w tej samej komórce dla każdego wpisu
+     */
+    private int[] nextEntry;
+    /**
+     * Indeks samochodu (w tablicy cars) dla każdego wpisu
+     */
+    private int[] entryCar;
+    /**
+     * Samochody wpisane do siatki w aktualnym wyszukiwaniu (tablica używana ponownie w kolejnych iteracjach)
+     */
+    private Car[] cars = new Car[16];
+    /**
+     * Informacja, czy samochód był w kolizji przed aktualnym wyszukiwaniem (aby liczba zderzeń nie zależała od kolejności)
+     */
+    private boolean[] collidedBefore = new boolean[16];
+
+    /**
+     * Konstruktor siatki pokrywającej zadany prostokąt
+     * @param x1 Początek obszaru na osi X
+     * @param x2 Koniec obszaru na osi X
+     * @param y1 Początek obszaru na osi Y
+     * @param y2 Koniec obszaru na osi Y
+     */
+    public CollisionGrid(int x1, int x2, int y1, int y2) {
+        //Obszar powiększamy o rozmiar samochodu, aby objąć samochody częściowo wjeżdżające na skrzyżowanie
+        this.originX = x1 - Car.CAR_SIZE;
+        this.originY = y1 - Car.CAR_SIZE;
+        this.columns = (x2 + Car.CAR_SIZE - originX) / CELL_SIZE + 1;
+        this.rows = (y2 + Car.CAR_SIZE - originY) / CELL_SIZE + 1;
+        this.cellHeads = new int[columns * rows];
+        this.nextEntry = new int[64];
+        this.entryCar = new int[64];
+    }
+
+    /**
+     * Metoda wyszukująca wszystkie pary samochodów z prostopadłych pasów, których obrysy na siebie nachodzą.
+     * Każda para zgłaszana jest tylko raz - w komórce, w której leży lewy górny róg części wspólnej obu obrysów.
+     * Zderzone samochody są oznaczane jako samochody po kolizji
+     * @param crossingCars Samochody znajdujące się na skrzyżowaniu
+     * @return Liczba nowych zderzeń (par samochodów, z których przynajmniej jeden nie był w kolizji przed wyszukiwaniem)
+     */
+    public int markCollisions(Collection<Car> crossingCars) {
+        if (cars.length < crossingCars.size()) {
+            cars = new Car[Math.max(crossingCars.size(), cars.length * 2)];
+            collidedBefore = new boolean[cars.length];
+        }
+        //Czyścimy siatkę i wpisujemy do niej wszystkie samochody
+        Arrays.fill(cellHeads, EMPTY);
+        int entries = 0;
+        int carsCount = 0;
+        for (Car car : crossingCars) {
+            int i = carsCount++;
+            cars[i] = car;
+            collidedBefore[i] = car.isInCollision();
+            int firstColumn = column(car.getX()), lastColumn = column(car.getX() + Car.CAR_SIZE - 1);
+            int firstRow = row(car.getY()), lastRow = row(car.getY() + Car.CAR_SIZE - 1);
+            for (int r = firstRow; r <= lastRow; r++) {
+                for (int c = firstColumn; c <= lastColumn; c++) {
+                    ensureCapacity(entries + 1);
+                    int cell = r * columns + c;
+                    entryCar[entries] = i;
+                    nextEntry[entries] = cellHeads[cell];
+                    cellHeads[cell] = entries++;
+                }
+            }
+        }
+        //Porównujemy samochody tylko w obrębie tych samych komórek
+        int collisions = 0;
+        for (int cell = 0; cell < cellHeads.length; cell++) {
+            for (int a = cellHeads[cell]; a != EMPTY; a = nextEntry[a]) {
+                for (int b = nextEntry[a]; b != EMPTY; b = nextEntry[b]) {
+                    Car car1 = cars[entryCar[a]];
+                    Car car2 = cars[entryCar[b]];
+                    if (isCollisionReportedInCell(car1, car2, cell)) {
+                        if (!collidedBefore[entryCar[a]] || !collidedBefore[entryCar[b]]) {
+                            collisions++;
+                        }
+                        if (!car1.isInCollision()) {
+                            car1.markCollision();
+                        }
+                        if (!car2.isInCollision()) {
+                            car2.markCollision();
+                        }
+                    }
+                }
+            }
+        }
+        //Zwalniamy referencje do samochodów, aby nie przetrzymywać ich po zjechaniu ze sceny
+        Arrays.fill(cars, 0, carsCount, null);
+        return collisions;
+    }
+
+    /**
+     * Sprawdzenie, czy dwa samochody z prostopadłych pasów nachodzą na siebie, a zderzenie powinno być zgłoszone w zadanej komórce
+     * @param car1 Samochód 1
+     * @param car2 Samochód 2
+     * @param cell Indeks komórki
+     * @return True, jeśli zderzenie ma być zgłoszone w tej komórce, wpp false
+     */
+    private boolean isCollisionReportedInCell(Car car1, Car car2, int cell) {
+        //Samochody jadące w tej samej osi obsługiwane są przez pasy
+        if ((car1.getDirection().getXDirection() != 0) == (car2.getDirection().getXDirection() != 0)) {
+            return false;
+        }
+        //Sprawdzenie, czy obrysy samochodów na siebie nachodzą
+        if (car1.getX() >= car2.getX() + Car.CAR_SIZE || car2.getX() >= car1.getX() + Car.CAR_SIZE ||
+            car1.getY() >= car2.getY() + Car.CAR_SIZE || car2.getY() >= car1.getY() + Car.CAR_SIZE) {
+            return false;
+        }
+        //Zgłaszamy zderzenie tylko w komórce z lewym górnym rogiem części wspólnej obrysów
+        int overlapX = Math.max(car1.getX(), car2.getX());
+        int overlapY = Math.max(car1.getY(), car2.getY());
+        return row(overlapY) * columns + column(overlapX) == cell;
+    }
+
+    /**
+     * Kolumna siatki dla zadanej pozycji na osi X (pozycje poza obszarem przypisywane są do skrajnych kolumn)
+     * @param x Pozycja na osi X
+     * @return Kolumna siatki
+     */
+    private int column(int x) {
+        return Math.min(columns - 1, Math.max(0, (x - originX) / CELL_SIZE));
+    }
+
+    /**
+     * Wiersz siatki dla zadanej pozycji na osi Y (pozycje poza obszarem przypisywane są do skrajnych wierszy)
+     * @param y Pozycja na osi Y
+     * @return Wiersz siatki
+     */
+    private int row(int y) {
+        return Math.min(rows - 1, Math.max(0, (y - originY) / CELL_SIZE));
+    }
+
+    /**
+     * Powiększenie tablic wpisów, jeśli ich rozmiar jest niewystarczający
+     * @param size Wymagany rozmiar
+     */
+    private void ensureCapacity(int size) {
+        if (size > nextEntry.length) {
+            nextEntry = Arrays.copyOf(nextEntry, nextEntry.length * 2);
+            entryCar = Arrays.copyOf(entryCar, entryCar.length * 2);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package main.model;
+
+/**
+ * Created by Krzysztof Baran
+ * Zdarzenie zaplanowane w harmonogramie symulacji na zadany takt zegara symulacji.
+ * Zdarzenia z tym samym taktem wykonywane są w kolejności zaplanowania
+ */
+public class ScheduledEvent implements Comparable<ScheduledEvent> {
+    /**
+     * Takt symulacji, w którym zdarzenie ma zostać wykonane
+     */
+    private final long tick;
+    /**
+     * Kolejny numer zaplanowania (rozstrzyga kolejność zdarzeń z tym samym taktem)
+     */
+    private final long sequence;
+    /**
+     * Akcja wykonywana przy obsłudze zdarzenia
+     */
+    private final Runnable action;
+    /**
+     * Flaga mówiąca o tym, czy zdarzenie zostało anulowane
+     */
+    private volatile boolean cancelled;
+
+    /**
+     * Konstruktor zdarzenia
+     * @param tick Takt symulacji, w którym zdarzenie ma zostać wykonane
+     * @param sequence Kolejny numer zaplanowania
+     * @param action Akcja wykonywana przy obsłudze zdarzenia
+     */
+    ScheduledEvent(long tick, long sequence, Runnable action) {
+        this.tick = tick;
+        this.sequence = sequence;
+        this.action = action;
+    }
+
+    /**
+     * Anulowanie zdarzenia. Anulowane zdarzenie nie zostanie wykonane
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Getter mówiący o tym, czy zdarzenie zostało anulowane
+     * @return True, jeśli zdarzenie zostało anulowane, wpp false
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Getter dla taktu, w którym zdarzenie ma zostać wykonane
+     * @return Takt symulacji
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Getter dla akcji wykonywanej przy obsłudze zdarzenia
+     * @return Akcja zdarzenia
+     */
+    Runnable getAction() {
+        return action;
+    }
+
+    /**
+     * Porównanie zdarzeń po takcie, a następnie po kolejności zaplanowania
+     * @param other Porównywane zdarzenie
+     * @return Wynik porównania
+     */
+    @Override
+    public int compareTo(ScheduledEvent other) {
+        int res = Long.compare(tick, other.tick);
+        return res != 0 ? res : Long.compare(sequence, other.sequence);
+    }
+}
@@ -0,0 +1,87 @@
+package main.model;
+
+/**
+ * Created by Krzysztof Baran
+ * Zegar symulacji zliczający wykonane iteracje (takty).
+ * Wszystkie statystyki prędkości, pomiarów odcinkowych i pogody liczone są w czasie symulacji, a nie w czasie zegarowym,
+ * dzięki czemu wyniki nie zależą od opóźnień wątków, a symulacja może działać szybciej niż w czasie rzeczywistym
+ */
+public class SimulationClock {
+    /**
+     * Wartość oznaczająca, że zadany moment (takt) nie wystąpił
+     */
+    public static final long NOT_SET = -1;
+    /**
+     * Czas symulacji w milisekundach przypadający na jeden takt
+     */
+    private final int tickMillis;
+    /**
+     * Numer aktualnego taktu symulacji
+     */
+    private volatile long tick;
+
+    /**
+     * Konstruktor zegara symulacji
+     * @param tickMillis Czas symulacji w milisekundach przypadający na jeden takt
+     */
+    public SimulationClock(int tickMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("Tick duration must be positive");
+        }
+        this.tickMillis = tickMillis;
+        this.tick = 0;
+    }
+
+    /**
+     * Przesunięcie zegara o jeden takt
+     */
+    public synchronized void tick() {
+        tick++;
+    }
+
+    /**
+     * Getter dla numeru aktualnego taktu symulacji
+     * @return Numer aktualnego taktu symulacji
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Getter dla czasu symulacji przypadającego na jeden takt
+     * @return Czas symulacji w milisekundach przypadający na jeden takt
+     */
+    public int getTickMillis() {
+        return tickMillis;
+    }
+
+    /**
+     * Czas symulacji, który upłynął od jej rozpoczęcia
+     * @return Czas symulacji w milisekundach
+     */
+    public long getElapsedMillis() {
+        return tick * tickMillis;
+    }
+
+    /**
+     * Przeliczenie czasu symulacji na liczbę taktów (zaokrąglone w górę)
+     * @param millis Czas symulacji w milisekundach
+     * @return Liczba taktów potrzebna do upłynięcia zadanego czasu
+     */
+    public long toTicks(long millis) {
+        return (millis + tickMillis - 1) / tickMillis;
+    }
+
+    /**
+     * Funkcja obliczająca różnicę pomiędzy dwoma taktami w milisekundach czasu symulacji
+     * @param tickStart Takt początkowy
+     * @param tickEnd Takt końcowy
+     * @return Różnica w milisekundach, -1 jeśli któryś z taktów nie wystąpił
+     */
+    public double calculateInMilliSeconds(long tickStart, long tickEnd) {
+        if (tickStart == NOT_SET || tickEnd == NOT_SET) {
+            return -1;
+        }
+        return (tickEnd - tickStart) * tickMillis;
+    }
+}
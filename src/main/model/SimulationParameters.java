@@ -0,0 +1,162 @@
+package main.model;
+
+import main.model.enums.AlgorithmType;
+import main.model.enums.WeatherEnum;
+
+/**
+ * Created by Krzysztof Baran
+ * Niezmienny zestaw parametrów symulacji wybieranych przez użytkownika (na ekranie głównym lub w trybie wsadowym).
+ * Razem z ziarnem generatora wartości losowych jednoznacznie wyznacza przebieg symulacji
+ */
+public class SimulationParameters {
+    /**
+     * Warunki pogodowe (null => pogoda losowa, WeatherEnum.ALL => wszystkie pogody po kolei)
+     */
+    private final WeatherEnum weatherConditions;
+    /**
+     * Typ algorytmu zmiany świateł
+     */
+    private final AlgorithmType algorithmType;
+    /**
+     * Liczba pasów pionowych na pierwszym i drugim skrzyżowaniu
+     */
+    private final int verticalBeltsCount, verticalBelts2Count;
+    /**
+     * Liczba pasów poziomych
+     */
+    private final int horizontalBeltsCount;
+    /**
+     * Limit samochodów na każdym z pasów
+     */
+    private final int carsLimit;
+    /**
+     * Czas trwania symulacji w sekundach czasu symulacji
+     */
+    private final int simulationTime;
+    /**
+     * Szerokość i wysokość sceny
+     */
+    private final int width, height;
+    /**
+     * Ziarno generatora wartości losowych symulacji
+     */
+    private final long seed;
+
+    /**
+     * Konstruktor parametrów symulacji
+     * @param weatherConditions Warunki pogodowe (null => pogoda losowa, WeatherEnum.ALL => wszystkie pogody po kolei)
+     * @param algorithmType Typ algorytmu zmiany świateł
+     * @param verticalBeltsCount Liczba pasów pionowych na skrzyżowaniu pierwszym
+     * @param verticalBelts2Count Liczba pasów pionowych na skrzyżowaniu drugim
+     * @param horizontalBeltsCount Liczba pasów poziomych
+     * @param carsLimit Limit samochodów na każdym z pasów
+     * @param simulationTime Czas trwania symulacji w sekundach czasu symulacji
+     * @param width Szerokość sceny
+     * @param height Wysokość sceny
+     * @param seed Ziarno generatora wartości losowych symulacji
+     */
+    public SimulationParameters(WeatherEnum weatherConditions, AlgorithmType algorithmType, int verticalBeltsCount,
+                                int verticalBelts2Count, int horizontalBeltsCount, int carsLimit, int simulationTime,
+                                int width, int height, long seed) {
+        this.weatherConditions = weatherConditions;
+        this.algorithmType = algorithmType;
+        this.verticalBeltsCount = verticalBeltsCount;
+        this.verticalBelts2Count = verticalBelts2Count;
+        this.horizontalBeltsCount = horizontalBeltsCount;
+        this.carsLimit = carsLimit;
+        this.simulationTime = simulationTime;
+        this.width = width;
+        this.height = height;
+        this.seed = seed;
+    }
+
+    /**
+     * Utworzenie kopii parametrów z innym ziarnem generatora wartości losowych
+     * @param seed Nowe ziarno
+     * @return Parametry różniące się wyłącznie ziarnem
+     */
+    public SimulationParameters withSeed(long seed) {
+        return new SimulationParameters(weatherConditions, algorithmType, verticalBeltsCount, verticalBelts2Count,
+            horizontalBeltsCount, carsLimit, simulationTime, width, height, seed);
+    }
+
+    /**
+     * Getter dla warunków pogodowych
+     * @return Warunki pogodowe (null => pogoda losowa, WeatherEnum.ALL => wszystkie pogody po kolei)
+     */
+    public WeatherEnum getWeatherConditions() {
+        return weatherConditions;
+    }
+
+    /**
+     * Getter dla typu algorytmu zmiany świateł
+     * @return Typ algorytmu zmiany świateł
+     */
+    public AlgorithmType getAlgorithmType() {
+        return algorithmType;
+    }
+
+    /**
+     * Getter dla liczby pasów pionowych na skrzyżowaniu pierwszym
+     * @return Liczba pasów pionowych na skrzyżowaniu pierwszym
+     */
+    public int getVerticalBeltsCount() {
+        return verticalBeltsCount;
+    }
+
+    /**
+     * Getter dla liczby pasów pionowych na skrzyżowaniu drugim
+     * @return Liczba pasów pionowych na skrzyżowaniu drugim
+     */
+    public int getVerticalBelts2Count() {
+        return verticalBelts2Count;
+    }
+
+    /**
+     * Getter dla liczby pasów poziomych
+     * @return Liczba pasów poziomych
+     */
+    public int getHorizontalBeltsCount() {
+        return horizontalBeltsCount;
+    }
+
+    /**
+     * Getter dla limitu samochodów na każdym z pasów
+     * @return Limit samochodów na każdym z pasów
+     */
+    public int getCarsLimit() {
+        return carsLimit;
+    }
+
+    /**
+     * Getter dla czasu trwania symulacji
+     * @return Czas trwania symulacji w sekundach czasu symulacji
+     */
+    public int getSimulationTime() {
+        return simulationTime;
+    }
+
+    /**
+     * Getter dla szerokości sceny
+     * @return Szerokość sceny
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Getter dla wysokości sceny
+     * @return Wysokość sceny
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Getter dla ziarna generatora wartości losowych symulacji
+     * @return Ziarno generatora
+     */
+    public long getSeed() {
+        return seed;
+    }
+}
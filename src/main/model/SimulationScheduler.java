@@ -0,0 +1,116 @@
+package main.model;
+
+import java.util.PriorityQueue;
+
+/**
+ * Created by Krzysztof Baran
+ * Harmonogram zdarzeń symulacji (zmiany świateł, koniec światła żółtego, zmiany pogody) odmierzanych w taktach zegara symulacji.
+ * Zastępuje osobne timery i wątki - zdarzenia trzymane są w kolejce priorytetowej i wykonywane w wątku symulacji
+ * na początku iteracji, w której nadszedł ich takt
+ */
+public class SimulationScheduler {
+    /**
+     * Zegar symulacji, względem którego planowane są zdarzenia
+     */
+    private final SimulationClock simulationClock;
+    /**
+     * Kolejka zdarzeń uporządkowana po takcie i kolejności zaplanowania
+     */
+    private final PriorityQueue<ScheduledEvent> events;
+    /**
+     * Licznik zaplanowanych zdarzeń (zachowuje kolejność zdarzeń z tym samym taktem)
+     */
+    private long sequence;
+
+    /**
+     * Konstruktor harmonogramu
+     * @param simulationClock Zegar symulacji
+     */
+    public SimulationScheduler(SimulationClock simulationClock) {
+        this.simulationClock = simulationClock;
+        this.events = new PriorityQueue<>();
+    }
+
+    /**
+     * Zaplanowanie zdarzenia na zadany takt symulacji. Zdarzenie z taktem, który już minął, wykonane zostanie w najbliższej iteracji
+     * @param tick Takt symulacji
+     * @param action Akcja zdarzenia
+     * @return Zaplanowane zdarzenie (może zostać anulowane)
+     */
+    public synchronized ScheduledEvent scheduleAt(long tick, Runnable action) {
+        ScheduledEvent event = new ScheduledEvent(tick, sequence++, action);
+        events.add(event);
+        return event;
+    }
+
+    /**
+     * Zaplanowanie zdarzenia po upływie zadanego czasu symulacji od aktualnego taktu
+     * @param delayMillis Opóźnienie w milisekundach czasu symulacji
+     * @param action Akcja zdarzenia
+     * @return Zaplanowane zdarzenie (może zostać anulowane)
+     */
+    public ScheduledEvent scheduleAfter(long delayMillis, Runnable action) {
+        return scheduleAt(simulationClock.getTick() + simulationClock.toTicks(delayMillis), action);
+    }
+
+    /**
+     * Zaplanowanie zdarzenia powtarzanego co zadany czas symulacji.
+     * Kolejne wystąpienia liczone są od taktu poprzedniego wystąpienia, więc okres nie rozjeżdża się w czasie
+     * @param firstDelayMillis Czas symulacji w milisekundach do pierwszego wystąpienia
+     * @param periodMillis Czas symulacji w milisekundach pomiędzy wystąpieniami
+     * @param action Akcja zdarzenia
+     */
+    public void scheduleAtFixedRate(long firstDelayMillis, long periodMillis, Runnable action) {
+        long periodTicks = Math.max(1, simulationClock.toTicks(periodMillis));
+        scheduleRepeating(simulationClock.getTick() + simulationClock.toTicks(firstDelayMillis), periodTicks, action);
+    }
+
+    /**
+     * Metoda pomocnicza planująca wystąpienie zdarzenia powtarzanego wraz z zaplanowaniem następnego wystąpienia
+     * @param tick Takt wystąpienia
+     * @param periodTicks Liczba taktów pomiędzy wystąpieniami
+     * @param action Akcja zdarzenia
+     */
+    private void scheduleRepeating(long tick, long periodTicks, Runnable action) {
+        scheduleAt(tick, () -> {
+            action.run();
+            scheduleRepeating(tick + periodTicks, periodTicks, action);
+        });
+    }
+
+    /**
+     * Wykonanie wszystkich zdarzeń, których takt nadszedł, w kolejności ich taktów i zaplanowania.
+     * Zdarzenia zaplanowane w trakcie obsługi na aktualny takt wykonywane są w tym samym wywołaniu
+     * @return Liczba wykonanych zdarzeń
+     */
+    public int runDueEvents() {
+        long now = simulationClock.getTick();
+        int executed = 0;
+        ScheduledEvent event;
+        while ((event = pollDue(now)) != null) {
+            if (!event.isCancelled()) {
+                event.getAction().run();
+                executed++;
+            }
+        }
+        return executed;
+    }
+
+    /**
+     * Pobranie z kolejki pierwszego zdarzenia, którego takt nadszedł
+     * @param now Aktualny takt symulacji
+     * @return Zdarzenie lub null, jeśli żadne zdarzenie nie czeka na wykonanie
+     */
+    private synchronized ScheduledEvent pollDue(long now) {
+        ScheduledEvent head = events.peek();
+        return head != null && head.getTick() <= now ? events.poll() : null;
+    }
+
+    /**
+     * Getter dla liczby zdarzeń oczekujących w harmonogramie
+     * @return Liczba oczekujących zdarzeń
+     */
+    public synchronized int getPendingEventsCount() {
+        return events.size();
+    }
+}
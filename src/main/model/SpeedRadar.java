@@ -1,34 +1,42 @@
 package main.model;
 
-import javafx.scene.image.Image;
-import javafx.scene.image.ImageView;
-
 /**
  * Created by Krzysztof Baran
- * Klasa reprezentująca graficzny obiekt początku/końca pomiaru odcinkowego
+ * Klasa reprezentująca obiekt początku/końca pomiaru odcinkowego
  */
-public class SpeedRadar extends ImageView{
+public class SpeedRadar {
+    /**
+     * Środek radaru na osi X
+     */
+    private final double x;
+    /**
+     * Góra radaru na osi Y
+     */
+    private final double y;
 
     /**
-     * Konstruktor ustawiający pozycję i rozmiar radarów na scenie
-     * @param x Środek obrazu na osi X
-     * @param y Góra obrazu na osi Y
+     * Konstruktor ustawiający pozycję radaru na scenie
+     * @param x Środek radaru na osi X
+     * @param y Góra radaru na osi Y
      */
     public SpeedRadar(double x, double y) {
-        //utworzenie klasy nadrzędnej
-        super();
-        //Pobranie i ustawienie obrazu z resource'ów
-        Image img = new Image(getClass().getClassLoader().getResourceAsStream("resources/images/radar.png"));
-        setImage(img);
-        //Współczynnik pomniejszenia obrazu
-        double ratio = 16;
-        //Przeliczenie i ustawienie rozmiarów obrazu w wysokości i szerokości
-        setFitWidth(img.getWidth()/ratio);
-        setFitHeight(img.getWidth()/ratio);
-        //Przesunięcie obrazu względem osi X o połowę rozmiaru
-        setX(x - getFitWidth() / 2.0);
-        //Ustawienie wartości na osi Y
-        setY(y);
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * Getter dla środka radaru na osi X
+     * @return Środek radaru na osi X
+     */
+    public double getX() {
+        return x;
     }
 
+    /**
+     * Getter dla góry radaru na osi Y
+     * @return Góra radaru na osi Y
+     */
+    public double getY() {
+        return y;
+    }
 }
@@ -0,0 +1,167 @@
+package main.model;
+
+import main.model.enums.AlgorithmType;
+import main.model.enums.WeatherEnum;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Created by Krzysztof Baran
+ * Definicja przeglądu parametrów symulacji: zbiory wartości liczby pasów, limitu samochodów, pogody i algorytmu
+ * zmiany świateł, z których tworzona jest siatka wszystkich kombinacji (konfiguracji) do uruchomienia.
+ * Każda konfiguracja uruchamiana jest zadaną liczbę razy z tymi samymi ziarnami wyznaczonymi z ziarna bazowego,
+ * więc różnice pomiędzy konfiguracjami nie wynikają z różnych wartości losowych
+ */
+public class SweepDefinition {
+    /**
+     * Wartości liczby pasów pionowych na pierwszym i drugim skrzyżowaniu
+     */
+    private final List<Integer> verticalBeltsCounts, verticalBelts2Counts;
+    /**
+     * Wartości liczby pasów poziomych
+     */
+    private final List<Integer> horizontalBeltsCounts;
+    /**
+     * Wartości limitu samochodów na każdym z pasów
+     */
+    private final List<Integer> carsLimits;
+    /**
+     * Warunki pogodowe (null => pogoda losowa, WeatherEnum.ALL => wszystkie pogody po kolei)
+     */
+    private final List<WeatherEnum> weatherConditions;
+    /**
+     * Typy algorytmu zmiany świateł
+     */
+    private final List<AlgorithmType> algorithmTypes;
+    /**
+     * Czas trwania każdej symulacji w sekundach czasu symulacji
+     */
+    private final int simulationTime;
+    /**
+     * Szerokość i wysokość sceny
+     */
+    private final int width, height;
+    /**
+     * Liczba uruchomień każdej z konfiguracji
+     */
+    private final int runsPerConfiguration;
+    /**
+     * Ziarno, z którego wyznaczane są ziarna kolejnych uruchomień każdej z konfiguracji
+     */
+    private final long baseSeed;
+
+    /**
+     * Konstruktor definicji przeglądu parametrów
+     * @param verticalBeltsCounts Wartości liczby pasów pionowych na skrzyżowaniu pierwszym
+     * @param verticalBelts2Counts Wartości liczby pasów pionowych na skrzyżowaniu drugim
+     * @param horizontalBeltsCounts Wartości liczby pasów poziomych
+     * @param carsLimits Wartości limitu samochodów na każdym z pasów
+     * @param weatherConditions Warunki pogodowe (null => pogoda losowa, WeatherEnum.ALL => wszystkie pogody po kolei)
+     * @param algorithmTypes Typy algorytmu zmiany świateł
+     * @param simulationTime Czas trwania każdej symulacji w sekundach czasu symulacji
+     * @param width Szerokość sceny
+     * @param height Wysokość sceny
+     * @param runsPerConfiguration Liczba uruchomień każdej z konfiguracji
+     * @param baseSeed Ziarno, z którego wyznaczane są ziarna kolejnych uruchomień
+     */
+    public SweepDefinition(List<Integer> verticalBeltsCounts, List<Integer> verticalBelts2Counts, List<Integer> horizontalBeltsCounts,
+                           List<Integer> carsLimits, List<WeatherEnum> weatherConditions, List<AlgorithmType> algorithmTypes,
+                           int simulationTime, int width, int height, int runsPerConfiguration, long baseSeed) {
+        if (verticalBeltsCounts.isEmpty() || verticalBelts2Counts.isEmpty() || horizontalBeltsCounts.isEmpty() || carsLimits.isEmpty()
+            || weatherConditions.isEmpty() || algorithmTypes.isEmpty()) {
+            throw new IllegalArgumentException("Every swept parameter needs at least one value");
+        }
+        if (runsPerConfiguration < 1) {
+            throw new IllegalArgumentException("Runs per configuration must be positive");
+        }
+        this.verticalBeltsCounts = Collections.unmodifiableList(new ArrayList<>(verticalBeltsCounts));
+        this.verticalBelts2Counts = Collections.unmodifiableList(new ArrayList<>(verticalBelts2Counts));
+        this.horizontalBeltsCounts = Collections.unmodifiableList(new ArrayList<>(horizontalBeltsCounts));
+        this.carsLimits = Collections.unmodifiableList(new ArrayList<>(carsLimits));
+        this.weatherConditions = Collections.unmodifiableList(new ArrayList<>(weatherConditions));
+        this.algorithmTypes = Collections.unmodifiableList(new ArrayList<>(algorithmTypes));
+        this.simulationTime = simulationTime;
+        this.width = width;
+        this.height = height;
+        this.runsPerConfiguration = runsPerConfiguration;
+        this.baseSeed = baseSeed;
+    }
+
+    /**
+     * Utworzenie listy kolejnych wartości z zadanego przedziału
+     * @param from Pierwsza wartość
+     * @param to Ostatnia wartość (włącznie)
+     * @param step Krok pomiędzy wartościami
+     * @return Lista wartości from, from + step, ..., nie większych od to
+     */
+    public static List<Integer> range(int from, int to, int step) {
+        if (step < 1 || to < from) {
+            throw new IllegalArgumentException("Invalid range " + from + ".." + to + " step " + step);
+        }
+        List<Integer> res = new ArrayList<>();
+        for (int value = from; value <= to; value += step) {
+            res.add(value);
+        }
+        return res;
+    }
+
+    /**
+     * Liczba konfiguracji w siatce
+     * @return Iloczyn liczby wartości wszystkich przeglądanych parametrów
+     */
+    public int getConfigurationsCount() {
+        return verticalBeltsCounts.size() * verticalBelts2Counts.size() * horizontalBeltsCounts.size() * carsLimits.size()
+            * weatherConditions.size() * algorithmTypes.size();
+    }
+
+    /**
+     * Rozwinięcie definicji w siatkę wszystkich konfiguracji.
+     * Ostatni parametr (algorytm) zmienia się najszybciej, pierwszy (pasy pionowe na pierwszym skrzyżowaniu) najwolniej.
+     * Ziarno w zwróconych parametrach to ziarno bazowe
+     * @return Parametry symulacji dla kolejnych konfiguracji
+     */
+    public List<SimulationParameters> expand() {
+        List<SimulationParameters> res = new ArrayList<>(getConfigurationsCount());
+        for (int verticalBeltsCount : verticalBeltsCounts) {
+            for (int verticalBelts2Count : verticalBelts2Counts) {
+                for (int horizontalBeltsCount : horizontalBeltsCounts) {
+                    for (int carsLimit : carsLimits) {
+                        for (WeatherEnum weather : weatherConditions) {
+                            for (AlgorithmType algorithmType : algorithmTypes) {
+                                res.add(new SimulationParameters(weather, algorithmType, verticalBeltsCount, verticalBelts2Count,
+                                    horizontalBeltsCount, carsLimit, simulationTime, width, height, baseSeed));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Getter dla liczby uruchomień każdej z konfiguracji
+     * @return Liczba uruchomień każdej z konfiguracji
+     */
+    public int getRunsPerConfiguration() {
+        return runsPerConfiguration;
+    }
+
+    /**
+     * Getter dla ziarna, z którego wyznaczane są ziarna kolejnych uruchomień
+     * @return Ziarno bazowe
+     */
+    public long getBaseSeed() {
+        return baseSeed;
+    }
+
+    /**
+     * Getter dla czasu trwania każdej symulacji
+     * @return Czas trwania symulacji w sekundach czasu symulacji
+     */
+    public int getSimulationTime() {
+        return simulationTime;
+    }
+}
@@ -1,67 +1,69 @@
 package main.model;
 
-import javafx.application.Platform;
-import javafx.concurrent.Task;
-import javafx.scene.image.Image;
-import javafx.scene.image.ImageView;
-import javafx.scene.layout.Pane;
+import main.model.enums.LightColorEnum;
 
-import java.awt.*;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
 
 /**
  * Created by Krzysztof Baran
- * Klasa reprezentująca obiekt skrzyżowania oraz umieszczonych na nim świateł
+ * Klasa reprezentująca obiekt skrzyżowania oraz umieszczonych na nim świateł.
+ * Przechowuje wyłącznie stan logiczny, za wyświetlenie skrzyżowania odpowiada renderer
  */
 public class TrafficLightsAndCrossing {
     /**
-     * Rozmiar poziomy obrazka ze światłami (użyty do wycentrowania pozycji)
+     * Czas trwania światła żółtego w milisekundach czasu symulacji
      */
-    private static final int LIGHTS_IMAGE_SIZE_X = 14;
-    /**
-     * Rozmiar pionowy obrazka ze światłami (użyty do wycentrowania pozycji)
-     */
-    private static final int LIGHTS_IMAGE_SIZE_Y = 14;
+    private static final long YELLOW_LIGHT_DURATION = 1000;
     /**
      * Położenie skrzyżowania na scenie -> wierzchołki reprezentującego je prostokątu
      */
     private final int x1, x2, y1, y2;
     /**
-     * Obraz świateł czerwone/żółte/zielone
+     * Aktualny kolor świateł pionowych (góra/dół)
      */
-    private final Image redLight, yellowLight, greenLight;
+    private LightColorEnum verticalLight;
     /**
-     * Panel reprezentujący skrzyżowanie
+     * Aktualny kolor świateł poziomych (lewo/prawo)
      */
-    private final Pane crossingCoordinates;
+    private LightColorEnum horizontalLight;
     /**
-     * Objekt przetrzymujący obraz świateł pionowych (góra/dół)
+     * Maksymalna liczba skrzyżowań w symulacji (liczba bitów maski skrzyżowań w samochodzie)
      */
-    private ImageView lightUp, lightDown;
+    public static final int MAX_CROSSINGS = Long.SIZE;
     /**
-     * Objekt przetrzymujący obraz świateł poziomych (lewo/prawo)
+     * Numer skrzyżowania w symulacji, wyznaczający bit w masce skrzyżowań samochodu
      */
-    private ImageView lightLeft, lightRight;
+    private final int crossingIndex;
     /**
-     * Flaga mówiąca o tym, czy aktualnie poziome światła ustawione są jako zielone i poziome pasy są przejezdne
+     * Zbiór samochodów aktualnie znajdujących się na skrzyżowaniu (porównywanych po referencji)
      */
-    private boolean horizontalGreen;
+    private final Set<Car> containingCars;
     /**
-     * Flaga mówiąca o tym, czy aktualnie pionowe światła ustawione są jako zielone i pionowe pasy są przejezdne
+     * Ilość pasów na skrzyżowaniu w pionie
      */
-    private boolean verticalGreen;
+    private int vBeltsCount;
     /**
-     * Lista samochodów aktualnie znajdujących się na skrzyżowaniu
+     * Harmonogram symulacji, w którym planowany jest koniec światła żółtego
      */
-    private List<Car> containingCars;
+    private final SimulationScheduler scheduler;
     /**
-     * Ilość pasów na skrzyżowaniu w pionie
+     * Zaplanowany koniec światła żółtego (null jeśli brak oczekującej zmiany)
      */
-    private int vBeltsCount;
+    private ScheduledEvent pendingLightsSwitch;
+    /**
+     * Siatka do wykrywania zderzeń samochodów z prostopadłych pasów na skrzyżowaniu
+     */
+    private final CollisionGrid collisionGrid;
+    /**
+     * Liczba zderzeń samochodów z prostopadłych pasów, które wystąpiły na skrzyżowaniu
+     */
+    private long collisionsCount;
 
     /**
-     * Konstruktor ustawiający położenie skrzyżowania oraz pobierający wszystkie potrzebne pliki graficzne.
+     * Konstruktor ustawiający położenie skrzyżowania.
      * Ustawia również pionowe światła jako czerwone oraz poziome światła jako zielone.
      *
      * @param x1 Wartość osi X dla początkowego brzegu skrzyżowania
@@ -69,146 +71,92 @@ public class TrafficLightsAndCrossing {
      * @param y1 Wartość osi X dla początkowego brzegu skrzyżowania
      * @param y2 Wartość osi Y dla końcowego brzegu skrzyżowania
      * @param vBeltsCount Ilość pasów pionowych na skrzyżowaniu
+     * @param crossingIndex Numer skrzyżowania w symulacji (od 0 do MAX_CROSSINGS - 1)
+     * @param scheduler Harmonogram symulacji
      */
-    public TrafficLightsAndCrossing(int x1, int x2, int y1, int y2, int vBeltsCount) {
+    public TrafficLightsAndCrossing(int x1, int x2, int y1, int y2, int vBeltsCount, int crossingIndex, SimulationScheduler scheduler) {
+        if (crossingIndex < 0 || crossingIndex >= MAX_CROSSINGS) {
+            throw new IllegalArgumentException("Crossing index must be between 0 and " + (MAX_CROSSINGS - 1));
+        }
+        this.crossingIndex = crossingIndex;
         this.x1 = x1;
         this.x2 = x2;
         this.y1 = y1;
         this.y2 = y2;
-        containingCars = new ArrayList<>();
-        //inicjalizowanie panelu skrzyżowania
-        this.crossingCoordinates = initPane(x1, x2, y1, y2);
-        //pobranie wszystkich resourców potrzebnych do jego wyświetlenia
-        this.redLight = new Image(getClass().getClassLoader().getResourceAsStream("resources/images/red.png"));
-        this.yellowLight = new Image(getClass().getClassLoader().getResourceAsStream("resources/images/yellow.png"));
-        this.greenLight = new Image(getClass().getClassLoader().getResourceAsStream("resources/images/green.png"));
+        containingCars = Collections.newSetFromMap(new IdentityHashMap<>());
         //ustawienie pionowych świateł jako czerwonych, a poziomych jako zielonych
-        setLights(redLight, false, greenLight, true);
+        setLights(LightColorEnum.RED, LightColorEnum.GREEN);
         this.vBeltsCount = vBeltsCount;
+        this.scheduler = scheduler;
+        this.collisionGrid = new CollisionGrid(x1, x2, y1, y2);
     }
 
     /**
-     * Funkcja pomocnicza konstruktora, mająca za zadanie ustawić wszystkie wartości panelu reprezentującego skrzyżowanie.
-     * Ustawiany jest odpowiedni rozmiar na scenie w zależności od wierzchołków, a także ciemne tło imitujące asfalt.
-     * @param x1 Wartość osi X dla początkowego brzegu skrzyżowania
-     * @param x2 Wartość osi X dla końcowego brzegu skrzyżowania
-     * @param y1 Wartość osi X dla początkowego brzegu skrzyżowania
-     * @param y2 Wartość osi Y dla końcowego brzegu skrzyżowania
-     * @return Panel graficzny reprezentujący skrzyżowanie, do umieszczenia na scenie
-     */
-    private Pane initPane(int x1, int x2, int y1, int y2) {
-        Pane res = new Pane();
-        //Ustawienie rozmiaru panelu
-        res.setPrefSize(x2 - x1, y2 - y1);
-        res.setMinSize(x2 - x1, y2 - y1);
-        res.setMaxSize(x2 - x1, y2 - y1);
-        //Przeniesienie go na scenie w początkowy górny lewy wierzchołek
-        res.relocate(x1, y1);
-        //Ustawienie koloru tła
-        res.setStyle("-fx-background-color: #34495e;");
-        return res;
-    }
-
-    /**
-     * Funkcja pomocnicza, synchronizowana na potrzeby wątków, mająca za zadanie ustawić odpowiednie wartości dla zadanych świateł.
-     * Zarówno graficzne, jak i logiczne w kodzie.
-     * Ustawiane są odpowiednio flagi pozwalające samochodom jechać lub nie, a następnie usuwane są wszystkie obiekty graficzne z panelu
-     * skrzyżowania, po czym umieszczane są odpowiednie obrazy dla świateł przekazane w parametrach.
-     * @param vertical Obraz dla świateł pionowych
-     * @param verticalGreen Wartość flagi mówiącej o tym, czy samochody mogą jechać w pionie
-     * @param horizontal Obraz dla świateł poziomych
-     * @param horizontalGreen Wartość flagi mówiącej o tym, czy samochody mogą jechać w poziomie
-     */
-    private synchronized void setLights(Image vertical, boolean verticalGreen, Image horizontal, boolean horizontalGreen) {
-        //Usunięcie wszystkich elementów graficznych z panelu skrzyżowania
-        crossingCoordinates.getChildren().clear();
-        //Ustawienie obrazków dla świateł pionowych/poziomych
-        setVerticalLights(vertical);
-        setHorizontalLights(horizontal);
-        //Dodanie ustawionych świateł na scenie
-        crossingCoordinates.getChildren().addAll(lightLeft, lightUp, lightRight, lightDown);
-        //Ustawienie flag mówiących, czy samochód może jechać w pionie/poziomie
-        this.verticalGreen = verticalGreen;
-        this.horizontalGreen = horizontalGreen;
+     * Funkcja pomocnicza, synchronizowana na potrzeby wątków, mająca za zadanie ustawić odpowiednie kolory świateł.
+     * Samochody mogą jechać w danej osi tylko wtedy, gdy światło w niej jest zielone.
+     * @param vertical Kolor świateł pionowych
+     * @param horizontal Kolor świateł poziomych
+     */
+    private synchronized void setLights(LightColorEnum vertical, LightColorEnum horizontal) {
+        this.verticalLight = vertical;
+        this.horizontalLight = horizontal;
     }
 
     /**
-     * Funkcja przeliczająca pozycję świateł pionowych na scenie oraz ustawiająca odpowiedni obrazek w zmiennej je reprezentującej
-     * @param img Obrazek reprezentujący odpowiednie światło do ustawienia w pionie
+     * Funkcja zmieniająca światła, wołająca wszystkie odpowiednie funkcje pomocnicze.
+     * Jeśli aktualnie ustawione są zielone światła w poziomie, to blokowane zostają samochody w poziomie, a światło zostaje zmienione na żółte.
+     * Następnie po jednej sekundzie czasu symulacji (zdarzenie w harmonogramie symulacji), światło poziome zostaje ustawione jako czerwone, a
+     * pionowe zmieniane jest na zielone.
+     * Analogicznie jeśli ustawione aktualnie jest światło zielone w pionie.
      */
-    private void setVerticalLights(Image img) {
-        this.lightUp = new ImageView(img);
-        this.lightUp.relocate((x2 - x1) / 2 - LIGHTS_IMAGE_SIZE_X / 2, 0);
-        this.lightDown = new ImageView(img);
-        this.lightDown.relocate((x2 - x1) / 2 - LIGHTS_IMAGE_SIZE_X / 2, y2 - y1 - LIGHTS_IMAGE_SIZE_Y);
+    public synchronized void changeLights() {
+        if (isHorizontalGreen()) {
+            setLights(LightColorEnum.RED, LightColorEnum.YELLOW);
+            scheduleLightsSwitch(LightColorEnum.GREEN, LightColorEnum.RED);
+        } else {
+            setLights(LightColorEnum.YELLOW, LightColorEnum.RED);
+            scheduleLightsSwitch(LightColorEnum.RED, LightColorEnum.GREEN);
+        }
     }
 
     /**
-     * Funkcja przeliczająca pozycję świateł poziomych na scenie oraz ustawiająca odpowiedni obrazek w zmiennej je reprezentującej
-     * @param img Obrazek reprezentujący odpowiednie światło do ustawienia w pionie
+     * Metoda pomocnicza, której zadaniem jest zaplanowanie zmiany świateł po zakończeniu światła żółtego.
+     * Żółte światło świeci przez jedną sekundę czasu symulacji, a następnie przechodzi w czerwone.
+     * Jeśli poprzednia zmiana jeszcze nie nastąpiła, to zostaje anulowana
+     * @param vertical Nowy kolor świateł w pionie
+     * @param horizontal Nowy kolor świateł w poziomie
      */
-    private void setHorizontalLights(Image img) {
-        this.lightLeft = new ImageView(img);
-        this.lightLeft.relocate(0, (y2 - y1) / 2 - LIGHTS_IMAGE_SIZE_Y / 2);
-        this.lightRight = new ImageView(img);
-        this.lightRight.relocate(x2 - x1 - LIGHTS_IMAGE_SIZE_X, (y2 - y1) / 2 - LIGHTS_IMAGE_SIZE_Y / 2);
+    private void scheduleLightsSwitch(LightColorEnum vertical, LightColorEnum horizontal) {
+        if (pendingLightsSwitch != null) {
+            pendingLightsSwitch.cancel();
+        }
+        pendingLightsSwitch = scheduler.scheduleAfter(YELLOW_LIGHT_DURATION, () -> finishLightsSwitch(vertical, horizontal));
     }
 
     /**
-     * Funkcja zmieniająca światła, wołająca wszystkie odpowiednie funkcje pomocnicze.
-     * Platform.runLater gwarantuje, że światła na panelu zostaną zmienione za pomocą wątku UI
-     * Jeśli aktualnie ustawione są zielone światła w poziomie, to blokowane zostają samochody w poziomie, a światło zostaje zmienione na żółte.
-     * Następnie w odrębnym wątku, aby nie blokować aktualnego, po jednej sekundzie, światło poziome zostaje ustawione jako czerwone, a
-     * pionowe zmieniane jest na zielone.
-     * Analogicznie jeśli ustawione aktualnie jest światło zielone w pionie.
+     * Zdarzenie końca światła żółtego, ustawiające docelowe kolory świateł
+     * @param vertical Nowy kolor świateł w pionie
+     * @param horizontal Nowy kolor świateł w poziomie
      */
-    public void changeLights() {
-        new Thread(new Task() {
-            @Override
-            protected Object call() throws Exception {
-                Platform.runLater(() -> {
-                    if (horizontalGreen) {
-                        setLights(redLight, false, yellowLight, false);
-                        switchLightsInThread(greenLight, redLight, true);
-                    } else {
-                        setLights(yellowLight, false, redLight, false);
-                        switchLightsInThread(redLight, greenLight, false);
-                    }
-                });
-                return null;
-            }
-        }).start();
+    private synchronized void finishLightsSwitch(LightColorEnum vertical, LightColorEnum horizontal) {
+        setLights(vertical, horizontal);
+        pendingLightsSwitch = null;
     }
 
     /**
-     * Metoda pomocnicza, której zadaniem jest zmiana świateł w nowym wątku.
-     * Nowy wątek usypiany jest na jedną sekundę, tak aby żółte światło mogło poświecić przez ten czas na scenie, a następnie przejść w czerwone
-     * @param vertical Obrazek reprezentujący nowe światło w pionie
-     * @param horizontal Obrazek reprezentujący nowe światło w poziomie
-     * @param newVerticalGreenValue Nowa wartość dla światła zielonego w pionie. Jeśli false, to ustawiane jest światło w poziomie jako zielone
-     */
-    private synchronized void switchLightsInThread(Image vertical, Image horizontal, boolean newVerticalGreenValue) {
-        new Thread(new Task() {
-            @Override
-            protected Object call() throws Exception {
-                try {
-                    Thread.sleep(1000);
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                } finally {
-                    Platform.runLater(() -> setLights(vertical, newVerticalGreenValue, horizontal, !newVerticalGreenValue));
-                }
-                return null;
-            }
-        }).start();
+     * Getter dla aktualnego koloru świateł pionowych
+     * @return Aktualny kolor świateł pionowych
+     */
+    public synchronized LightColorEnum getVerticalLight() {
+        return verticalLight;
     }
 
     /**
-     * Getter dla panelu reprezentującego położenie skrzyżowania
-     * @return Panel reprezentujący położenie skrzyżowania
+     * Getter dla aktualnego koloru świateł poziomych
+     * @return Aktualny kolor świateł poziomych
      */
-    public Pane getCrossingGraphics() {
-        return crossingCoordinates;
+    public synchronized LightColorEnum getHorizontalLight() {
+        return horizontalLight;
     }
 
     /**
@@ -216,14 +164,14 @@ public class TrafficLightsAndCrossing {
      * @return True, jeśli poziome światło jest ustawione jako zielone
      */
     public synchronized boolean isHorizontalGreen() {
-        return horizontalGreen;
+        return horizontalLight == LightColorEnum.GREEN;
     }
     /**
      * Getter mówiący o tym, czy pionowe światło jest ustawione jako zielone
      * @return True, jeśli pionowe światło jest ustawione jako zielone
      */
     public synchronized boolean isVerticalGreen() {
-        return verticalGreen;
+        return verticalLight == LightColorEnum.GREEN;
     }
 
     /**
@@ -259,52 +207,107 @@ public class TrafficLightsAndCrossing {
     }
 
     /**
-     * Metoda sprawdzająca, czy dany samochód jest na liście samochodów na skrzyżowaniu
-     * @param car Analizowany samochód
-     * @return Jeśli samochód jest na liście => true, wpp. false
+     * Metoda sprawdzająca, czy samochód na zadanej pozycji znajduje się na skrzyżowaniu
+     * @param carX Pozycja samochodu na osi X
+     * @param carY Pozycja samochodu na osi Y
+     * @param beltHeight Wysokość pasa (rozmiar samochodu na scenie)
+     * @return True, jeśli samochód przynajmniej częściowo znajduje się na skrzyżowaniu, wpp false
      */
-    private boolean containsCar(Car car) {
-        return containingCars.contains(car);
+    public boolean isCarOnTheCrossing(int carX, int carY, int beltHeight) {
+        return ((carX >= getX1() && carX <= getX2()) ||
+                (carX + beltHeight >= getX1() && carX + beltHeight <= getX2()))
+                && ((carY >= getY1() && carY <= getY2()) ||
+                (carY + beltHeight  >= getY1() && carY + beltHeight <= getY2()));
     }
 
     /**
-     * Metoda sprawdzająca, czy dany samochód znajduje się na skrzyżowaniu
+     * Metoda aktualizująca obecność samochodu na skrzyżowaniu po jego ruchu.
+     * Pozycja sprawdzana jest tylko raz, a zbiór samochodów zmieniany jest wyłącznie przy wjeździe lub zjeździe ze skrzyżowania.
+     * Obecność samochodu odczytywana jest z jego maski skrzyżowań, bez przeszukiwania zbioru
+     * @param car Analizowany samochód
+     * @param beltHeight Wysokość pasa (rozmiar samochodu na scenie)
+     * @return True, jeśli samochód właśnie zjechał ze skrzyżowania
      */
-    public synchronized boolean isCarOnTheCrossing(Point carPos, int beltHeight) {
-        return ((carPos.x >= getX1() && carPos.x <= getX2()) ||
-                (carPos.x + beltHeight >= getX1() && carPos.x + beltHeight <= getX2()))
-                && ((carPos.y >= getY1() && carPos.y <= getY2()) ||
-                (carPos.y + beltHeight  >= getY1() && carPos.y + beltHeight <= getY2()));
+    public boolean updateOccupancy(Car car, int beltHeight) {
+        boolean onTheCrossing = isCarOnTheCrossing(car.getX(), car.getY(), beltHeight);
+        if (onTheCrossing != car.isOnCrossing(crossingIndex)) {
+            if (onTheCrossing) {
+                carEntered(car);
+            } else {
+                carLeft(car);
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
-     * Metoda dodająca samochód do skrzyżowania jeśli jeszcze go nie ma
+     * Metoda usuwająca samochód ze skrzyżowania, jeśli się na nim znajduje (np. gdy samochód jest zdejmowany ze sceny)
      * @param car Analizowany samochód
+     * @return True, jeśli samochód znajdował się na skrzyżowaniu
      */
-    public synchronized void addCarIfNotExists(Car car) {
-        if (!containsCar(car)) {
-            containingCars.add(car);
+    public boolean removeCar(Car car) {
+        if (car.isOnCrossing(crossingIndex)) {
+            carLeft(car);
+            return true;
         }
+        return false;
     }
 
     /**
-     * Metoda usuwająca samochód ze skrzyżowania jeśli istnieje na liście
-     * @param car Analizowany samochód
+     * Zdarzenie wjazdu samochodu na skrzyżowanie
+     * @param car Samochód, który wjechał na skrzyżowanie
      */
-    public synchronized void removeCar(Car car) {
-        if (containsCar(car)) {
-            containingCars.remove(car);
-        }
+    private synchronized void carEntered(Car car) {
+        containingCars.add(car);
+        car.setOnCrossing(crossingIndex, true);
     }
 
     /**
-     * Getter dla listy samochodów na skrzyżowaniu
+     * Zdarzenie zjazdu samochodu ze skrzyżowania
+     * @param car Samochód, który opuścił skrzyżowanie
+     */
+    private synchronized void carLeft(Car car) {
+        containingCars.remove(car);
+        car.setOnCrossing(crossingIndex, false);
+    }
+
+    /**
+     * Metoda wykrywająca zderzenia samochodów z prostopadłych pasów na skrzyżowaniu.
+     * Wołana po przesunięciu samochodów na wszystkich pasach w danej iteracji. Zderzone samochody są oznaczane jako
+     * samochody po kolizji, a liczba zderzeń jest sumowana na potrzeby statystyk
+     * @return Liczba nowych zderzeń w tej iteracji
+     */
+    public synchronized int detectCollisions() {
+        int collisions = collisionGrid.markCollisions(containingCars);
+        collisionsCount += collisions;
+        return collisions;
+    }
+
+    /**
+     * Getter dla liczby zderzeń samochodów z prostopadłych pasów na skrzyżowaniu
+     * @return Liczba zderzeń na skrzyżowaniu
+     */
+    public synchronized long getCollisionsCount() {
+        return collisionsCount;
+    }
+
+    /**
+     * Getter dla samochodów na skrzyżowaniu
      * @return Samochody znajdujące się na skrzyżowaniu
      */
-    public List<Car> getContainingCars() {
+    public Collection<Car> getContainingCars() {
         return containingCars;
     }
 
+    /**
+     * Getter dla numeru skrzyżowania w symulacji
+     * @return Numer skrzyżowania w symulacji
+     */
+    public int getCrossingIndex() {
+        return crossingIndex;
+    }
+
     /**
      * Getter dla ilości pasów pionowych na światłach
      * @return Ilość pasów pionowych na światłach
@@ -0,0 +1,155 @@
+package main.model.belts;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import main.model.SimulationClock;
+import main.model.enums.DirectionEnum;
+
+/**
+ * Created by Krzysztof Baran
+ * Magazyn stanu samochodów pasa w pamięci poza stertą (bezpośredni ByteBuffer). Stan każdego samochodu zapisany jest
+ * w rekordzie stałej długości RECORD_SIZE pod adresem numer miejsca * RECORD_SIZE, a miejsca zwolnione przy zdejmowaniu
+ * samochodów są używane ponownie. Na stercie pozostają jedynie uchwyty samochodów i numery ich miejsc, więc stan
+ * bardzo dużej liczby samochodów nie obciąża sterty ani odśmiecacza
+ */
+public class DirectVehicleStore extends VehicleStore {
+    /**
+     * Przesunięcia wartości w rekordzie samochodu (wartości 8-bajtowe na początku, aby były wyrównane)
+     */
+    private static final int ACCELERATION_OFFSET = 0;
+    private static final int RADAR_START_TICK_OFFSET = 8;
+    private static final int RADAR_END_TICK_OFFSET = 16;
+    private static final int X_OFFSET = 24;
+    private static final int Y_OFFSET = 28;
+    private static final int SPEED_OFFSET = 32;
+    private static final int MAX_SPEED_OFFSET = 36;
+    private static final int FLAGS_OFFSET = 40;
+    /**
+     * Długość rekordu samochodu w bajtach (wielokrotność 8, aby kolejne rekordy również były wyrównane)
+     */
+    private static final int RECORD_SIZE = 48;
+    /**
+     * Rekordy samochodów
+     */
+    private ByteBuffer records = allocate(INITIAL_CAPACITY);
+
+    /**
+     * Konstruktor pustego magazynu
+     * @param direction Kierunek pasa
+     * @param radarSpeedStartX Współrzędna X rozpoczęcia pomiaru odcinkowego na pasie, jeśli takowy istnieje
+     * @param radarSpeedEndX Współrzędna X zakończenia pomiaru odcinkowego na pasie, jeśli takowy istnieje
+     * @param simulationClock Zegar symulacji
+     */
+    public DirectVehicleStore(DirectionEnum direction, Integer radarSpeedStartX, Integer radarSpeedEndX, SimulationClock simulationClock) {
+        super(direction, radarSpeedStartX, radarSpeedEndX, simulationClock);
+    }
+
+    /**
+     * Konstruktor pustego magazynu dla tego samego pasa co zadany magazyn
+     * @param template Magazyn, z którego przepisywane są parametry pasa
+     */
+    public DirectVehicleStore(VehicleStore template) {
+        super(template);
+    }
+
+    /**
+     * Przydzielenie pamięci na zadaną liczbę rekordów (w kolejności bajtów procesora, aby odczyt nie wymagał jej zamiany)
+     * @param capacity Liczba rekordów
+     * @return Bufor na rekordy
+     */
+    private static ByteBuffer allocate(int capacity) {
+        if (capacity > Integer.MAX_VALUE / RECORD_SIZE) {
+            throw new IllegalStateException("Too many cars on a single belt");
+        }
+        return ByteBuffer.allocateDirect(capacity * RECORD_SIZE).order(ByteOrder.nativeOrder());
+    }
+
+    @Override
+    protected void growRecords(int capacity) {
+        ByteBuffer grown = allocate(capacity);
+        records.clear();
+        grown.put(records);
+        records = grown;
+    }
+
+    @Override
+    protected void setX(int slot, int x) {
+        records.putInt(slot * RECORD_SIZE + X_OFFSET, x);
+    }
+
+    @Override
+    protected void setY(int slot, int y) {
+        records.putInt(slot * RECORD_SIZE + Y_OFFSET, y);
+    }
+
+    @Override
+    protected void setSpeed(int slot, int speed) {
+        records.putInt(slot * RECORD_SIZE + SPEED_OFFSET, speed);
+    }
+
+    @Override
+    protected void setAcceleration(int slot, double acceleration) {
+        records.putDouble(slot * RECORD_SIZE + ACCELERATION_OFFSET, acceleration);
+    }
+
+    @Override
+    protected byte getFlags(int slot) {
+        return records.get(slot * RECORD_SIZE + FLAGS_OFFSET);
+    }
+
+    @Override
+    protected void setFlags(int slot, byte flags) {
+        records.put(slot * RECORD_SIZE + FLAGS_OFFSET, flags);
+    }
+
+    @Override
+    protected void setRadarStartTick(int slot, long tick) {
+        records.putLong(slot * RECORD_SIZE + RADAR_START_TICK_OFFSET, tick);
+    }
+
+    @Override
+    protected void setRadarEndTick(int slot, long tick) {
+        records.putLong(slot * RECORD_SIZE + RADAR_END_TICK_OFFSET, tick);
+    }
+
+    @Override
+    public int getX(int slot) {
+        return records.getInt(slot * RECORD_SIZE + X_OFFSET);
+    }
+
+    @Override
+    public int getY(int slot) {
+        return records.getInt(slot * RECORD_SIZE + Y_OFFSET);
+    }
+
+    @Override
+    public int getSpeed(int slot) {
+        return records.getInt(slot * RECORD_SIZE + SPEED_OFFSET);
+    }
+
+    @Override
+    public int getMaxSpeed(int slot) {
+        return records.getInt(slot * RECORD_SIZE + MAX_SPEED_OFFSET);
+    }
+
+    @Override
+    public void setMaxSpeed(int slot, int maxSpeed) {
+        records.putInt(slot * RECORD_SIZE + MAX_SPEED_OFFSET, maxSpeed);
+    }
+
+    @Override
+    public double getAcceleration(int slot) {
+        return records.getDouble(slot * RECORD_SIZE + ACCELERATION_OFFSET);
+    }
+
+    @Override
+    public long getRadarStartTick(int slot) {
+        return records.getLong(slot * RECORD_SIZE + RADAR_START_TICK_OFFSET);
+    }
+
+    @Override
+    public long getRadarEndTick(int slot) {
+        return records.getLong(slot * RECORD_SIZE + RADAR_END_TICK_OFFSET);
+    }
+}
@@ -1,11 +1,6 @@
 package main.model.belts;
 
-import java.awt.*;
-import java.util.*;
-import java.util.List;
-
-import javafx.scene.image.ImageView;
-import main.model.Car;
+import main.model.SimulationClock;
 import main.model.TrafficLightsAndCrossing;
 import main.model.enums.DirectionEnum;
 
@@ -24,10 +19,11 @@ public class DownTrafficBelt extends TrafficBelt {
      * @param height Wysokość pasa (oś Y)
      * @param speedControlXStart Początek pomiaru odcinkowego na osi X
      * @param speedControlXEnd Koniec pomiaru odcinkowego na osi X
+     * @param simulationClock Zegar symulacji
      */
     public DownTrafficBelt(int beltNumber, int carsLimit, int xPos, int yPos, int width, int height, Integer speedControlXStart,
-                           Integer speedControlXEnd) {
-        super(beltNumber, carsLimit, xPos, yPos, width, height, DirectionEnum.DOWN, speedControlXStart, speedControlXEnd);
+                           Integer speedControlXEnd, SimulationClock simulationClock) {
+        super(beltNumber, carsLimit, xPos, yPos, width, height, DirectionEnum.DOWN, speedControlXStart, speedControlXEnd, simulationClock);
         beltXStart = beltXEnd = xPos + 3;
         beltYStart = yPos;
         beltYEnd = yPos + height;
@@ -35,25 +31,25 @@ public class DownTrafficBelt extends TrafficBelt {
 
     /**
      * Sprawdzenie kolizji pomiędzy dwoma samochodami z przemieszczeniem tego pierwszego
-     * @param car Samochód 1
-     * @param c Samochód 2
+     * @param car Numer miejsca samochodu 1
+     * @param leader Numer miejsca samochodu 2 (poprzedzającego)
      * @return True jeśli zajdzie kolizja, wpp false
      */
     @Override
-    protected boolean collisionBetweenTwoCars(Car car, Car c) {
-        return car.getPosition().y + BELT_HEIGHT >= c.getPosition().y - BELT_HEIGHT * getStoppingDistFact() &&
-            car.getPosition().y < c.getPosition().y;
+    protected boolean collisionBetweenTwoCars(int car, int leader) {
+        return vehicles.getY(car) + BELT_HEIGHT >= vehicles.getY(leader) - BELT_HEIGHT * getStoppingDistFact() &&
+            vehicles.getY(car) < vehicles.getY(leader);
     }
 
     /**
      * Sprawdzenie, czy samochód ma jeszcze dużą odległość od pasa (maxSpeed * 3, czyli na 3 kolejne ruchy)
-     * @param car Aktualnie analizowany samochód
+     * @param car Numer miejsca aktualnie analizowanego samochodu
      * @param nextCrossing Najbliższe skrzyżowanie do którego się zbliża
      * @return True, jeśli ma odpowiednią odległość, wpp false
      */
     @Override
-    protected boolean hasDistanceToCrossing(Car car, TrafficLightsAndCrossing nextCrossing) {
-        return car.getPosition().y < nextCrossing.getY1() - Math.abs(car.getMaxSpeed()) * 3;
+    protected boolean hasDistanceToCrossing(int car, TrafficLightsAndCrossing nextCrossing) {
+        return vehicles.getY(car) < nextCrossing.getY1() - Math.abs(vehicles.getMaxSpeed(car)) * 3;
     }
 
     /**
@@ -72,14 +68,15 @@ public class DownTrafficBelt extends TrafficBelt {
 
     /**
      * Znalezienie następnego skrzyżowania odpowiadającego kierunkowi jazdy samochodu
-     * @param carPos Pozycja samochodu
+     * @param car Numer miejsca samochodu
      * @return Następne skrzyżowanie. Jeśli brak, to null
      */
     @Override
-    protected TrafficLightsAndCrossing getNextCrossingAndLights(Point carPos) {
+    protected TrafficLightsAndCrossing getNextCrossingAndLights(int car) {
+        int carY = vehicles.getY(car);
         TrafficLightsAndCrossing res = null;
         for (TrafficLightsAndCrossing crossing : crossingAndLights) {
-            if (crossing.getY1() > carPos.y + BELT_HEIGHT && (res == null || res.getY1() > crossing.getY1())) {
+            if (crossing.getY1() > carY + BELT_HEIGHT && (res == null || res.getY1() > crossing.getY1())) {
                 res = crossing;
             }
         }
@@ -87,27 +84,12 @@ public class DownTrafficBelt extends TrafficBelt {
     }
 
     /**
-     * Metoda znajdująca wszystkie samochody dla danego pasa, które opuściły już scenę.
-     * Dodatkowo zdejmowane są samochody, które zaliczyły kolizję na pasie.
-     * Wołana jest funkcja clear, która usuwa je z listy na pasie i woła logikę specyficzną dla samochodu.
-     * Następnie zwracana jest lista samochodów do usunięcia ze sceny poprzez kontroler
-     * @return Lista samochodów do usunięcia ze sceny poprzez kontroler
+     * Sprawdzenie, czy samochód opuścił już pas
+     * @param car Numer miejsca samochodu
+     * @return True, jeśli samochód opuścił pas, wpp false
      */
     @Override
-    protected synchronized List<ImageView> cleanup() {
-        List<ImageView> carsViewsToRemove = new ArrayList<>();
-        List<Car> carsToRemove = new ArrayList<>();
-        containingCars.stream().filter(car -> car.getY() >= beltYEnd).forEach(car -> {
-            carsViewsToRemove.add(car);
-            carsToRemove.add(car);
-            car.carRemoveLogic();
-        });
-        containingCars.stream().filter(car -> car.isInCollision()).forEach(car -> {
-            carsViewsToRemove.add(car);
-            carsToRemove.add(car);
-            car.carRemoveLogic();
-        });
-        clear(carsToRemove);
-        return carsViewsToRemove;
+    protected boolean hasLeftTheStage(int car) {
+        return vehicles.getY(car) >= beltYEnd;
     }
 }
@@ -0,0 +1,148 @@
+package main.model.belts;
+
+import java.util.Arrays;
+
+import main.model.SimulationClock;
+import main.model.enums.DirectionEnum;
+
+/**
+ * Created by Krzysztof Baran
+ * Magazyn stanu samochodów pasa w tablicach typów prostych na stercie (osobna tablica dla każdej wartości).
+ * Domyślny sposób przechowywania stanu samochodów
+ */
+public class HeapVehicleStore extends VehicleStore {
+    /**
+     * Pozycje samochodów na osi X i Y
+     */
+    private int[] xs = new int[INITIAL_CAPACITY];
+    private int[] ys = new int[INITIAL_CAPACITY];
+    /**
+     * Aktualne prędkości samochodów (ze znakiem zgodnym z kierunkiem ruchu na osi) i ich prędkości maksymalne
+     */
+    private int[] speeds = new int[INITIAL_CAPACITY];
+    private int[] maxSpeeds = new int[INITIAL_CAPACITY];
+    /**
+     * Przyspieszenia samochodów
+     */
+    private double[] accelerations = new double[INITIAL_CAPACITY];
+    /**
+     * Flagi samochodów
+     */
+    private byte[] flags = new byte[INITIAL_CAPACITY];
+    /**
+     * Takty rozpoczęcia i zakończenia pomiaru odcinkowego (SimulationClock.NOT_SET, jeśli nie nastąpiły)
+     */
+    private long[] radarStartTicks = new long[INITIAL_CAPACITY];
+    private long[] radarEndTicks = new long[INITIAL_CAPACITY];
+
+    /**
+     * Konstruktor pustego magazynu
+     * @param direction Kierunek pasa
+     * @param radarSpeedStartX Współrzędna X rozpoczęcia pomiaru odcinkowego na pasie, jeśli takowy istnieje
+     * @param radarSpeedEndX Współrzędna X zakończenia pomiaru odcinkowego na pasie, jeśli takowy istnieje
+     * @param simulationClock Zegar symulacji
+     */
+    public HeapVehicleStore(DirectionEnum direction, Integer radarSpeedStartX, Integer radarSpeedEndX, SimulationClock simulationClock) {
+        super(direction, radarSpeedStartX, radarSpeedEndX, simulationClock);
+    }
+
+    /**
+     * Konstruktor pustego magazynu dla tego samego pasa co zadany magazyn
+     * @param template Magazyn, z którego przepisywane są parametry pasa
+     */
+    public HeapVehicleStore(VehicleStore template) {
+        super(template);
+    }
+
+    @Override
+    protected void growRecords(int capacity) {
+        xs = Arrays.copyOf(xs, capacity);
+        ys = Arrays.copyOf(ys, capacity);
+        speeds = Arrays.copyOf(speeds, capacity);
+        maxSpeeds = Arrays.copyOf(maxSpeeds, capacity);
+        accelerations = Arrays.copyOf(accelerations, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+        radarStartTicks = Arrays.copyOf(radarStartTicks, capacity);
+        radarEndTicks = Arrays.copyOf(radarEndTicks, capacity);
+    }
+
+    @Override
+    protected void setX(int slot, int x) {
+        xs[slot] = x;
+    }
+
+    @Override
+    protected void setY(int slot, int y) {
+        ys[slot] = y;
+    }
+
+    @Override
+    protected void setSpeed(int slot, int speed) {
+        speeds[slot] = speed;
+    }
+
+    @Override
+    protected void setAcceleration(int slot, double acceleration) {
+        accelerations[slot] = acceleration;
+    }
+
+    @Override
+    protected byte getFlags(int slot) {
+        return flags[slot];
+    }
+
+    @Override
+    protected void setFlags(int slot, byte flags) {
+        this.flags[slot] = flags;
+    }
+
+    @Override
+    protected void setRadarStartTick(int slot, long tick) {
+        radarStartTicks[slot] = tick;
+    }
+
+    @Override
+    protected void setRadarEndTick(int slot, long tick) {
+        radarEndTicks[slot] = tick;
+    }
+
+    @Override
+    public int getX(int slot) {
+        return xs[slot];
+    }
+
+    @Override
+    public int getY(int slot) {
+        return ys[slot];
+    }
+
+    @Override
+    public int getSpeed(int slot) {
+        return speeds[slot];
+    }
+
+    @Override
+    public int getMaxSpeed(int slot) {
+        return maxSpeeds[slot];
+    }
+
+    @Override
+    public void setMaxSpeed(int slot, int maxSpeed) {
+        maxSpeeds[slot] = maxSpeed;
+    }
+
+    @Override
+    public double getAcceleration(int slot) {
+        return accelerations[slot];
+    }
+
+    @Override
+    public long getRadarStartTick(int slot) {
+        return radarStartTicks[slot];
+    }
+
+    @Override
+    public long getRadarEndTick(int slot) {
+        return radarEndTicks[slot];
+    }
+}
@@ -1,21 +1,16 @@
 package main.model.belts;
 
-import javafx.scene.image.ImageView;
-import javafx.scene.paint.Color;
-import javafx.scene.shape.Rectangle;
 import main.model.Car;
+import main.model.SimulationClock;
 import main.model.TrafficLightsAndCrossing;
 import main.model.enums.DirectionEnum;
 import main.model.enums.WeatherEnum;
+import main.model.results.BeltStatistics;
 import main.model.results.SpeedResult;
 
-import java.awt.*;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Random;
-import java.util.stream.Collectors;
 
 /**
  * Created by Krzysztof Baran
@@ -29,17 +24,22 @@ public abstract class TrafficBelt {
      */
     private static final Integer MAX_TRIES_FOR_LIGHTS_SWITCH_ALGORITHM = 200;
     /**
-     * Współczynnyk odległości hamowania pojazdu
+     * Domyślny współczynnik odległości hamowania pojazdu
      */
-    private static Double STOPPING_DIST_FACT = 1.5;
+    private static final double DEFAULT_STOPPING_DIST_FACT = 1.5;
     /**
      * Wysokość pasa w pikselach
      */
     public static final int BELT_HEIGHT = 20;
     /**
-     * Generator wartości losowych do generowania różych prędkości maksymalnych samochodów
+     * Generator wartości losowych do generowania różych prędkości maksymalnych i przyspieszeń samochodów
      */
     private final Random random = new Random();
+    /**
+     * Współczynnyk odległości hamowania pojazdu (zależny od pogody, osobny dla każdego pasa,
+     * aby niezależne symulacje mogły działać równolegle)
+     */
+    private volatile double stoppingDistFact = DEFAULT_STOPPING_DIST_FACT;
     /**
      * Kolejny numer pasa w zadanym kierunku
      */
@@ -49,13 +49,18 @@ public abstract class TrafficBelt {
      */
     private int carsLimit;
     /**
-     * Graficzna reprezentacja pasa drogowego
+     * Położenie lewego górnego rogu pasa na scenie
+     */
+    private final int xPos, yPos;
+    /**
+     * Szerokość (oś X) oraz wysokość (oś Y) pasa na scenie
      */
-    private Rectangle beltRect;
+    private final int width, height;
     /**
-     * Lista samochodów, które zawierają się na zadanym pasie drogowym
+     * Magazyn stanu samochodów, które zawierają się na zadanym pasie drogowym (domyślnie na stercie, patrz setOffHeapVehicles).
+     * Kolejność samochodów utrzymywana jest od samochodu najdalej na pasie (lidera) do ostatniego, który na niego wjechał
      */
-    protected List<Car> containingCars;
+    protected VehicleStore vehicles;
     /**
      * Kierunek pasa w jakim poruszają się samochody
      */
@@ -69,27 +74,37 @@ public abstract class TrafficBelt {
      */
     protected List<TrafficLightsAndCrossing> crossingAndLights;
     /**
-     * Wyniki prędkości wszystkich samochodów.
+     * Wyniki prędkości wszystkich samochodów (tylko jeśli retainSpeedResults).
      * Zapisywane podczas usuwania samochodu ze sceny, który przejechał już cały dystans
      */
     protected List<SpeedResult> speedResults;
     /**
-     * Mapa zawierająca listę samochodów, które opuściły dany pas w zadanych warunkach pogodowych
+     * Statystyki samochodów, które opuściły pas, aktualizowane przy usuwaniu każdego samochodu
      */
-    protected Map<WeatherEnum, Long> carsThatLeftTheStageWithWeather;
+    private final BeltStatistics statistics = new BeltStatistics();
     /**
-     * Liczba samochodów, które w ogóle opuściły pas po przejechaniu całego dystansu
+     * Flaga mówiąca o tym, czy wyniki każdego z samochodów mają być przechowywane do końca symulacji.
+     * Bez nich pas zajmuje stałą ilość pamięci niezależnie od czasu trwania symulacji (dostępne są tylko statystyki)
      */
-    protected long carsThatLeftTheStage;
+    private boolean retainSpeedResults = true;
+    /**
+     * Liczba samochodów, które opuściły dany pas w zadanych warunkach pogodowych (indeks to ordinal pogody)
+     */
+    protected final long[] carsThatLeftTheStageWithWeather = new long[WeatherEnum.values().length];
     /**
-     * Początek oraz koniec pomiaru odcinkowego, jeśli takowy istnieje
+     * Liczba samochodów, które w ogóle opuściły pas po przejechaniu całego dystansu
      */
-    private final Integer speedControlXStart, speedControlXEnd;
+    protected long carsThatLeftTheStage;
     /**
      * Ilość nieudanych prób ruszenia samochodami, lub dołożenia samochodu na pas (gdy czekają na zielone światło).
      * Jeśli przekroczy limit, zmieniane są światła w algorytmie 2 i wartość jest zerowana.
      */
     private Integer addCarTriesFailure;
+    /**
+     * Decyzje o ruchu samochodów podjęte w fazie planowania (true => jedzie, false => hamuje), w kolejności samochodów na pasie.
+     * Tablica używana jest ponownie w kolejnych iteracjach
+     */
+    private boolean[] plannedMoves = new boolean[16];
 
     /**
      * Konstruktor pasa
@@ -103,45 +118,44 @@ public abstract class TrafficBelt {
      * @param beltDirection      Kierunek poruszania się samochodów na pasie
      * @param speedControlXStart Początek pomiaru odcinkowego na osi X
      * @param speedControlXEnd   Koniec pomiaru odcinkowego na osi X
+     * @param simulationClock    Zegar symulacji
      */
     public TrafficBelt(int beltNumber, int carsLimit, int xPos, int yPos, int width, int height, DirectionEnum beltDirection,
-                       Integer speedControlXStart, Integer speedControlXEnd) {
+                       Integer speedControlXStart, Integer speedControlXEnd, SimulationClock simulationClock) {
         //Inicjalizacja podstawowych wartości
-        carsThatLeftTheStageWithWeather = new HashMap<>();
         carsThatLeftTheStage = 0L;
         addCarTriesFailure = 0;
         this.beltNumber = beltNumber;
         this.carsLimit = carsLimit;
         speedResults = new ArrayList<>();
-        this.containingCars = new ArrayList<>();
-        //Utworzenie reprezentacji graficznej i nadanie kolorów, wysokości, szerokości
-        beltRect = new Rectangle(xPos, yPos, width, height);
-        beltRect.setFill(Color.web("0x34495E"));
-        beltRect.setStroke(Color.web("0xC9CED4"));
+        //Zapamiętanie położenia i rozmiaru pasa, na podstawie których renderer rysuje jego reprezentację
+        this.xPos = xPos;
+        this.yPos = yPos;
+        this.width = width;
+        this.height = height;
         //Ustawienie kierunku pasa do przekazania go samochodom
         this.beltDirection = beltDirection;
-        //Ustawienie pomiaru odcinkowego
-        this.speedControlXStart = speedControlXStart;
-        this.speedControlXEnd = speedControlXEnd;
+        //Utworzenie magazynu stanu samochodów z kierunkiem pasa, pomiarem odcinkowym i zegarem symulacji
+        this.vehicles = new HeapVehicleStore(beltDirection, speedControlXStart, speedControlXEnd, simulationClock);
     }
 
     /**
      * Abstrakcyjna metoda, która ma sprawdzić kolizje pomiędzy dwoma samochodami, zależnie od kierunku jazdy
      *
-     * @param car Samochód 1
-     * @param c   Samochód 2
+     * @param car    Numer miejsca samochodu 1
+     * @param leader Numer miejsca samochodu 2
      * @return True jeśli kolizja, wpp false
      */
-    protected abstract boolean collisionBetweenTwoCars(Car car, Car c);
+    protected abstract boolean collisionBetweenTwoCars(int car, int leader);
 
     /**
      * Abstrakcyjna metoda, która ma sprawdzić czy samochód ma jeszcze duży dystans do skrzyżowania
      *
-     * @param car          Aktualnie analizowany samochód
+     * @param car          Numer miejsca aktualnie analizowanego samochodu
      * @param nextCrossing Najbliższe skrzyżowanie do którego się zbliża
      * @return True jeśli ma spory dystans, wpp false
      */
-    protected abstract boolean hasDistanceToCrossing(Car car, TrafficLightsAndCrossing nextCrossing);
+    protected abstract boolean hasDistanceToCrossing(int car, TrafficLightsAndCrossing nextCrossing);
 
     /**
      * Sprawdzenie, czy samochód ma zielone światło na następnym skrzyżowaniu (zależy od kierunku pasa)
@@ -154,18 +168,18 @@ public abstract class TrafficBelt {
     /**
      * Metoda znajdująca najbliższe skrzyżowanie, do którego zbliża się pojazd (zależy od kierunku pasa)
      *
-     * @param carPos Pozycja samochodu
+     * @param car Numer miejsca samochodu
      * @return Najbliższe skrzyżowanie
      */
-    protected abstract TrafficLightsAndCrossing getNextCrossingAndLights(Point carPos);
+    protected abstract TrafficLightsAndCrossing getNextCrossingAndLights(int car);
 
     /**
-     * Metoda, która znajduje wszystkie samochody, które opuściły scenę zwraca obiekty, woła logikę usunięcia samochodu,
-     * funkcję cleanup oraz przekazuje listę samochodów do usunięcia z ekranu za pomocą jego kontrolera
+     * Abstrakcyjna metoda, która ma sprawdzić, czy samochód opuścił już pas (zależy od kierunku pasa)
      *
-     * @return Lista samochodów do usunięcia z ekranu
+     * @param car Numer miejsca samochodu
+     * @return True jeśli samochód opuścił pas, wpp false
      */
-    protected abstract List<ImageView> cleanup();
+    protected abstract boolean hasLeftTheStage(int car);
 
     /**
      * Getter inicjalizujący listę skrzyżowań jeśli jest nie zainicjalizowana i zwracający ową listę
@@ -181,43 +195,60 @@ public abstract class TrafficBelt {
 
     /**
      * Metoda dodająca nowy samochód na pas.
-     * Jeśli liczba samochodów przekracza limit, to samochód ten nie jest dodawany
+     * Jeśli liczba samochodów przekracza limit lub wjazd na pas nie jest wolny, to samochód ten nie jest dodawany.
+     * Obiekt samochodu tworzony jest dopiero wtedy, gdy wiadomo już, że zmieści się na pasie
      *
-     * @param weatherConditions
-     * @return
+     * @param weatherConditions Aktualne warunki pogodowe
+     * @return Dodany samochód lub null, jeśli samochód nie został dodany
      */
-    public synchronized ImageView addCar(WeatherEnum weatherConditions) {
+    public synchronized Car addCar(WeatherEnum weatherConditions) {
         //Jeśli liczba maksymalna pojazdów zostałaby przekroczona, to zwiększana jest ilość niepowodzeń, a pojazd
         //nie jest dodawany
-        if (containingCars.size() >= carsLimit) {
+        if (vehicles.getSize() >= carsLimit) {
             addCarTriesFailure++;
             return null;
         }
-        //Utworzenie nowego pojazdy
-        Car car = new Car(randomMaxSpeedForCar(weatherConditions), beltDirection, beltXStart, beltYStart, speedControlXStart, speedControlXEnd,
-            weatherConditions);
+        //Wylosowanie parametrów nowego pojazdu
+        int maxSpeed = randomMaxSpeedForCar(weatherConditions);
+        double acceleration = Car.randomAcceleration(maxSpeed, random);
         //Jeśli pojazd ma możliwe jakieś kolizje na pozycji początkowej (inny dodany samochód nie zdążył odjechać),
         //to samochód nie jest dodawany
-        if (carHasPossibleCollisionOnEntry(car)) {
+        if (carHasPossibleCollisionOnEntry(maxSpeed, acceleration)) {
             return null;
         }
-        //Dodanie nowego samochodu do pasa i zwrócenie go wyżej, aby można było dodać go do sceny w kontrolerze
-        containingCars.add(car);
-        return car;
+        //Utworzenie nowego pojazdu na końcu pasa i zwrócenie go wyżej, aby można było dodać go do sceny w kontrolerze
+        return new Car(vehicles, maxSpeed, acceleration, beltXStart, beltYStart, weatherConditions);
     }
 
-    protected synchronized boolean carHasPossibleCollisionOnEntry(Car car) {
-        Car tempCar = new Car(car);
-        Car tempCarMoved = new Car(car);
-        Car tempCarMovedTwice = new Car(car);
-        tempCarMoved.go();
-        tempCarMovedTwice.go();
-        tempCarMovedTwice.go();
-        for (Car c : containingCars) {
-            if (c == car) { continue; }
+    /**
+     * Sprawdzenie, czy nowy samochód o zadanych parametrach zderzyłby się z samochodami na pasie na pozycji początkowej
+     * lub po jednym i dwóch ruchach.
+     * Pozycje liczone są wyłącznie wzdłuż pasa (wszystkie samochody na pasie mają to samo położenie w poprzek pasa),
+     * a sprawdzane są tylko ostatnie samochody na pasie, które mogą znajdować się w zasięgu tych pozycji
+     *
+     * @param maxSpeed     Maksymalna prędkość nowego samochodu
+     * @param acceleration Przyspieszenie nowego samochodu
+     * @return True jeśli kolizja, wpp false
+     */
+    protected synchronized boolean carHasPossibleCollisionOnEntry(int maxSpeed, double acceleration) {
+        //Kierunek ruchu wzdłuż osi pasa (1 => prawo/dół, -1 => lewo/góra)
+        int axisDirection = beltDirection.getXDirection() + beltDirection.getYDirection();
+        //Postęp wzdłuż pasa na pozycji początkowej
+        int entryProgress = axisDirection * (beltDirection.getXDirection() != 0 ? beltXStart : beltYStart);
+        //Postęp wzdłuż pasa po jednym i dwóch ruchach (tak jak w Car.go())
+        int speed = Car.calculateSpeed(axisDirection, acceleration, Car.initialSpeed(maxSpeed), maxSpeed);
+        int movedProgress = entryProgress + axisDirection * speed;
+        speed = Car.calculateSpeed(axisDirection, acceleration, speed, maxSpeed);
+        int movedTwiceProgress = movedProgress + axisDirection * speed;
+        //Przeglądamy samochody od ostatniego na pasie, aż do pierwszego, który jest poza zasięgiem sprawdzanych pozycji
+        for (int i = vehicles.getSize() - 1; i >= 0; i--) {
+            int progress = vehicles.getProgress(vehicles.getSlot(i));
+            if (progress > Math.max(entryProgress, movedTwiceProgress) + BELT_HEIGHT) {
+                break;
+            }
             //Sprawdzenie kolizji na pasie dla dodawanego samochodu i dla tego samego samochodu po jednym i dwóch ruchach
-            if (checkFullCollisionBetweenTwoCars(tempCar, c) || checkFullCollisionBetweenTwoCars(tempCarMoved, c) ||
-                checkFullCollisionBetweenTwoCars(tempCarMovedTwice, c)) {
+            if (Math.abs(progress - entryProgress) <= BELT_HEIGHT || Math.abs(progress - movedProgress) <= BELT_HEIGHT ||
+                Math.abs(progress - movedTwiceProgress) <= BELT_HEIGHT) {
                 return true;
             }
         }
@@ -230,8 +261,9 @@ public abstract class TrafficBelt {
      * @param weatherConditions Aktualna, nowa pogoda na scenie
      */
     public synchronized void changeCarsSpeed(WeatherEnum weatherConditions) {
-        for (Car car : containingCars) {
-            car.changeMaxSpeed(randomMaxSpeedForCar(weatherConditions), weatherConditions);
+        //Pętla po indeksach, aby zmiana pogody nie tworzyła żadnych obiektów (również iteratora)
+        for (int i = 0; i < vehicles.getSize(); i++) {
+            vehicles.getCar(vehicles.getSlot(i)).changeMaxSpeed(randomMaxSpeedForCar(weatherConditions), weatherConditions);
         }
     }
 
@@ -252,38 +284,104 @@ public abstract class TrafficBelt {
     }
 
     /**
-     * Getter dla graficznej reprezentacji pasa ruchu
+     * Getter dla pozycji lewego górnego rogu pasa na osi X
+     *
+     * @return Pozycja lewego górnego rogu pasa na osi X
+     */
+    public int getXPos() {
+        return xPos;
+    }
+
+    /**
+     * Getter dla pozycji lewego górnego rogu pasa na osi Y
+     *
+     * @return Pozycja lewego górnego rogu pasa na osi Y
+     */
+    public int getYPos() {
+        return yPos;
+    }
+
+    /**
+     * Getter dla szerokości pasa (oś X)
+     *
+     * @return Szerokość pasa
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Getter dla wysokości pasa (oś Y)
      *
-     * @return Graficzna reprezentacja pasa ruchu
+     * @return Wysokość pasa
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Getter dla liczby samochodów aktualnie znajdujących się na pasie
+     * @return Liczba samochodów na pasie
+     */
+    public synchronized int getCarsCount() {
+        return vehicles.getSize();
+    }
+
+    /**
+     * Metoda zapisująca samochody z pasa i ich aktualne pozycje do tablic migawki sceny
+     * @param cars Tablica samochodów
+     * @param carsX Tablica pozycji na osi X
+     * @param carsY Tablica pozycji na osi Y
+     * @param offset Indeks, od którego zapisywane są samochody pasa
+     * @return Indeks za ostatnim zapisanym samochodem
+     */
+    public synchronized int copyCarPositions(Car[] cars, int[] carsX, int[] carsY, int offset) {
+        for (int i = 0; i < vehicles.getSize(); i++) {
+            int slot = vehicles.getSlot(i);
+            cars[offset] = vehicles.getCar(slot);
+            carsX[offset] = vehicles.getX(slot);
+            carsY[offset] = vehicles.getY(slot);
+            offset++;
+        }
+        return offset;
+    }
+
+    /**
+     * Pierwsza faza iteracji - planowanie ruchu.
+     * Dla każdego samochodu sprawdzane jest, czy może się poruszać dalej. Decyzje podejmowane są na podstawie pozycji
+     * wszystkich samochodów i świateł z początku iteracji (faza niczego nie przesuwa), dzięki czemu pasy mogą być
+     * planowane równolegle, a wynik nie zależy od kolejności ich przetwarzania
      */
-    public Rectangle getBeltGraphics() {
-        return beltRect;
+    public synchronized void planMoves() {
+        //Przywracamy kolejność samochodów od lidera do ostatniego (zwykle lista jest już posortowana)
+        vehicles.sortByLaneProgress();
+        if (plannedMoves.length < vehicles.getSize()) {
+            plannedMoves = new boolean[Math.max(vehicles.getSize(), plannedMoves.length * 2)];
+        }
+        for (int i = 0; i < vehicles.getSize(); i++) {
+            plannedMoves[i] = canCarGo(vehicles.getSlot(i), i);
+        }
     }
 
     /**
-     * Metoda, której zadaniem jest sprawdzenie czy samochód może się poruszać dalej i jeśli tak, to wołana jest
-     * funkcja go, wpp. samochód jest wyhamowywany funkcją stop
+     * Druga faza iteracji - wykonanie ruchu zaplanowanego w planMoves.
+     * Jeśli samochód może jechać, to jest przyspieszany, wpp. jest wyhamowywany (patrz VehicleStore.move).
+     * Faza zmienia wyłącznie samochody danego pasa (oraz zbiory samochodów na skrzyżowaniach)
      *
-     * @return Lista obiektów graficznych, które po iteracji wyszły poza scenę i należy je usunąć w kontrolerze
+     * @return Lista samochodów, które po iteracji wyszły poza scenę i należy je usunąć z renderera
      */
-    public synchronized List<ImageView> moveCars() {
-        for (Car car : containingCars) {
+    public synchronized List<Car> commitMoves() {
+        for (int i = 0; i < vehicles.getSize(); i++) {
+            int slot = vehicles.getSlot(i);
             //Jeśli samochód może jechać, to przyspieszamy go jeśli to możliwe i przesuwamy,
             //wpp hamujemy go i przesuwamy, ew. zatrzymujemy jeśli prędkość spadła do 0
-            if (canCarGo(car)) {
-                car.go();
-            } else {
-                car.stop();
-            }
-            //Sprawdzamy nowe pozycje samochodów i jeśli pokrywają się częściowo z jakimś skrzyżowaniem,
-            //to dodajemy ten samochód do skrzyżowania w celu późniejszej detekcji kolizji.
-            //Jeśli natomiast samochód znajduje się już liście samochodów na skrzyżowaniu, a wyjechał poza nie,
-            //to usuwamy go z listy
+            vehicles.move(slot, plannedMoves[i]);
+            Car car = vehicles.getCar(slot);
+            //Sprawdzamy nowe pozycje samochodów i jeśli samochód wjechał na skrzyżowanie, to jest do niego dodawany
+            //w celu późniejszej detekcji kolizji, a jeśli z niego zjechał, to jest z niego usuwany (i zapisujemy czas dojazdu)
             for (TrafficLightsAndCrossing crossing : crossingAndLights) {
-                if (crossing.isCarOnTheCrossing(car.getPosition(), BELT_HEIGHT)) {
-                    crossing.addCarIfNotExists(car);
-                } else if (!crossing.isCarOnTheCrossing(car.getPosition(), BELT_HEIGHT)) {
-                    crossing.removeCar(car);
+                if (crossing.updateOccupancy(car, BELT_HEIGHT)) {
+                    statistics.addApproachTravelTime(crossing.getCrossingIndex(), car.finishCrossingApproach());
                 }
             }
         }
@@ -301,15 +399,15 @@ public abstract class TrafficBelt {
      * aby swobodnie przez nie przejechać
      * 3. Czy ma czerwone światło i ma nadal dystans do tego skrzyżowania, który może pokonać
      *
-     * @param car Aktualnie analizowany samochód
+     * @param car Numer miejsca aktualnie analizowanego samochodu
+     * @param carIndex Pozycja samochodu w kolejności samochodów na pasie
      * @return True jeśli samochód może jechać, wpp false
      */
-    private boolean canCarGo(Car car) {
-        Point carPos = car.getPosition();
+    private boolean canCarGo(int car, int carIndex) {
         //Znajdujemy najbliższe skrzyżowanie
-        TrafficLightsAndCrossing nextCrossing = getNextCrossingAndLights(carPos);
+        TrafficLightsAndCrossing nextCrossing = getNextCrossingAndLights(car);
         //Sprawdzamy, czy samochód ma jakiekolwiek prawdopodobne kolizje na pasie na którym się znajduje
-        if (hasAnyPossibleCollision(car)) {
+        if (hasAnyPossibleCollision(car, carIndex)) {
             return false;
         }
         //Sprawdzamy, czy samochód ma zielone światło i może swobodnie przejechać skrzyżowanie, aby z niego zjechać
@@ -328,13 +426,16 @@ public abstract class TrafficBelt {
     }
 
     /**
-     * Metoda sprawdzająca, czy po przekroczeniu połowy pasów skrzyżowania, samochód nie spowoduje kolizji z innym
+     * Metoda sprawdzająca, czy po przekroczeniu połowy pasów skrzyżowania, samochód nie spowoduje kolizji z innym.
+     * Trasa samochodu w kolejnych ruchach liczona jest analitycznie (patrz travelDistance), bez tworzenia obiektów tymczasowych.
+     * Ponieważ postęp samochodu wzdłuż pasa nie maleje, dla każdego samochodu na skrzyżowaniu wystarczy znaleźć pierwszy ruch,
+     * w którym samochód dojeżdża do jego początku i sprawdzić, czy w tym ruchu nie minął już jego końca
      *
      * @param crossing Aktualne skrzyżowanie
-     * @param car      Aktualnie analizowany samochód
-     * @return True gdy spowoduje kolizję w trzech ruchach, wpp false.
+     * @param car      Numer miejsca aktualnie analizowanego samochodu
+     * @return True gdy spowoduje kolizję w kolejnych ruchach, wpp false.
      */
-    private boolean hasCollisionOnTheCurrentCrossing(TrafficLightsAndCrossing crossing, Car car) {
+    private boolean hasCollisionOnTheCurrentCrossing(TrafficLightsAndCrossing crossing, int car) {
         if (crossing == null) {
             return false;
         }
@@ -342,38 +443,150 @@ public abstract class TrafficBelt {
         if (hasDistanceToCrossing(car, crossing)) {
             return false;
         }
-        Car tempCar = new Car(car);
-        //Iterujemy połowę razy liczbę pasów pionowych na skrzyżowaniu
-        //Za każdym razem ruszamy tymczasowym samochodem i sprawdzamy, czy nie zachodzi kolizja z żadnym samochodem,
-        //który znajduje się na skrzyżowaniu
-        for (int i = 0; i <= crossing.getVBeltsCount() + 1; i++) {
-            tempCar.go();
-            for (Car c : crossing.getContainingCars()) {
-                if (c == car) {
-                    continue;
-                }
-                //Sprawdzenie pełnej kolizji
-                if (checkFullCollisionBetweenTwoCars(c, tempCar)) {
-                    return true;
-                }
+        //Liczba ruchów do sprawdzenia: połowa razy liczba pasów pionowych na skrzyżowaniu
+        int steps = crossing.getVBeltsCount() + 2;
+        //Kierunek ruchu wzdłuż osi pasa (1 => prawo/dół, -1 => lewo/góra)
+        int axisDirection = beltDirection.getXDirection() + beltDirection.getYDirection();
+        //Prędkość wzdłuż pasa po pierwszym ruchu, przyrost prędkości w kolejnych ruchach oraz prędkość maksymalna
+        //(dla pasów w lewo i w górę prędkość nie jest ograniczana - tak jak w Car.calculateSpeed)
+        double acceleration = vehicles.getAcceleration(car);
+        int maxSpeed = vehicles.getMaxSpeed(car);
+        int firstSpeed = axisDirection * Car.calculateSpeed(axisDirection, acceleration, vehicles.getSpeed(car), maxSpeed);
+        int speedIncrement = (int) acceleration;
+        int speedCap = axisDirection > 0 ? maxSpeed : Integer.MAX_VALUE;
+        int progress = vehicles.getProgress(car);
+        int lateralPosition = lateralPosition(vehicles.getX(car), vehicles.getY(car));
+        Car handle = vehicles.getCar(car);
+        //Samochody na skrzyżowaniu pochodzą również z innych pasów, więc ich pozycje odczytywane są przez uchwyty
+        for (Car c : crossing.getContainingCars()) {
+            if (c == handle) {
+                continue;
+            }
+            //Samochody nie nachodzą na siebie w poprzek pasa, więc nigdy się nie zderzą
+            if (Math.abs(lateralPosition(c.getX(), c.getY()) - lateralPosition) > BELT_HEIGHT) {
+                continue;
+            }
+            //Odcinek wzdłuż pasa, na którym samochód nachodziłby na samochód na skrzyżowaniu
+            int otherProgress = axisDirection * (beltDirection.getXDirection() != 0 ? c.getX() : c.getY());
+            long conflictStart = (long) otherProgress - BELT_HEIGHT - progress;
+            long conflictEnd = (long) otherProgress + BELT_HEIGHT - progress;
+            long step = stepsToReach(conflictStart, firstSpeed, speedIncrement, speedCap);
+            if (step <= steps && travelDistance(step, firstSpeed, speedIncrement, speedCap) <= conflictEnd) {
+                return true;
             }
         }
         return false;
     }
 
+    /**
+     * Położenie samochodu w poprzek pasa (X dla pasów pionowych, Y dla poziomych)
+     *
+     * @param x Pozycja samochodu na osi X
+     * @param y Pozycja samochodu na osi Y
+     * @return Położenie samochodu w poprzek pasa
+     */
+    private int lateralPosition(int x, int y) {
+        return beltDirection.getXDirection() != 0 ? y : x;
+    }
+
+    /**
+     * Dystans przejechany wzdłuż pasa po zadanej liczbie ruchów samochodu, który cały czas przyspiesza.
+     * Prędkość w kolejnych ruchach rośnie o stały przyrost aż do prędkości maksymalnej, więc dystans jest sumą
+     * ciągu arytmetycznego, a po osiągnięciu prędkości maksymalnej rośnie liniowo
+     *
+     * @param steps          Liczba ruchów
+     * @param firstSpeed     Prędkość wzdłuż pasa w pierwszym ruchu
+     * @param speedIncrement Przyrost prędkości w każdym kolejnym ruchu
+     * @param speedCap       Prędkość maksymalna
+     * @return Przejechany dystans
+     */
+    private static long travelDistance(long steps, int firstSpeed, int speedIncrement, int speedCap) {
+        if (steps <= 0) {
+            return 0;
+        }
+        long accelerating = Math.min(steps, acceleratingSteps(firstSpeed, speedIncrement, speedCap));
+        return accelerating * firstSpeed + speedIncrement * accelerating * (accelerating - 1) / 2 + (steps - accelerating) * speedCap;
+    }
+
+    /**
+     * Liczba ruchów, w których samochód jedzie wolniej niż prędkość maksymalna
+     *
+     * @param firstSpeed     Prędkość wzdłuż pasa w pierwszym ruchu
+     * @param speedIncrement Przyrost prędkości w każdym kolejnym ruchu
+     * @param speedCap       Prędkość maksymalna
+     * @return Liczba ruchów przed osiągnięciem prędkości maksymalnej
+     */
+    private static long acceleratingSteps(int firstSpeed, int speedIncrement, int speedCap) {
+        if (firstSpeed >= speedCap) {
+            return 0;
+        }
+        if (speedIncrement <= 0 || speedCap == Integer.MAX_VALUE) {
+            return Long.MAX_VALUE;
+        }
+        return ((long) speedCap - firstSpeed + speedIncrement - 1) / speedIncrement;
+    }
+
+    /**
+     * Najmniejsza liczba ruchów (co najmniej jeden), po której samochód przejedzie co najmniej zadany dystans.
+     * Liczona z odwrócenia wzoru na travelDistance (równanie kwadratowe lub liniowe)
+     *
+     * @param distance       Dystans do przejechania
+     * @param firstSpeed     Prędkość wzdłuż pasa w pierwszym ruchu
+     * @param speedIncrement Przyrost prędkości w każdym kolejnym ruchu
+     * @param speedCap       Prędkość maksymalna
+     * @return Liczba ruchów, Long.MAX_VALUE jeśli samochód nigdy nie przejedzie zadanego dystansu
+     */
+    private static long stepsToReach(long distance, int firstSpeed, int speedIncrement, int speedCap) {
+        if (travelDistance(1, firstSpeed, speedIncrement, speedCap) >= distance) {
+            return 1;
+        }
+        long accelerating = acceleratingSteps(firstSpeed, speedIncrement, speedCap);
+        long step;
+        if (accelerating == Long.MAX_VALUE || travelDistance(accelerating, firstSpeed, speedIncrement, speedCap) >= distance) {
+            //Dystans osiągany podczas przyspieszania: inc/2 * k^2 + (v1 - inc/2) * k >= distance
+            if (speedIncrement <= 0) {
+                if (firstSpeed <= 0) {
+                    return Long.MAX_VALUE;
+                }
+                return (distance + firstSpeed - 1) / firstSpeed;
+            }
+            double b = firstSpeed - speedIncrement / 2.0;
+            step = (long) Math.ceil((-b + Math.sqrt(b * b + 2.0 * speedIncrement * distance)) / speedIncrement);
+        } else {
+            //Dystans osiągany już przy prędkości maksymalnej
+            if (speedCap <= 0) {
+                return Long.MAX_VALUE;
+            }
+            long remaining = distance - travelDistance(accelerating, firstSpeed, speedIncrement, speedCap);
+            step = accelerating + (remaining + speedCap - 1) / speedCap;
+        }
+        //Korekta błędów zaokrągleń
+        step = Math.max(step, 1);
+        while (step > 1 && travelDistance(step - 1, firstSpeed, speedIncrement, speedCap) >= distance) {
+            step--;
+        }
+        while (travelDistance(step, firstSpeed, speedIncrement, speedCap) < distance) {
+            step++;
+        }
+        return step;
+    }
+
+    /**
+     * Metoda oznaczająca samochody, które zderzyły się na pasie.
+     * Samochody na pasie są uporządkowane, więc jeśli dwa samochody na siebie nachodzą, to nachodzą na siebie również
+     * wszystkie sąsiednie pary pomiędzy nimi - wystarczy więc sprawdzić tylko sąsiadów
+     */
     private void markCollisionCars() {
-        for (Car car1 : containingCars) {
-            for (Car car2 : containingCars) {
-                if (car1 == car2) {
-                    continue;
+        vehicles.sortByLaneProgress();
+        for (int i = 1; i < vehicles.getSize(); i++) {
+            int car1 = vehicles.getSlot(i - 1);
+            int car2 = vehicles.getSlot(i);
+            if (checkFullCollisionBetweenTwoCars(car1, car2)) {
+                if (!vehicles.isInCollision(car1)) {
+                    vehicles.getCar(car1).markCollision();
                 }
-                if (checkFullCollisionBetweenTwoCars(car1, car2)) {
-                    if (!car1.isInCollision()) {
-                        car1.markCollision();
-                    }
-                    if (!car2.isInCollision()) {
-                        car2.markCollision();
-                    }
+                if (!vehicles.isInCollision(car2)) {
+                    vehicles.getCar(car2).markCollision();
                 }
             }
         }
@@ -382,76 +595,115 @@ public abstract class TrafficBelt {
     /**
      * Sprawdzenie kolizji dwóch samochodów używając obu osi X, Y
      *
-     * @param c       Samochód 1
-     * @param tempCar Samochód 2
+     * @param c       Numer miejsca samochodu 1
+     * @param tempCar Numer miejsca samochodu 2
      * @return True jeśli kolizja, false wpp
      */
-    protected boolean checkFullCollisionBetweenTwoCars(Car c, Car tempCar) {
-        boolean yCollision = ((c.getY() >= tempCar.getY() && c.getY() <= tempCar.getY() + BELT_HEIGHT) ||
-            (tempCar.getY() >= c.getY() && tempCar.getY() <= c.getY() + BELT_HEIGHT));
-        boolean xCollision = ((c.getX() >= tempCar.getX() && c.getX() <= tempCar.getX() + BELT_HEIGHT) ||
-            (tempCar.getX() >= c.getX() && tempCar.getX() <= c.getX() + BELT_HEIGHT));
+    protected boolean checkFullCollisionBetweenTwoCars(int c, int tempCar) {
+        int cX = vehicles.getX(c), cY = vehicles.getY(c);
+        int tempX = vehicles.getX(tempCar), tempY = vehicles.getY(tempCar);
+        boolean yCollision = ((cY >= tempY && cY <= tempY + BELT_HEIGHT) || (tempY >= cY && tempY <= cY + BELT_HEIGHT));
+        boolean xCollision = ((cX >= tempX && cX <= tempX + BELT_HEIGHT) || (tempX >= cX && tempX <= cX + BELT_HEIGHT));
         return xCollision && yCollision;
     }
 
     /**
-     * Sprawdzenie, czy samochód ma potencjalne kolizje na tym samym pasie na którym się znajduje
+     * Sprawdzenie, czy samochód ma potencjalne kolizje na tym samym pasie na którym się znajduje.
+     * Sprawdzane są tylko samochody przed nim, aż do najbliższego samochodu, który jest dalej na pasie -
+     * jeśli on nie wymusza hamowania, to żaden dalszy również
      *
-     * @param car Aktualnie analizowany samochód
+     * @param car Numer miejsca aktualnie analizowanego samochodu
+     * @param carIndex Pozycja samochodu w kolejności samochodów na pasie
      * @return True jeśli kolizja, wpp false
      */
-    private boolean hasAnyPossibleCollision(Car car) {
-        for (Car c : containingCars) {
-            if (c == car) {
-                continue;
-            }
-            //Sprawdzenie kolizji dla każdego z pasów
-            if (collisionBetweenTwoCars(car, c)) {
+    private boolean hasAnyPossibleCollision(int car, int carIndex) {
+        int progress = vehicles.getProgress(car);
+        for (int i = carIndex - 1; i >= 0; i--) {
+            int leader = vehicles.getSlot(i);
+            //Sprawdzenie kolizji z poprzedzającym samochodem
+            if (collisionBetweenTwoCars(car, leader)) {
                 return true;
             }
+            if (vehicles.getProgress(leader) > progress) {
+                break;
+            }
         }
         return false;
     }
 
+    /**
+     * Metoda znajdująca wszystkie samochody dla danego pasa, które opuściły już scenę.
+     * Dodatkowo zdejmowane są samochody, które zaliczyły kolizję na pasie.
+     * Wołana jest funkcja clear, która usuwa je z pasa i woła logikę specyficzną dla samochodu.
+     * Następnie zwracana jest lista samochodów do usunięcia ze sceny poprzez kontroler
+     *
+     * @return Lista samochodów do usunięcia ze sceny poprzez kontroler
+     */
+    protected synchronized List<Car> cleanup() {
+        List<Car> carsToRemove = new ArrayList<>();
+        for (int i = 0; i < vehicles.getSize(); i++) {
+            int slot = vehicles.getSlot(i);
+            if (hasLeftTheStage(slot)) {
+                carsToRemove.add(vehicles.getCar(slot));
+                vehicles.getCar(slot).carRemoveLogic();
+            }
+        }
+        for (int i = 0; i < vehicles.getSize(); i++) {
+            int slot = vehicles.getSlot(i);
+            if (vehicles.isInCollision(slot)) {
+                carsToRemove.add(vehicles.getCar(slot));
+                vehicles.getCar(slot).carRemoveLogic();
+            }
+        }
+        clear(carsToRemove);
+        return carsToRemove;
+    }
+
     /**
      * Metoda usuwająca samochody, które opuściły już pas.
-     * Następnie zbiera dane statystyczne, dodaje ilość samochodów dla aktualnej pogody (gdyż w niej opuściły scenę)
-     * oraz aktualizuje ilość samochodów, które opuściły scenę
+     * Najpierw zbiera dane statystyczne (odczytywane ze stanu samochodów w magazynie pasa), dodaje ilość samochodów
+     * dla aktualnej pogody (gdyż w niej opuściły scenę) oraz aktualizuje ilość samochodów, które opuściły scenę.
+     * Na końcu zwalnia miejsca samochodów w magazynie pasa
      *
-     * @param carsToRemove
+     * @param carsToRemove Samochody do usunięcia
      */
     protected synchronized void clear(List<Car> carsToRemove) {
-        synchronized (containingCars) {
-            containingCars.removeAll(carsToRemove);
-            for (TrafficLightsAndCrossing crossingAndLight : crossingAndLights) {
-                crossingAndLight.getContainingCars().removeAll(carsToRemove);
+        for (TrafficLightsAndCrossing crossingAndLight : crossingAndLights) {
+            for (Car car : carsToRemove) {
+                if (crossingAndLight.removeCar(car)) {
+                    statistics.addApproachTravelTime(crossingAndLight.getCrossingIndex(), car.finishCrossingApproach());
+                }
             }
-            synchronized (speedResults) {
-                speedResults.addAll(carsToRemove.stream().map(car ->
-                    new SpeedResult(car.getAverageSpeed(), car.getRadarMeasuredSpeed(), car.getSpeedsForWeather(), car.isInCollision(),
-                        car.getCollisionWeather()))
-                    .collect(Collectors.toList()));
-
-                countWeatherCars(carsToRemove);
-                carsThatLeftTheStage += carsToRemove.size();
+        }
+        synchronized (speedResults) {
+            for (Car car : carsToRemove) {
+                long averageSpeed = car.getAverageSpeed();
+                long radarSpeed = car.getRadarMeasuredSpeed();
+                //Statystyki aktualizujemy zawsze (bez tworzenia obiektów), a wynik samochodu tworzymy i zapamiętujemy
+                //tylko na potrzeby arkuszy z wynikami samochodów
+                statistics.add(averageSpeed, radarSpeed, car.getSpeedsForWeather(), car.isInCollision(), car.getCollisionWeather());
+                if (retainSpeedResults) {
+                    speedResults.add(new SpeedResult(averageSpeed, radarSpeed, car.getSpeedsForWeather(), car.isInCollision(),
+                        car.getCollisionWeather()));
+                }
             }
+
+            countWeatherCars(carsToRemove);
+            carsThatLeftTheStage += carsToRemove.size();
         }
+        //Zwolnienie miejsc samochodów w magazynie pasa (po zebraniu statystyk, które odczytują ich stan)
+        vehicles.remove(carsToRemove);
     }
 
     /**
-     * Metoda, która dodaje do mapy ilość samochodów, które opuściły scenę w aktualnej pogodzie
+     * Metoda, która dodaje ilość samochodów, które opuściły scenę w aktualnej pogodzie
      *
      * @param carsToRemove Lista samochodów, które zostaną usunięte
      */
     private synchronized void countWeatherCars(List<Car> carsToRemove) {
-        //Dla każdego samochodu
+        //Dla każdego samochodu dodajemy 1 dla pogody jaka dla niego panowała
         for (Car car : carsToRemove) {
-            //Jeśli mapa nie ma w kluczach danej pogody, to ją inicjalizujemy z zerem pojazdów
-            if (!carsThatLeftTheStageWithWeather.containsKey(car.getCurrentWeather())) {
-                carsThatLeftTheStageWithWeather.put(car.getCurrentWeather(), 0L);
-            }
-            //Dodajemy 1 dla pojazdu i pogody jaka dla niego panowała
-            carsThatLeftTheStageWithWeather.put(car.getCurrentWeather(), carsThatLeftTheStageWithWeather.get(car.getCurrentWeather()) + 1);
+            carsThatLeftTheStageWithWeather[car.getCurrentWeather().ordinal()]++;
         }
     }
 
@@ -467,21 +719,53 @@ public abstract class TrafficBelt {
     /**
      * Getter dla statystyk prędkościowych i pogodowych każdego z samochodów
      *
-     * @return Statystyki prędkościowe i pogodowe każdego z samochodów
+     * @return Statystyki prędkościowe i pogodowe każdego z samochodów (pusta lista, jeśli nie są przechowywane)
      */
     public synchronized List<SpeedResult> getSpeedResults() {
         return speedResults;
     }
 
+    /**
+     * Getter dla statystyk samochodów, które opuściły pas
+     *
+     * @return Kopia statystyk z chwili wywołania
+     */
+    public synchronized BeltStatistics getStatistics() {
+        return statistics.copy();
+    }
+
+    /**
+     * Setter dla flagi mówiącej o tym, czy wyniki każdego z samochodów mają być przechowywane do końca symulacji
+     *
+     * @param retainSpeedResults True, jeśli wyniki samochodów mają być przechowywane
+     */
+    public synchronized void setRetainSpeedResults(boolean retainSpeedResults) {
+        this.retainSpeedResults = retainSpeedResults;
+    }
+
+    /**
+     * Ustawienie, czy stan samochodów na pasie ma być przechowywany poza stertą (DirectVehicleStore), czy na stercie
+     * (HeapVehicleStore). Można je zmienić tylko, gdy na pasie nie ma samochodów
+     *
+     * @param offHeapVehicles True, jeśli stan samochodów ma być przechowywany poza stertą
+     */
+    public synchronized void setOffHeapVehicles(boolean offHeapVehicles) {
+        if (offHeapVehicles == vehicles instanceof DirectVehicleStore) {
+            return;
+        }
+        if (vehicles.getSize() > 0) {
+            throw new IllegalStateException("Vehicle storage can be changed only on an empty belt");
+        }
+        vehicles = offHeapVehicles ? new DirectVehicleStore(vehicles) : new HeapVehicleStore(vehicles);
+    }
+
     /**
      * Getter dla współczynnika odległości hamowania w zależności od pogody
      *
      * @return Współczynnik odległości hamowania w zależności od pogody
      */
-    public static double getStoppingDistFact() {
-        synchronized (STOPPING_DIST_FACT) {
-            return STOPPING_DIST_FACT;
-        }
+    public double getStoppingDistFact() {
+        return stoppingDistFact;
     }
 
     /**
@@ -489,10 +773,17 @@ public abstract class TrafficBelt {
      *
      * @param stoppingDistFact Współczynnik odległości hamowania w zależności od pogody
      */
-    public static void setStoppingDistFact(double stoppingDistFact) {
-        synchronized (STOPPING_DIST_FACT) {
-            STOPPING_DIST_FACT = stoppingDistFact;
-        }
+    public void setStoppingDistFact(double stoppingDistFact) {
+        this.stoppingDistFact = stoppingDistFact;
+    }
+
+    /**
+     * Ustawienie ziarna generatora wartości losowych pasa, aby przebieg symulacji dało się powtórzyć
+     *
+     * @param seed Ziarno generatora
+     */
+    public synchronized void setRandomSeed(long seed) {
+        random.setSeed(seed);
     }
 
     /**
@@ -521,12 +812,13 @@ public abstract class TrafficBelt {
     }
 
     /**
-     * Getter dla mapy samochodów, które opuściły scenę w zadanych warunkach pogodowych
+     * Getter dla ilości samochodów, które opuściły scenę w zadanych warunkach pogodowych
      *
-     * @return Mapa samochodów, które opuściły scenę w zadanych warunkach pogodowych
+     * @param weather Warunki pogodowe
+     * @return Ilość samochodów, które opuściły scenę w zadanych warunkach pogodowych
      */
-    public Map<WeatherEnum, Long> getCarsThatLeftTheStageWithWeather() {
-        return carsThatLeftTheStageWithWeather;
+    public synchronized long getCarsThatLeftTheStageWithWeather(WeatherEnum weather) {
+        return carsThatLeftTheStageWithWeather[weather.ordinal()];
     }
 
     /**
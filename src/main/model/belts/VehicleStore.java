@@ -0,0 +1,449 @@
+package main.model.belts;
+
+import java.util.Arrays;
+import java.util.List;
+
+import main.model.Car;
+import main.model.SimulationClock;
+import main.model.enums.DirectionEnum;
+
+/**
+ * Created by Krzysztof Baran
+ * Magazyn stanu samochodów jednego pasa. Pozycje, prędkości, przyspieszenia, prędkości maksymalne, flagi
+ * oraz takty pomiaru odcinkowego przechowywane są jako typy proste indeksowane numerem miejsca, dzięki czemu ruch
+ * samochodów i sprawdzanie kolizji przeglądają ciągłe obszary pamięci zamiast obiektów samochodów.
+ * Sposób przechowywania stanu określają klasy dziedziczące (HeapVehicleStore - tablice na stercie,
+ * DirectVehicleStore - rekordy stałej długości w pamięci poza stertą).
+ * Samochód zajmuje to samo miejsce przez cały pobyt na pasie (miejsca zwolnione przy zdejmowaniu samochodów są używane
+ * ponownie), a kolejność samochodów na pasie (od lidera do ostatniego) utrzymywana jest w osobnej tablicy numerów miejsc.
+ * Obiekt Car jest uchwytem do miejsca w magazynie, identyfikującym samochód na skrzyżowaniach i w rendererze
+ */
+public abstract class VehicleStore {
+    /**
+     * Początkowa liczba miejsc (magazyn jest powiększany dwukrotnie po jego zapełnieniu)
+     */
+    protected static final int INITIAL_CAPACITY = 16;
+    /**
+     * Flaga samochodu, który wziął udział w kolizji
+     */
+    private static final byte FLAG_IN_COLLISION = 1;
+    /**
+     * Kierunek pasa oraz kierunek ruchu na osi X, Y i wzdłuż pasa (1 => prawo/dół, -1 => lewo/góra)
+     */
+    private final DirectionEnum direction;
+    private final int xDirection, yDirection, axisDirection;
+    /**
+     * Flaga mówiąca o tym, czy na pasie jest pomiar odcinkowy, oraz jego początek i koniec na osi X
+     */
+    private final boolean hasRadar;
+    private final int radarSpeedStartX, radarSpeedEndX;
+    /**
+     * Zegar symulacji, z którego odczytywane są takty pomiaru odcinkowego
+     */
+    private final SimulationClock simulationClock;
+    /**
+     * Samochody zajmujące kolejne miejsca (null dla wolnego miejsca)
+     */
+    private Car[] cars = new Car[INITIAL_CAPACITY];
+    /**
+     * Stos wolnych miejsc zwolnionych przez zdjęte samochody
+     */
+    private int[] freeSlots = new int[INITIAL_CAPACITY];
+    private int freeSlotsCount;
+    /**
+     * Liczba miejsc, które były kiedykolwiek zajęte (kolejne nowe miejsce)
+     */
+    private int usedSlots;
+    /**
+     * Numery miejsc samochodów w kolejności na pasie, od lidera do ostatniego samochodu
+     */
+    private int[] order = new int[INITIAL_CAPACITY];
+    /**
+     * Liczba samochodów na pasie
+     */
+    private int size;
+
+    /**
+     * Konstruktor pustego magazynu
+     * @param direction Kierunek pasa
+     * @param radarSpeedStartX Współrzędna X rozpoczęcia pomiaru odcinkowego na pasie, jeśli takowy istnieje
+     * @param radarSpeedEndX Współrzędna X zakończenia pomiaru odcinkowego na pasie, jeśli takowy istnieje
+     * @param simulationClock Zegar symulacji
+     */
+    protected VehicleStore(DirectionEnum direction, Integer radarSpeedStartX, Integer radarSpeedEndX, SimulationClock simulationClock) {
+        if (direction == null) {
+            throw new IllegalArgumentException("Direction must be defined");
+        }
+        this.direction = direction;
+        this.xDirection = direction.getXDirection();
+        this.yDirection = direction.getYDirection();
+        this.axisDirection = xDirection + yDirection;
+        this.hasRadar = radarSpeedStartX != null && radarSpeedEndX != null;
+        this.radarSpeedStartX = hasRadar ? radarSpeedStartX : 0;
+        this.radarSpeedEndX = hasRadar ? radarSpeedEndX : 0;
+        this.simulationClock = simulationClock;
+    }
+
+    /**
+     * Konstruktor pustego magazynu dla tego samego pasa co zadany magazyn (kierunek, pomiar odcinkowy i zegar symulacji)
+     * @param template Magazyn, z którego przepisywane są parametry pasa
+     */
+    protected VehicleStore(VehicleStore template) {
+        this.direction = template.direction;
+        this.xDirection = template.xDirection;
+        this.yDirection = template.yDirection;
+        this.axisDirection = template.axisDirection;
+        this.hasRadar = template.hasRadar;
+        this.radarSpeedStartX = template.radarSpeedStartX;
+        this.radarSpeedEndX = template.radarSpeedEndX;
+        this.simulationClock = template.simulationClock;
+    }
+
+    /**
+     * Powiększenie miejsca na stan samochodów
+     * @param capacity Nowa liczba miejsc
+     */
+    protected abstract void growRecords(int capacity);
+
+    /**
+     * Setter dla pozycji samochodu na osi X
+     * @param slot Numer miejsca samochodu
+     * @param x Pozycja na osi X
+     */
+    protected abstract void setX(int slot, int x);
+
+    /**
+     * Setter dla pozycji samochodu na osi Y
+     * @param slot Numer miejsca samochodu
+     * @param y Pozycja na osi Y
+     */
+    protected abstract void setY(int slot, int y);
+
+    /**
+     * Setter dla aktualnej prędkości samochodu
+     * @param slot Numer miejsca samochodu
+     * @param speed Prędkość ze znakiem zgodnym z kierunkiem ruchu na osi
+     */
+    protected abstract void setSpeed(int slot, int speed);
+
+    /**
+     * Setter dla przyspieszenia samochodu
+     * @param slot Numer miejsca samochodu
+     * @param acceleration Przyspieszenie
+     */
+    protected abstract void setAcceleration(int slot, double acceleration);
+
+    /**
+     * Getter dla flag samochodu
+     * @param slot Numer miejsca samochodu
+     * @return Flagi samochodu (patrz FLAG_IN_COLLISION)
+     */
+    protected abstract byte getFlags(int slot);
+
+    /**
+     * Setter dla flag samochodu
+     * @param slot Numer miejsca samochodu
+     * @param flags Flagi samochodu
+     */
+    protected abstract void setFlags(int slot, byte flags);
+
+    /**
+     * Setter dla taktu rozpoczęcia pomiaru odcinkowego
+     * @param slot Numer miejsca samochodu
+     * @param tick Takt rozpoczęcia pomiaru lub SimulationClock.NOT_SET
+     */
+    protected abstract void setRadarStartTick(int slot, long tick);
+
+    /**
+     * Setter dla taktu zakończenia pomiaru odcinkowego
+     * @param slot Numer miejsca samochodu
+     * @param tick Takt zakończenia pomiaru lub SimulationClock.NOT_SET
+     */
+    protected abstract void setRadarEndTick(int slot, long tick);
+
+    /**
+     * Getter dla pozycji samochodu na osi X
+     * @param slot Numer miejsca samochodu
+     * @return Pozycja na osi X
+     */
+    public abstract int getX(int slot);
+
+    /**
+     * Getter dla pozycji samochodu na osi Y
+     * @param slot Numer miejsca samochodu
+     * @return Pozycja na osi Y
+     */
+    public abstract int getY(int slot);
+
+    /**
+     * Getter dla aktualnej prędkości samochodu
+     * @param slot Numer miejsca samochodu
+     * @return Prędkość ze znakiem zgodnym z kierunkiem ruchu na osi
+     */
+    public abstract int getSpeed(int slot);
+
+    /**
+     * Getter dla prędkości maksymalnej samochodu
+     * @param slot Numer miejsca samochodu
+     * @return Prędkość maksymalna
+     */
+    public abstract int getMaxSpeed(int slot);
+
+    /**
+     * Setter dla prędkości maksymalnej samochodu
+     * @param slot Numer miejsca samochodu
+     * @param maxSpeed Nowa prędkość maksymalna
+     */
+    public abstract void setMaxSpeed(int slot, int maxSpeed);
+
+    /**
+     * Getter dla przyspieszenia samochodu
+     * @param slot Numer miejsca samochodu
+     * @return Przyspieszenie
+     */
+    public abstract double getAcceleration(int slot);
+
+    /**
+     * Getter dla taktu rozpoczęcia pomiaru odcinkowego
+     * @param slot Numer miejsca samochodu
+     * @return Takt rozpoczęcia pomiaru lub SimulationClock.NOT_SET
+     */
+    public abstract long getRadarStartTick(int slot);
+
+    /**
+     * Getter dla taktu zakończenia pomiaru odcinkowego
+     * @param slot Numer miejsca samochodu
+     * @return Takt zakończenia pomiaru lub SimulationClock.NOT_SET
+     */
+    public abstract long getRadarEndTick(int slot);
+
+    /**
+     * Dodanie samochodu na koniec pasa. Samochód dostaje wolne miejsce po zdjętym samochodzie lub kolejne nowe miejsce
+     * @param car Dodawany samochód
+     * @param x Pozycja początkowa na osi X
+     * @param y Pozycja początkowa na osi Y
+     * @param speed Prędkość początkowa
+     * @param maxSpeed Prędkość maksymalna
+     * @param acceleration Przyspieszenie
+     * @return Numer miejsca samochodu
+     */
+    public int add(Car car, int x, int y, int speed, int maxSpeed, double acceleration) {
+        int slot;
+        if (freeSlotsCount > 0) {
+            slot = freeSlots[--freeSlotsCount];
+        } else {
+            if (usedSlots == cars.length) {
+                grow(cars.length * 2);
+            }
+            slot = usedSlots++;
+        }
+        //Miejsce po zdjętym samochodzie jest w całości nadpisywane
+        cars[slot] = car;
+        setX(slot, x);
+        setY(slot, y);
+        setSpeed(slot, speed);
+        setMaxSpeed(slot, maxSpeed);
+        setAcceleration(slot, acceleration);
+        setFlags(slot, (byte) 0);
+        setRadarStartTick(slot, SimulationClock.NOT_SET);
+        setRadarEndTick(slot, SimulationClock.NOT_SET);
+        order[size++] = slot;
+        return slot;
+    }
+
+    /**
+     * Zdjęcie samochodów z pasa i zwolnienie ich miejsc (samochód występujący kilka razy zdejmowany jest raz).
+     * Kolejność pozostałych samochodów na pasie nie ulega zmianie
+     * @param carsToRemove Zdejmowane samochody
+     */
+    public void remove(List<Car> carsToRemove) {
+        if (carsToRemove.isEmpty()) {
+            return;
+        }
+        for (int i = 0; i < carsToRemove.size(); i++) {
+            Car car = carsToRemove.get(i);
+            int slot = car.getSlot();
+            if (cars[slot] == car) {
+                cars[slot] = null;
+                freeSlots[freeSlotsCount++] = slot;
+            }
+        }
+        //Usunięcie zwolnionych miejsc z kolejności na pasie
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (cars[order[i]] != null) {
+                order[kept++] = order[i];
+            }
+        }
+        size = kept;
+    }
+
+    /**
+     * Ruch samochodu w danej iteracji symulacji: przyspieszenie (lub utrzymanie prędkości maksymalnej) gdy samochód jedzie,
+     * a hamowanie z przyspieszeniem 5 razy większym gdy się zatrzymuje. Przeliczana jest prędkość, pozycja
+     * oraz takty pomiaru odcinkowego
+     * @param slot Numer miejsca samochodu
+     * @param go True, jeśli samochód jedzie, false jeśli hamuje
+     */
+    public void move(int slot, boolean go) {
+        double accelerationValue = go ? getAcceleration(slot) : -getAcceleration(slot) * 5;
+        //Obliczenie prędkości po osi X i Y
+        int speed = getSpeed(slot), maxSpeed = getMaxSpeed(slot);
+        int xSpeed = Car.calculateSpeed(xDirection, accelerationValue, speed, maxSpeed);
+        int ySpeed = Car.calculateSpeed(yDirection, accelerationValue, speed, maxSpeed);
+        //Ustawienie prędkości i zmiana pozycji samochodu
+        setSpeed(slot, xSpeed != 0 ? xSpeed : ySpeed);
+        setX(slot, getX(slot) + xSpeed);
+        setY(slot, getY(slot) + ySpeed);
+        //Ustawienie wartości pomiaru odcinkowego, jeśli się rozpoczął lub skończył
+        checkAndMarkRadars(slot);
+    }
+
+    /**
+     * Ustawienie taktów pomiaru odcinkowego, jeśli samochód przekroczył jego początek lub koniec
+     * @param slot Numer miejsca samochodu
+     */
+    private void checkAndMarkRadars(int slot) {
+        if (xDirection == 0 || !hasRadar || getRadarEndTick(slot) != SimulationClock.NOT_SET) {
+            return;
+        }
+        //Pozycja wzdłuż osi X rosnąca w kierunku jazdy, aby oba kierunki sprawdzać tym samym warunkiem
+        int x = xDirection * getX(slot);
+        if (x > xDirection * radarSpeedStartX && getRadarStartTick(slot) == SimulationClock.NOT_SET) {
+            setRadarStartTick(slot, simulationClock.getTick());
+        }
+        if (x > xDirection * radarSpeedEndX) {
+            setRadarEndTick(slot, simulationClock.getTick());
+        }
+    }
+
+    /**
+     * Sortowanie samochodów na pasie od lidera do ostatniego samochodu (sortowanie przez wstawianie).
+     * Samochody nie wyprzedzają się, więc kolejność jest prawie zawsze zachowana i sortowanie ma koszt liniowy.
+     * Zmienia się wyłącznie tablica kolejności - samochody nie zmieniają miejsc
+     */
+    public void sortByLaneProgress() {
+        for (int i = 1; i < size; i++) {
+            int slot = order[i];
+            int progress = getProgress(slot);
+            int j = i - 1;
+            while (j >= 0 && getProgress(order[j]) < progress) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = slot;
+        }
+    }
+
+    /**
+     * Powiększenie magazynu (uchwytów samochodów, kolejności, wolnych miejsc oraz stanu samochodów)
+     * @param capacity Nowa liczba miejsc
+     */
+    private void grow(int capacity) {
+        cars = Arrays.copyOf(cars, capacity);
+        freeSlots = Arrays.copyOf(freeSlots, capacity);
+        order = Arrays.copyOf(order, capacity);
+        growRecords(capacity);
+    }
+
+    /**
+     * Getter dla liczby samochodów na pasie
+     * @return Liczba samochodów
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Getter dla numeru miejsca samochodu na zadanej pozycji w kolejności na pasie
+     * @param index Pozycja w kolejności na pasie (0 => lider)
+     * @return Numer miejsca samochodu
+     */
+    public int getSlot(int index) {
+        return order[index];
+    }
+
+    /**
+     * Getter dla samochodu zajmującego miejsce
+     * @param slot Numer miejsca
+     * @return Samochód
+     */
+    public Car getCar(int slot) {
+        return cars[slot];
+    }
+
+    /**
+     * Współrzędna samochodu wzdłuż pasa (X dla pasów poziomych, Y dla pionowych)
+     * @param slot Numer miejsca samochodu
+     * @return Współrzędna wzdłuż pasa
+     */
+    public int getCoordinate(int slot) {
+        return xDirection == 0 ? getY(slot) : getX(slot);
+    }
+
+    /**
+     * Postęp samochodu wzdłuż pasa (rosnący w kierunku jazdy)
+     * @param slot Numer miejsca samochodu
+     * @return Postęp samochodu wzdłuż pasa
+     */
+    public int getProgress(int slot) {
+        return axisDirection * getCoordinate(slot);
+    }
+
+    /**
+     * Sprawdzenie, czy samochód wziął udział w kolizji
+     * @param slot Numer miejsca samochodu
+     * @return True, jeśli samochód jest po kolizji
+     */
+    public boolean isInCollision(int slot) {
+        return (getFlags(slot) & FLAG_IN_COLLISION) != 0;
+    }
+
+    /**
+     * Oznaczenie samochodu jako biorącego udział w kolizji
+     * @param slot Numer miejsca samochodu
+     */
+    public void markCollision(int slot) {
+        setFlags(slot, (byte) (getFlags(slot) | FLAG_IN_COLLISION));
+    }
+
+    /**
+     * Sprawdzenie, czy na pasie jest pomiar odcinkowy
+     * @return True, jeśli pomiar istnieje
+     */
+    public boolean hasRadar() {
+        return hasRadar;
+    }
+
+    /**
+     * Getter dla początku pomiaru odcinkowego na osi X
+     * @return Współrzędna X rozpoczęcia pomiaru (0, jeśli pomiaru nie ma)
+     */
+    public int getRadarSpeedStartX() {
+        return radarSpeedStartX;
+    }
+
+    /**
+     * Getter dla końca pomiaru odcinkowego na osi X
+     * @return Współrzędna X zakończenia pomiaru (0, jeśli pomiaru nie ma)
+     */
+    public int getRadarSpeedEndX() {
+        return radarSpeedEndX;
+    }
+
+    /**
+     * Getter dla kierunku pasa
+     * @return Kierunek pasa
+     */
+    public DirectionEnum getDirection() {
+        return direction;
+    }
+
+    /**
+     * Getter dla zegara symulacji
+     * @return Zegar symulacji
+     */
+    public SimulationClock getSimulationClock() {
+        return simulationClock;
+    }
+}
@@ -5,5 +5,40 @@ package main.model.enums;
  * Enumarator kierunku poruszania się pojazdu. Lewo, Prawo, Góra, Dół
  */
 public enum DirectionEnum {
-    LEFT, RIGHT, UP, DOWN;
+    LEFT(-1, 0), RIGHT(1, 0), UP(0, -1), DOWN(0, 1);
+
+    /**
+     * Kierunek poruszania się po osi X (1 => prawo, -1 => lewo, 0 => brak ruchu w tej osi)
+     */
+    private final int xDirection;
+    /**
+     * Kierunek poruszania się po osi Y (1 => dół, -1 => góra, 0 => brak ruchu w tej osi)
+     */
+    private final int yDirection;
+
+    /**
+     * Konstruktor kierunku
+     * @param xDirection Kierunek poruszania się po osi X
+     * @param yDirection Kierunek poruszania się po osi Y
+     */
+    DirectionEnum(int xDirection, int yDirection) {
+        this.xDirection = xDirection;
+        this.yDirection = yDirection;
+    }
+
+    /**
+     * Getter dla kierunku poruszania się po osi X
+     * @return 1 => prawo, -1 => lewo, 0 => brak ruchu w tej osi
+     */
+    public int getXDirection() {
+        return xDirection;
+    }
+
+    /**
+     * Getter dla kierunku poruszania się po osi Y
+     * @return 1 => dół, -1 => góra, 0 => brak ruchu w tej osi
+     */
+    public int getYDirection() {
+        return yDirection;
+    }
 }
@@ -0,0 +1,41 @@
+package main.model.enums;
+
+/**
+ * Created by Krzysztof Baran
+ * Enumerator kolorów świateł na skrzyżowaniu, trzymający nazwy plików z ich obrazami
+ */
+public enum LightColorEnum {
+    /**
+     * Światło czerwone
+     */
+    RED("red.png"),
+    /**
+     * Światło żółte (przejściowe)
+     */
+    YELLOW("yellow.png"),
+    /**
+     * Światło zielone
+     */
+    GREEN("green.png");
+
+    /**
+     * Nazwa pliku zawierającego obraz światła
+     */
+    final String resourceName;
+
+    /**
+     * Konstruktor inicjujący parametry enumeratora
+     * @param resourceName Nazwa pliku zawierającego obraz światła
+     */
+    LightColorEnum(String resourceName) {
+        this.resourceName = resourceName;
+    }
+
+    /**
+     * Getter dla nazwy pliku zawierającego obraz światła
+     * @return Nazwa pliku zawierającego obraz światła
+     */
+    public String getResourceName() {
+        return resourceName;
+    }
+}
@@ -0,0 +1,16 @@
+package main.model.enums;
+
+/**
+ * Created by Krzysztof Baran
+ * Enumerator dla sposobów prezentacji symulacji na ekranie.
+ */
+public enum RendererType {
+    /**
+     * Każdy samochód, skrzyżowanie i radar jest osobnym węzłem grafu sceny JavaFX
+     */
+    SCENE_GRAPH,
+    /**
+     * Cała scena rysowana jest w każdej klatce na jednym obiekcie Canvas (wydajniejsze przy dużej liczbie samochodów)
+     */
+    CANVAS;
+}
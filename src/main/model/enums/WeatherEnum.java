@@ -59,10 +59,6 @@ public enum  WeatherEnum {
      * Nazwa Polska
      */
     final String plName;
-    /**
-     * Generator wartości losowych, używany do losowania dynamicznego pogody
-     */
-    private static final Random random = new Random();
 
     /**
      * Konstruktor inicjujący wszystkie parametry ernumeratora
@@ -92,9 +88,10 @@ public enum  WeatherEnum {
 
     /**
      * Metoda pozwalająca na wylosowanie losowych warunków atmosferycznych
+     * @param random Generator wartości losowych symulacji
      * @return Wylosowane warunki pogodowe
      */
-    public static WeatherEnum getRandom() {
+    public static WeatherEnum getRandom(Random random) {
         return getFromOrderNo(random.nextInt(5));
     }
 
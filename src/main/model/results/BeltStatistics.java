@@ -0,0 +1,307 @@
+package main.model.results;
+
+import main.model.enums.WeatherEnum;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Created by Krzysztof Baran
+ * Statystyki samochodów, które opuściły pas, aktualizowane na bieżąco w stałym czasie przy usuwaniu każdego samochodu:
+ * liczby, sumy, minima i maksima prędkości, rozkłady prędkości (również w każdej z pogód), liczniki wypadków
+ * oraz szkice percentyli prędkości i czasów dojazdu do kolejnych skrzyżowań.
+ * Zajmują stałą ilość pamięci niezależnie od długości symulacji, więc nie wymagają przechowywania wyników
+ * wszystkich samochodów. Statystyki z różnych pasów lub uruchomień symulacji można łączyć metodą merge
+ */
+public class BeltStatistics {
+    /**
+     * Liczba samochodów, które opuściły pas
+     */
+    private long carsCount;
+    /**
+     * Suma, minimum i maksimum średnich prędkości samochodów
+     */
+    private long averageSpeedSum;
+    private long minAverageSpeed = Long.MAX_VALUE, maxAverageSpeed = Long.MIN_VALUE;
+    /**
+     * Liczba samochodów z poprawnym pomiarem odcinkowym oraz suma, minimum i maksimum zmierzonych prędkości
+     */
+    private long radarMeasuredCount;
+    private long radarSpeedSum;
+    private long minRadarSpeed = Long.MAX_VALUE, maxRadarSpeed = Long.MIN_VALUE;
+    /**
+     * Liczba samochodów, które przekroczyły dozwoloną prędkość na pomiarze odcinkowym
+     */
+    private long overSpeedCount;
+    /**
+     * Liczba samochodów, które miały wypadek
+     */
+    private long collidedCarsCount;
+    /**
+     * Liczba samochodów, które miały wypadek w każdej z pogód (indeks to ordinal pogody)
+     */
+    private final long[] weatherCollisions = new long[WeatherEnum.values().length];
+    /**
+     * Rozkłady prędkości samochodów
+     */
+    private final SpeedHistograms histograms = new SpeedHistograms();
+    /**
+     * Szkice percentyli średnich prędkości i prędkości z pomiaru odcinkowego
+     */
+    private final QuantileSketch averageSpeedQuantiles = new QuantileSketch();
+    private final QuantileSketch radarSpeedQuantiles = new QuantileSketch();
+    /**
+     * Szkice percentyli prędkości samochodów w każdej z pogód (indeks to ordinal pogody)
+     */
+    private final QuantileSketch[] weatherSpeedQuantiles = new QuantileSketch[WeatherEnum.values().length];
+    /**
+     * Szkice percentyli czasów dojazdu (w milisekundach symulacji) do każdego ze skrzyżowań na pasie (kluczem jest numer skrzyżowania).
+     * Czas dojazdu liczony jest od wjazdu na scenę lub zjazdu z poprzedniego skrzyżowania do zjazdu z zadanego skrzyżowania
+     */
+    private final Map<Integer, QuantileSketch> approachTravelTimes = new TreeMap<>();
+
+    /**
+     * Konstruktor pustych statystyk
+     */
+    public BeltStatistics() {
+        for (int i = 0; i < weatherSpeedQuantiles.length; i++) {
+            weatherSpeedQuantiles[i] = new QuantileSketch();
+        }
+    }
+
+    /**
+     * Dodanie wyników samochodu, który opuścił pas
+     * @param result Wyniki pomiarów prędkości samochodu
+     */
+    public void add(SpeedResult result) {
+        add(result.getAverageSpeed(), result.getRadarSpeed(), result.getWeatherSpeeds(), result.isHadCollision(),
+            result.getCollisionWeather());
+    }
+
+    /**
+     * Dodanie wyników samochodu, który opuścił pas, bez tworzenia obiektu z jego wynikami
+     * @param averageSpeed Średnia prędkość samochodu
+     * @param radarSpeed Prędkość z pomiaru odcinkowego lub SpeedResult.RADAR_NOT_MEASURED
+     * @param weatherSpeeds Średnie prędkości samochodu w kolejnych warunkach pogodowych
+     * @param hadCollision Flaga mówiąca o tym, czy samochód miał wypadek
+     * @param collisionWeather Pogoda w trakcie trwania której miał miejsce wypadek
+     */
+    public void add(long averageSpeed, long radarSpeed, WeatherSpeeds weatherSpeeds, boolean hadCollision,
+                    WeatherEnum collisionWeather) {
+        carsCount++;
+        averageSpeedSum += averageSpeed;
+        averageSpeedQuantiles.add(averageSpeed);
+        minAverageSpeed = Math.min(minAverageSpeed, averageSpeed);
+        maxAverageSpeed = Math.max(maxAverageSpeed, averageSpeed);
+        boolean radarSpeedValid = SpeedResult.isRadarSpeedValid(radarSpeed);
+        if (radarSpeedValid) {
+            radarMeasuredCount++;
+            radarSpeedSum += radarSpeed;
+            radarSpeedQuantiles.add(radarSpeed);
+            minRadarSpeed = Math.min(minRadarSpeed, radarSpeed);
+            maxRadarSpeed = Math.max(maxRadarSpeed, radarSpeed);
+            if (radarSpeed > SpeedHistograms.SPEED_LIMIT && radarSpeed < SpeedHistograms.MAX_RADAR_SPEED) {
+                overSpeedCount++;
+            }
+        }
+        if (hadCollision) {
+            collidedCarsCount++;
+            if (collisionWeather != null) {
+                weatherCollisions[collisionWeather.ordinal()]++;
+            }
+        }
+        histograms.add(averageSpeed, radarSpeedValid ? radarSpeed : SpeedResult.RADAR_NOT_MEASURED, weatherSpeeds);
+        for (int segment = 0; segment < weatherSpeeds.getSegmentsCount(); segment++) {
+            weatherSpeedQuantiles[weatherSpeeds.getWeather(segment).ordinal()].add(weatherSpeeds.getSpeed(segment));
+        }
+    }
+
+    /**
+     * Dodanie czasu dojazdu samochodu do skrzyżowania (od wjazdu na scenę lub zjazdu z poprzedniego skrzyżowania)
+     * @param crossingIndex Numer skrzyżowania
+     * @param travelTimeMillis Czas dojazdu w milisekundach symulacji
+     */
+    public void addApproachTravelTime(int crossingIndex, long travelTimeMillis) {
+        approachTravelTimes.computeIfAbsent(crossingIndex, index -> new QuantileSketch()).add(travelTimeMillis);
+    }
+
+    /**
+     * Dodanie statystyk z innego pasa lub uruchomienia symulacji
+     * @param other Dodawane statystyki
+     */
+    public void merge(BeltStatistics other) {
+        carsCount += other.carsCount;
+        averageSpeedSum += other.averageSpeedSum;
+        minAverageSpeed = Math.min(minAverageSpeed, other.minAverageSpeed);
+        maxAverageSpeed = Math.max(maxAverageSpeed, other.maxAverageSpeed);
+        radarMeasuredCount += other.radarMeasuredCount;
+        radarSpeedSum += other.radarSpeedSum;
+        minRadarSpeed = Math.min(minRadarSpeed, other.minRadarSpeed);
+        maxRadarSpeed = Math.max(maxRadarSpeed, other.maxRadarSpeed);
+        overSpeedCount += other.overSpeedCount;
+        collidedCarsCount += other.collidedCarsCount;
+        for (int i = 0; i < weatherCollisions.length; i++) {
+            weatherCollisions[i] += other.weatherCollisions[i];
+        }
+        histograms.merge(other.histograms);
+        averageSpeedQuantiles.merge(other.averageSpeedQuantiles);
+        radarSpeedQuantiles.merge(other.radarSpeedQuantiles);
+        for (int i = 0; i < weatherSpeedQuantiles.length; i++) {
+            weatherSpeedQuantiles[i].merge(other.weatherSpeedQuantiles[i]);
+        }
+        for (Map.Entry<Integer, QuantileSketch> approach : other.approachTravelTimes.entrySet()) {
+            approachTravelTimes.computeIfAbsent(approach.getKey(), index -> new QuantileSketch()).merge(approach.getValue());
+        }
+    }
+
+    /**
+     * Utworzenie niezależnej kopii statystyk
+     * @return Kopia statystyk
+     */
+    public BeltStatistics copy() {
+        BeltStatistics res = new BeltStatistics();
+        res.merge(this);
+        return res;
+    }
+
+    /**
+     * Getter dla liczby samochodów, które opuściły pas
+     * @return Liczba samochodów
+     */
+    public long getCarsCount() {
+        return carsCount;
+    }
+
+    /**
+     * Średnia ze średnich prędkości samochodów
+     * @return Średnia prędkość lub 0, jeśli żaden samochód nie opuścił pasa
+     */
+    public double getMeanAverageSpeed() {
+        return carsCount == 0 ? 0 : (double) averageSpeedSum / carsCount;
+    }
+
+    /**
+     * Getter dla najniższej średniej prędkości samochodu
+     * @return Najniższa średnia prędkość lub 0, jeśli żaden samochód nie opuścił pasa
+     */
+    public long getMinAverageSpeed() {
+        return carsCount == 0 ? 0 : minAverageSpeed;
+    }
+
+    /**
+     * Getter dla najwyższej średniej prędkości samochodu
+     * @return Najwyższa średnia prędkość lub 0, jeśli żaden samochód nie opuścił pasa
+     */
+    public long getMaxAverageSpeed() {
+        return carsCount == 0 ? 0 : maxAverageSpeed;
+    }
+
+    /**
+     * Getter dla liczby samochodów z poprawnym pomiarem odcinkowym
+     * @return Liczba samochodów z pomiarem odcinkowym
+     */
+    public long getRadarMeasuredCount() {
+        return radarMeasuredCount;
+    }
+
+    /**
+     * Średnia prędkość zmierzona na pomiarze odcinkowym
+     * @return Średnia prędkość lub 0, jeśli nie było poprawnych pomiarów
+     */
+    public double getMeanRadarSpeed() {
+        return radarMeasuredCount == 0 ? 0 : (double) radarSpeedSum / radarMeasuredCount;
+    }
+
+    /**
+     * Getter dla najniższej prędkości zmierzonej na pomiarze odcinkowym
+     * @return Najniższa prędkość lub 0, jeśli nie było poprawnych pomiarów
+     */
+    public long getMinRadarSpeed() {
+        return radarMeasuredCount == 0 ? 0 : minRadarSpeed;
+    }
+
+    /**
+     * Getter dla najwyższej prędkości zmierzonej na pomiarze odcinkowym
+     * @return Najwyższa prędkość lub 0, jeśli nie było poprawnych pomiarów
+     */
+    public long getMaxRadarSpeed() {
+        return radarMeasuredCount == 0 ? 0 : maxRadarSpeed;
+    }
+
+    /**
+     * Getter dla liczby przekroczeń dozwolonej prędkości na pomiarze odcinkowym
+     * @return Liczba przekroczeń prędkości
+     */
+    public long getOverSpeedCount() {
+        return overSpeedCount;
+    }
+
+    /**
+     * Getter dla liczby samochodów, które miały wypadek
+     * @return Liczba samochodów, które miały wypadek
+     */
+    public long getCollidedCarsCount() {
+        return collidedCarsCount;
+    }
+
+    /**
+     * Getter dla liczby samochodów, które miały wypadek w zadanej pogodzie
+     * @param weather Warunki pogodowe
+     * @return Liczba samochodów, które miały wypadek w zadanej pogodzie
+     */
+    public long getCollisionsCount(WeatherEnum weather) {
+        return weatherCollisions[weather.ordinal()];
+    }
+
+    /**
+     * Getter dla rozkładów prędkości samochodów
+     * @return Rozkłady prędkości samochodów
+     */
+    public SpeedHistograms getHistograms() {
+        return histograms;
+    }
+
+    /**
+     * Getter dla szkicu percentyli średnich prędkości samochodów
+     * @return Szkic percentyli średnich prędkości
+     */
+    public QuantileSketch getAverageSpeedQuantiles() {
+        return averageSpeedQuantiles;
+    }
+
+    /**
+     * Getter dla szkicu percentyli prędkości z pomiaru odcinkowego
+     * @return Szkic percentyli prędkości z pomiaru odcinkowego
+     */
+    public QuantileSketch getRadarSpeedQuantiles() {
+        return radarSpeedQuantiles;
+    }
+
+    /**
+     * Getter dla szkicu percentyli prędkości samochodów w zadanej pogodzie
+     * @param weather Warunki pogodowe
+     * @return Szkic percentyli prędkości w zadanej pogodzie
+     */
+    public QuantileSketch getWeatherSpeedQuantiles(WeatherEnum weather) {
+        return weatherSpeedQuantiles[weather.ordinal()];
+    }
+
+    /**
+     * Getter dla numerów skrzyżowań, do których zarejestrowano czasy dojazdu
+     * @return Numery skrzyżowań w kolejności rosnącej
+     */
+    public Set<Integer> getApproachCrossings() {
+        return approachTravelTimes.keySet();
+    }
+
+    /**
+     * Getter dla szkicu percentyli czasów dojazdu do skrzyżowania
+     * @param crossingIndex Numer skrzyżowania
+     * @return Szkic percentyli czasów dojazdu (pusty, jeśli żaden samochód nie zjechał z tego skrzyżowania)
+     */
+    public QuantileSketch getApproachTravelTimes(int crossingIndex) {
+        QuantileSketch res = approachTravelTimes.get(crossingIndex);
+        return res == null ? new QuantileSketch() : res;
+    }
+}
@@ -0,0 +1,216 @@
+package main.model.results;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Created by Krzysztof Baran
+ * Raport z wielokrotnego uruchomienia tej samej konfiguracji symulacji z różnymi ziarnami.
+ * Zawiera wyniki poszczególnych uruchomień (w kolejności uruchomień, niezależnie od kolejności ich zakończenia),
+ * połączone statystyki samochodów dla każdego z pasów oraz rozkłady podstawowych miar
+ */
+public class MonteCarloReport {
+    /**
+     * Wyniki kolejnych uruchomień symulacji
+     */
+    private final List<SimulationRunResult> runs;
+    /**
+     * Opisy pasów drogowych (wspólne dla wszystkich uruchomień tej samej konfiguracji)
+     */
+    private final List<String> beltLabels;
+    /**
+     * Połączone statystyki samochodów ze wszystkich uruchomień dla każdego z pasów
+     */
+    private final List<BeltStatistics> mergedStatistics;
+    /**
+     * Suma samochodów, które opuściły scenę na każdym z pasów we wszystkich uruchomieniach
+     */
+    private final long[] mergedCarsLeft;
+    /**
+     * Suma zderzeń na każdym ze skrzyżowań we wszystkich uruchomieniach
+     */
+    private final long[] mergedCrossingCollisions;
+
+    /**
+     * Konstruktor łączący wyniki uruchomień symulacji tej samej konfiguracji
+     * @param runs Wyniki kolejnych uruchomień symulacji (co najmniej jedno)
+     */
+    public MonteCarloReport(List<SimulationRunResult> runs) {
+        if (runs.isEmpty()) {
+            throw new IllegalArgumentException("Report needs at least one simulation run");
+        }
+        this.runs = Collections.unmodifiableList(new ArrayList<>(runs));
+        this.beltLabels = runs.get(0).getBeltLabels();
+        this.mergedStatistics = new ArrayList<>(beltLabels.size());
+        this.mergedCarsLeft = new long[beltLabels.size()];
+        this.mergedCrossingCollisions = new long[runs.get(0).getCrossingsCount()];
+        for (int i = 0; i < beltLabels.size(); i++) {
+            mergedStatistics.add(new BeltStatistics());
+        }
+        //Wyniki łączymy w kolejności uruchomień, więc raport nie zależy od kolejności zakończenia symulacji
+        for (SimulationRunResult run : runs) {
+            for (int i = 0; i < beltLabels.size(); i++) {
+                mergedStatistics.get(i).merge(run.getStatistics(i));
+                mergedCarsLeft[i] += run.getCarsLeft(i);
+            }
+            for (int i = 0; i < mergedCrossingCollisions.length; i++) {
+                mergedCrossingCollisions[i] += run.getCrossingCollisions(i);
+            }
+        }
+    }
+
+    /**
+     * Getter dla wyników kolejnych uruchomień symulacji
+     * @return Wyniki kolejnych uruchomień symulacji
+     */
+    public List<SimulationRunResult> getRuns() {
+        return runs;
+    }
+
+    /**
+     * Getter dla liczby uruchomień symulacji
+     * @return Liczba uruchomień symulacji
+     */
+    public int getRunsCount() {
+        return runs.size();
+    }
+
+    /**
+     * Getter dla opisów pasów drogowych
+     * @return Opisy pasów drogowych (kierunek i numer pasa)
+     */
+    public List<String> getBeltLabels() {
+        return beltLabels;
+    }
+
+    /**
+     * Getter dla połączonych statystyk samochodów na pasie
+     * @param beltIndex Indeks pasa
+     * @return Statystyki samochodów ze wszystkich uruchomień
+     */
+    public BeltStatistics getMergedStatistics(int beltIndex) {
+        return mergedStatistics.get(beltIndex);
+    }
+
+    /**
+     * Getter dla sumy samochodów, które opuściły scenę na pasie
+     * @param beltIndex Indeks pasa
+     * @return Suma samochodów ze wszystkich uruchomień
+     */
+    public long getMergedCarsLeft(int beltIndex) {
+        return mergedCarsLeft[beltIndex];
+    }
+
+    /**
+     * Getter dla liczby skrzyżowań
+     * @return Liczba skrzyżowań
+     */
+    public int getCrossingsCount() {
+        return mergedCrossingCollisions.length;
+    }
+
+    /**
+     * Getter dla sumy zderzeń na skrzyżowaniu
+     * @param crossingIndex Indeks skrzyżowania
+     * @return Suma zderzeń ze wszystkich uruchomień
+     */
+    public long getMergedCrossingCollisions(int crossingIndex) {
+        return mergedCrossingCollisions[crossingIndex];
+    }
+
+    /**
+     * Rozkład liczby samochodów, które opuściły scenę
+     * @return Liczba samochodów w kolejnych uruchomieniach
+     */
+    public double[] getCarsLeftPerRun() {
+        double[] res = new double[runs.size()];
+        for (int i = 0; i < runs.size(); i++) {
+            res[i] = runs.get(i).getAllCarsLeft();
+        }
+        return res;
+    }
+
+    /**
+     * Rozkład średniej prędkości samochodów
+     * @return Średnia prędkość samochodów w kolejnych uruchomieniach
+     */
+    public double[] getMeanAverageSpeedPerRun() {
+        double[] res = new double[runs.size()];
+        for (int i = 0; i < runs.size(); i++) {
+            res[i] = runs.get(i).getMeanAverageSpeed();
+        }
+        return res;
+    }
+
+    /**
+     * Rozkład liczby samochodów, które miały wypadek
+     * @return Liczba samochodów z wypadkiem w kolejnych uruchomieniach
+     */
+    public double[] getCollidedCarsPerRun() {
+        double[] res = new double[runs.size()];
+        for (int i = 0; i < runs.size(); i++) {
+            res[i] = runs.get(i).getCollidedCarsCount();
+        }
+        return res;
+    }
+
+    /**
+     * Rozkład liczby zderzeń na skrzyżowaniach
+     * @return Liczba zderzeń na skrzyżowaniach w kolejnych uruchomieniach
+     */
+    public double[] getCrossingCollisionsPerRun() {
+        double[] res = new double[runs.size()];
+        for (int i = 0; i < runs.size(); i++) {
+            res[i] = runs.get(i).getAllCrossingCollisions();
+        }
+        return res;
+    }
+
+    /**
+     * Średnia arytmetyczna wartości
+     * @param values Wartości
+     * @return Średnia arytmetyczna
+     */
+    public static double mean(double[] values) {
+        double sum = 0;
+        for (double value : values) {
+            sum += value;
+        }
+        return values.length == 0 ? 0 : sum / values.length;
+    }
+
+    /**
+     * Odchylenie standardowe z próby (0 dla mniej niż dwóch wartości)
+     * @param values Wartości
+     * @return Odchylenie standardowe
+     */
+    public static double standardDeviation(double[] values) {
+        if (values.length < 2) {
+            return 0;
+        }
+        double mean = mean(values);
+        double sum = 0;
+        for (double value : values) {
+            sum += (value - mean) * (value - mean);
+        }
+        return Math.sqrt(sum / (values.length - 1));
+    }
+
+    /**
+     * Percentyl wartości liczony metodą najbliższej rangi
+     * @param values Wartości
+     * @param percent Percentyl z przedziału 0-100 (0 => minimum, 100 => maksimum)
+     * @return Wartość percentyla lub 0 dla braku wartości
+     */
+    public static double percentile(double[] values, double percent) {
+        if (values.length == 0) {
+            return 0;
+        }
+        double[] sorted = Arrays.copyOf(values, values.length);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+    }
+}
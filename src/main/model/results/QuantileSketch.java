@@ -0,0 +1,156 @@
+package main.model.results;
+
+import java.util.Arrays;
+
+/**
+ * Created by Krzysztof Baran
+ * Szkic rozkładu wartości nieujemnych (prędkości, czasów przejazdu) pozwalający odczytać dowolny percentyl
+ * w stałej pamięci, bez przechowywania samych wartości. Przedziały mają szerokość rosnącą logarytmicznie
+ * (jak w histogramach HDR): wartości poniżej 2 * SUB_BUCKETS_COUNT zapisywane są dokładnie, a wyższe z błędem
+ * względnym nie większym niż 1 / SUB_BUCKETS_COUNT. Szkice można łączyć metodą merge (np. z równoległych uruchomień)
+ */
+public class QuantileSketch {
+    /**
+     * Liczba bitów przedziałów w obrębie jednej potęgi dwójki
+     */
+    private static final int SUB_BUCKETS_BITS = 6;
+    /**
+     * Liczba przedziałów w obrębie jednej potęgi dwójki
+     */
+    private static final int SUB_BUCKETS_COUNT = 1 << SUB_BUCKETS_BITS;
+    /**
+     * Początkowa liczba przedziałów (tablica jest powiększana, jeśli wartość wykracza poza nią)
+     */
+    private static final int INITIAL_BUCKETS_COUNT = 4 * SUB_BUCKETS_COUNT;
+    /**
+     * Liczba wartości w kolejnych przedziałach
+     */
+    private long[] counts = new long[INITIAL_BUCKETS_COUNT];
+    /**
+     * Liczba wszystkich wartości
+     */
+    private long count;
+    /**
+     * Najniższa i najwyższa dodana wartość
+     */
+    private long min = Long.MAX_VALUE, max = Long.MIN_VALUE;
+
+    /**
+     * Dodanie wartości do szkicu (ujemne wartości traktowane są jako 0)
+     * @param value Wartość
+     */
+    public void add(long value) {
+        value = Math.max(0, value);
+        int bucket = bucketOf(value);
+        if (bucket >= counts.length) {
+            counts = Arrays.copyOf(counts, Math.max(bucket + 1, counts.length * 2));
+        }
+        counts[bucket]++;
+        count++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Dodanie do szkicu wszystkich wartości z innego szkicu
+     * @param other Dodawany szkic
+     */
+    public void merge(QuantileSketch other) {
+        if (other.count == 0) {
+            return;
+        }
+        if (other.counts.length > counts.length) {
+            counts = Arrays.copyOf(counts, other.counts.length);
+        }
+        for (int i = 0; i < other.counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Wyznaczenie percentyla metodą najbliższego rangi (jak MonteCarloReport.percentile).
+     * Wynikiem jest środek przedziału, w którym leży wartość o zadanej randze, ograniczony do najniższej i najwyższej wartości
+     * @param percentile Percentyl od 0 do 100
+     * @return Wartość percentyla lub 0 dla pustego szkicu
+     */
+    public long getPercentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+        long seen = 0;
+        for (int bucket = 0; bucket < counts.length; bucket++) {
+            seen += counts[bucket];
+            if (seen >= rank) {
+                long lowerBound = lowerBoundOf(bucket);
+                long middle = lowerBound + (upperBoundOf(bucket) - lowerBound) / 2;
+                return Math.max(min, Math.min(max, middle));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Getter dla liczby wartości w szkicu
+     * @return Liczba wartości
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Getter dla najniższej wartości
+     * @return Najniższa wartość lub 0 dla pustego szkicu
+     */
+    public long getMin() {
+        return count == 0 ? 0 : min;
+    }
+
+    /**
+     * Getter dla najwyższej wartości
+     * @return Najwyższa wartość lub 0 dla pustego szkicu
+     */
+    public long getMax() {
+        return count == 0 ? 0 : max;
+    }
+
+    /**
+     * Numer przedziału dla wartości: przesunięcie bitowe wartości tak, aby mieściła się w [SUB_BUCKETS_COUNT, 2 * SUB_BUCKETS_COUNT),
+     * a do niego numer kolejnej potęgi dwójki
+     * @param value Nieujemna wartość
+     * @return Numer przedziału
+     */
+    private static int bucketOf(long value) {
+        int shift = Math.max(0, Long.SIZE - Long.numberOfLeadingZeros(value) - SUB_BUCKETS_BITS - 1);
+        return (shift << SUB_BUCKETS_BITS) + (int) (value >>> shift);
+    }
+
+    /**
+     * Najniższa wartość w przedziale
+     * @param bucket Numer przedziału
+     * @return Dolna granica przedziału
+     */
+    private static long lowerBoundOf(int bucket) {
+        if (bucket < 2 * SUB_BUCKETS_COUNT) {
+            return bucket;
+        }
+        int shift = (bucket >> SUB_BUCKETS_BITS) - 1;
+        return (long) ((bucket & (SUB_BUCKETS_COUNT - 1)) + SUB_BUCKETS_COUNT) << shift;
+    }
+
+    /**
+     * Najwyższa wartość w przedziale
+     * @param bucket Numer przedziału
+     * @return Górna granica przedziału
+     */
+    private static long upperBoundOf(int bucket) {
+        if (bucket < 2 * SUB_BUCKETS_COUNT) {
+            return bucket;
+        }
+        int shift = (bucket >> SUB_BUCKETS_BITS) - 1;
+        return lowerBoundOf(bucket) + (1L << shift) - 1;
+    }
+}
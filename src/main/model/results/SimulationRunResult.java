@@ -0,0 +1,163 @@
+package main.model.results;
+
+import java.util.List;
+
+import main.model.enums.WeatherEnum;
+
+/**
+ * Created by Krzysztof Baran
+ * Wyniki jednego uruchomienia symulacji zebrane w pamięci: statystyki prędkości i liczba samochodów,
+ * które opuściły scenę na każdym z pasów, liczba zderzeń na skrzyżowaniach oraz kolejne warunki pogodowe
+ */
+public class SimulationRunResult {
+    /**
+     * Ziarno generatora wartości losowych, z którym uruchomiona została symulacja
+     */
+    private final long seed;
+    /**
+     * Opisy pasów drogowych (kierunek i numer pasa) w stałej kolejności pasów symulacji
+     */
+    private final List<String> beltLabels;
+    /**
+     * Statystyki samochodów na każdym z pasów (indeks jak w beltLabels)
+     */
+    private final List<BeltStatistics> beltStatistics;
+    /**
+     * Liczba samochodów, które opuściły scenę na każdym z pasów (indeks jak w beltLabels)
+     */
+    private final long[] beltCarsLeft;
+    /**
+     * Liczba zderzeń na każdym ze skrzyżowań
+     */
+    private final long[] crossingCollisions;
+    /**
+     * Następujące po sobie warunki pogodowe w trakcie symulacji
+     */
+    private final List<WeatherEnum> weatherConditions;
+
+    /**
+     * Konstruktor ustawiający wszystkie parametry
+     * @param seed Ziarno generatora wartości losowych symulacji
+     * @param beltLabels Opisy pasów drogowych
+     * @param beltStatistics Statystyki samochodów na każdym z pasów
+     * @param beltCarsLeft Liczba samochodów, które opuściły scenę na każdym z pasów
+     * @param crossingCollisions Liczba zderzeń na każdym ze skrzyżowań
+     * @param weatherConditions Następujące po sobie warunki pogodowe w trakcie symulacji
+     */
+    public SimulationRunResult(long seed, List<String> beltLabels, List<BeltStatistics> beltStatistics, long[] beltCarsLeft,
+                               long[] crossingCollisions, List<WeatherEnum> weatherConditions) {
+        this.seed = seed;
+        this.beltLabels = beltLabels;
+        this.beltStatistics = beltStatistics;
+        this.beltCarsLeft = beltCarsLeft;
+        this.crossingCollisions = crossingCollisions;
+        this.weatherConditions = weatherConditions;
+    }
+
+    /**
+     * Getter dla ziarna generatora wartości losowych symulacji
+     * @return Ziarno generatora
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Getter dla opisów pasów drogowych
+     * @return Opisy pasów drogowych (kierunek i numer pasa)
+     */
+    public List<String> getBeltLabels() {
+        return beltLabels;
+    }
+
+    /**
+     * Getter dla statystyk samochodów na pasie
+     * @param beltIndex Indeks pasa
+     * @return Statystyki samochodów na pasie
+     */
+    public BeltStatistics getStatistics(int beltIndex) {
+        return beltStatistics.get(beltIndex);
+    }
+
+    /**
+     * Getter dla liczby samochodów, które opuściły scenę na pasie
+     * @param beltIndex Indeks pasa
+     * @return Liczba samochodów, które opuściły scenę na pasie
+     */
+    public long getCarsLeft(int beltIndex) {
+        return beltCarsLeft[beltIndex];
+    }
+
+    /**
+     * Getter dla liczby zderzeń na skrzyżowaniu
+     * @param crossingIndex Indeks skrzyżowania
+     * @return Liczba zderzeń na skrzyżowaniu
+     */
+    public long getCrossingCollisions(int crossingIndex) {
+        return crossingCollisions[crossingIndex];
+    }
+
+    /**
+     * Getter dla liczby skrzyżowań
+     * @return Liczba skrzyżowań
+     */
+    public int getCrossingsCount() {
+        return crossingCollisions.length;
+    }
+
+    /**
+     * Getter dla następujących po sobie warunków pogodowych
+     * @return Następujące po sobie warunki pogodowe w trakcie symulacji
+     */
+    public List<WeatherEnum> getWeatherConditions() {
+        return weatherConditions;
+    }
+
+    /**
+     * Metoda licząca wszystkie samochody, które opuściły scenę
+     * @return Liczba samochodów, które opuściły scenę na wszystkich pasach
+     */
+    public long getAllCarsLeft() {
+        long res = 0;
+        for (long carsLeft : beltCarsLeft) {
+            res += carsLeft;
+        }
+        return res;
+    }
+
+    /**
+     * Metoda licząca wszystkie zderzenia na skrzyżowaniach
+     * @return Liczba zderzeń na wszystkich skrzyżowaniach
+     */
+    public long getAllCrossingCollisions() {
+        long res = 0;
+        for (long collisions : crossingCollisions) {
+            res += collisions;
+        }
+        return res;
+    }
+
+    /**
+     * Metoda licząca samochody, które miały wypadek
+     * @return Liczba samochodów, które miały wypadek na wszystkich pasach
+     */
+    public long getCollidedCarsCount() {
+        long res = 0;
+        for (BeltStatistics statistics : beltStatistics) {
+            res += statistics.getCollidedCarsCount();
+        }
+        return res;
+    }
+
+    /**
+     * Metoda licząca średnią z średnich prędkości wszystkich samochodów, które opuściły scenę
+     * @return Średnia prędkość samochodów lub 0, jeśli żaden samochód nie opuścił sceny
+     */
+    public double getMeanAverageSpeed() {
+        BeltStatistics all = new BeltStatistics();
+        for (BeltStatistics statistics : beltStatistics) {
+            all.merge(statistics);
+        }
+        return all.getMeanAverageSpeed();
+    }
+}
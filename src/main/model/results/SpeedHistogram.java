@@ -0,0 +1,137 @@
+package main.model.results;
+
+import java.util.Arrays;
+
+/**
+ * Created by Krzysztof Baran
+ * Histogram prędkości o przedziałach stałej szerokości, liczony na tablicy liczników indeksowanej numerem przedziału.
+ * Przedział o numerze i obejmuje prędkości od i * szerokość do (i + 1) * szerokość - 1.
+ * Opisy przedziałów tworzone są dopiero przy zapisie wyników
+ */
+public class SpeedHistogram {
+    /**
+     * Początkowa liczba przedziałów (tablica jest powiększana, jeśli prędkość wykracza poza nią)
+     */
+    private static final int INITIAL_BINS_COUNT = 32;
+    /**
+     * Szerokość przedziału
+     */
+    private final int binWidth;
+    /**
+     * Liczba prędkości w kolejnych przedziałach
+     */
+    private long[] counts = new long[INITIAL_BINS_COUNT];
+    /**
+     * Numer najniższego i najwyższego niepustego przedziału (-1 dla pustego histogramu)
+     */
+    private int firstBin = -1, lastBin = -1;
+
+    /**
+     * Konstruktor pustego histogramu
+     * @param binWidth Szerokość przedziału
+     */
+    public SpeedHistogram(int binWidth) {
+        if (binWidth < 1) {
+            throw new IllegalArgumentException("Bin width must be positive");
+        }
+        this.binWidth = binWidth;
+    }
+
+    /**
+     * Dodanie prędkości do histogramu (ujemne prędkości trafiają do pierwszego przedziału)
+     * @param speed Prędkość
+     */
+    public void add(long speed) {
+        int bin = (int) (Math.max(0, speed) / binWidth);
+        if (bin >= counts.length) {
+            counts = Arrays.copyOf(counts, Math.max(bin + 1, counts.length * 2));
+        }
+        counts[bin]++;
+        if (firstBin < 0 || bin < firstBin) {
+            firstBin = bin;
+        }
+        if (bin > lastBin) {
+            lastBin = bin;
+        }
+    }
+
+    /**
+     * Dodanie do histogramu wszystkich prędkości z innego histogramu o tej samej szerokości przedziału
+     * @param other Dodawany histogram
+     */
+    public void merge(SpeedHistogram other) {
+        if (other.binWidth != binWidth) {
+            throw new IllegalArgumentException("Cannot merge histograms with different bin widths");
+        }
+        if (other.isEmpty()) {
+            return;
+        }
+        if (other.lastBin >= counts.length) {
+            counts = Arrays.copyOf(counts, other.lastBin + 1);
+        }
+        for (int bin = other.firstBin; bin <= other.lastBin; bin++) {
+            counts[bin] += other.counts[bin];
+        }
+        firstBin = firstBin < 0 ? other.firstBin : Math.min(firstBin, other.firstBin);
+        lastBin = Math.max(lastBin, other.lastBin);
+    }
+
+    /**
+     * Sprawdzenie, czy do histogramu nie dodano żadnej prędkości
+     * @return True, jeśli histogram jest pusty
+     */
+    public boolean isEmpty() {
+        return firstBin < 0;
+    }
+
+    /**
+     * Getter dla numeru najniższego niepustego przedziału
+     * @return Numer przedziału lub -1 dla pustego histogramu
+     */
+    public int getFirstBin() {
+        return firstBin;
+    }
+
+    /**
+     * Getter dla numeru najwyższego niepustego przedziału
+     * @return Numer przedziału lub -1 dla pustego histogramu
+     */
+    public int getLastBin() {
+        return lastBin;
+    }
+
+    /**
+     * Getter dla liczby prędkości w przedziale
+     * @param bin Numer przedziału
+     * @return Liczba prędkości w przedziale
+     */
+    public long getCount(int bin) {
+        return bin < counts.length ? counts[bin] : 0;
+    }
+
+    /**
+     * Getter dla dolnej granicy przedziału
+     * @param bin Numer przedziału
+     * @return Najniższa prędkość w przedziale
+     */
+    public long getLowerBound(int bin) {
+        return (long) bin * binWidth;
+    }
+
+    /**
+     * Getter dla górnej granicy przedziału
+     * @param bin Numer przedziału
+     * @return Najwyższa prędkość w przedziale
+     */
+    public long getUpperBound(int bin) {
+        return getLowerBound(bin) + binWidth - 1;
+    }
+
+    /**
+     * Getter dla szerokości przedziału
+     * @return Szerokość przedziału
+     */
+    public int getBinWidth() {
+        return binWidth;
+    }
+}
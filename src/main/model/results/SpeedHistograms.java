@@ -0,0 +1,158 @@
+package main.model.results;
+
+import main.model.enums.WeatherEnum;
+
+/**
+ * Created by Krzysztof Baran
+ * Wszystkie zagregowane rozkłady prędkości prezentowane na wykresach, wypełniane w jednym przejściu po wynikach samochodów:
+ * histogram średnich prędkości, histogram prędkości z pomiaru odcinkowego, histogram przekroczeń prędkości
+ * oraz średnie prędkości i histogramy prędkości w każdej z pogód.
+ * Rozkłady z różnych pasów lub uruchomień symulacji można łączyć metodą merge
+ */
+public class SpeedHistograms {
+    /**
+     * Dozwolona prędkość na trasie (km/h), powyżej której pomiar odcinkowy jest przekroczeniem
+     */
+    public static final int SPEED_LIMIT = 120;
+    /**
+     * Górna granica poprawnego pomiaru odcinkowego (km/h) - wyższe wartości to błędy pomiaru
+     */
+    public static final int MAX_RADAR_SPEED = 300;
+    /**
+     * Szerokość przedziałów średnich prędkości i prędkości z pomiaru odcinkowego
+     */
+    private static final int SPEED_BIN_WIDTH = 20;
+    /**
+     * Szerokość przedziałów przekroczeń prędkości
+     */
+    private static final int OVER_SPEED_BIN_WIDTH = 10;
+    /**
+     * Histogram średnich prędkości samochodów na całej trasie
+     */
+    private final SpeedHistogram averageSpeeds = new SpeedHistogram(SPEED_BIN_WIDTH);
+    /**
+     * Histogram prędkości zmierzonych na pomiarze odcinkowym
+     */
+    private final SpeedHistogram radarSpeeds = new SpeedHistogram(SPEED_BIN_WIDTH);
+    /**
+     * Histogram prędkości zmierzonych na pomiarze odcinkowym, które przekroczyły dozwoloną prędkość
+     */
+    private final SpeedHistogram radarOverSpeeds = new SpeedHistogram(OVER_SPEED_BIN_WIDTH);
+    /**
+     * Suma i liczba prędkości samochodów w każdej z pogód (indeks to ordinal pogody)
+     */
+    private final long[] weatherSpeedSums = new long[WeatherEnum.values().length];
+    private final long[] weatherSpeedCounts = new long[WeatherEnum.values().length];
+    /**
+     * Histogramy prędkości samochodów w każdej z pogód (indeks to ordinal pogody), bez prędkości niepoprawnych
+     */
+    private final SpeedHistogram[] weatherSpeedHistograms = new SpeedHistogram[WeatherEnum.values().length];
+
+    /**
+     * Konstruktor pustych rozkładów
+     */
+    public SpeedHistograms() {
+        for (int i = 0; i < weatherSpeedHistograms.length; i++) {
+            weatherSpeedHistograms[i] = new SpeedHistogram(SPEED_BIN_WIDTH);
+        }
+    }
+
+    /**
+     * Dodanie wyników samochodu do wszystkich rozkładów
+     * @param result Wyniki pomiarów prędkości samochodu
+     */
+    public void add(SpeedResult result) {
+        add(result.getAverageSpeed(), result.isRadarSpeedValid() ? result.getRadarSpeed() : SpeedResult.RADAR_NOT_MEASURED,
+            result.getWeatherSpeeds());
+    }
+
+    /**
+     * Dodanie wyników samochodu do wszystkich rozkładów
+     * @param averageSpeed Średnia prędkość samochodu
+     * @param radarSpeed Poprawna prędkość z pomiaru odcinkowego lub SpeedResult.RADAR_NOT_MEASURED
+     * @param weatherSpeeds Średnie prędkości samochodu w kolejnych warunkach pogodowych
+     */
+    public void add(long averageSpeed, long radarSpeed, WeatherSpeeds weatherSpeeds) {
+        averageSpeeds.add(averageSpeed);
+        if (radarSpeed != SpeedResult.RADAR_NOT_MEASURED) {
+            radarSpeeds.add(radarSpeed);
+            if (radarSpeed > SPEED_LIMIT && radarSpeed < MAX_RADAR_SPEED) {
+                radarOverSpeeds.add(radarSpeed);
+            }
+        }
+        for (int segment = 0; segment < weatherSpeeds.getSegmentsCount(); segment++) {
+            int weather = weatherSpeeds.getWeather(segment).ordinal();
+            long speed = weatherSpeeds.getSpeed(segment);
+            weatherSpeedSums[weather] += speed;
+            weatherSpeedCounts[weather]++;
+            weatherSpeedHistograms[weather].add(speed);
+        }
+    }
+
+    /**
+     * Dodanie wszystkich rozkładów z innego obiektu (np. z innego pasa lub uruchomienia symulacji)
+     * @param other Dodawane rozkłady
+     */
+    public void merge(SpeedHistograms other) {
+        averageSpeeds.merge(other.averageSpeeds);
+        radarSpeeds.merge(other.radarSpeeds);
+        radarOverSpeeds.merge(other.radarOverSpeeds);
+        for (int i = 0; i < weatherSpeedSums.length; i++) {
+            weatherSpeedSums[i] += other.weatherSpeedSums[i];
+            weatherSpeedCounts[i] += other.weatherSpeedCounts[i];
+            weatherSpeedHistograms[i].merge(other.weatherSpeedHistograms[i]);
+        }
+    }
+
+    /**
+     * Getter dla histogramu średnich prędkości samochodów
+     * @return Histogram średnich prędkości
+     */
+    public SpeedHistogram getAverageSpeeds() {
+        return averageSpeeds;
+    }
+
+    /**
+     * Getter dla histogramu prędkości z pomiaru odcinkowego
+     * @return Histogram prędkości z pomiaru odcinkowego
+     */
+    public SpeedHistogram getRadarSpeeds() {
+        return radarSpeeds;
+    }
+
+    /**
+     * Getter dla histogramu przekroczeń prędkości na pomiarze odcinkowym
+     * @return Histogram przekroczeń prędkości
+     */
+    public SpeedHistogram getRadarOverSpeeds() {
+        return radarOverSpeeds;
+    }
+
+    /**
+     * Sprawdzenie, czy zarejestrowano prędkości samochodów w zadanej pogodzie
+     * @param weather Warunki pogodowe
+     * @return True, jeśli w zadanej pogodzie są prędkości
+     */
+    public boolean hasWeatherSpeeds(WeatherEnum weather) {
+        return weatherSpeedCounts[weather.ordinal()] > 0;
+    }
+
+    /**
+     * Średnia prędkość samochodów w zadanej pogodzie
+     * @param weather Warunki pogodowe
+     * @return Średnia prędkość lub 0, jeśli w zadanej pogodzie nie ma prędkości
+     */
+    public double getWeatherAverageSpeed(WeatherEnum weather) {
+        long count = weatherSpeedCounts[weather.ordinal()];
+        return count == 0 ? 0 : (double) weatherSpeedSums[weather.ordinal()] / count;
+    }
+
+    /**
+     * Getter dla histogramu prędkości samochodów w zadanej pogodzie
+     * @param weather Warunki pogodowe
+     * @return Histogram prędkości w zadanej pogodzie
+     */
+    public SpeedHistogram getWeatherSpeeds(WeatherEnum weather) {
+        return weatherSpeedHistograms[weather.ordinal()];
+    }
+}
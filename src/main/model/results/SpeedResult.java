@@ -1,8 +1,5 @@
 package main.model.results;
 
-import java.util.List;
-import java.util.Map;
-
 import main.model.enums.WeatherEnum;
 
 /**
@@ -10,18 +7,26 @@ import main.model.enums.WeatherEnum;
  * Klasa reprezentująca wyniki pomiarów prędkości w aplikacji
  */
 public class SpeedResult {
+    /**
+     * Wartość prędkości z pomiaru odcinkowego dla samochodu, który nie przejechał całego pomiaru (lub pasa bez pomiaru)
+     */
+    public static final long RADAR_NOT_MEASURED = -1;
     /**
      * Średnia prędkość pojazdu na scenie
      */
     private final long averageSpeed;
     /**
-     * Prędkość pojazdu zmierzona na pomiarze odcinkowym
+     * Prędkość pojazdu zmierzona na pomiarze odcinkowym lub RADAR_NOT_MEASURED
+     */
+    private final long radarSpeed;
+    /**
+     * Flaga mówiąca o tym, czy pomiar odcinkowy jest poprawny (dodatni i nie wyższy niż SpeedHistograms.MAX_RADAR_SPEED)
      */
-    private final String radarSpeed;
+    private final boolean radarSpeedValid;
     /**
-     * Mapa zawierająca warunki pogodowe oraz średnie prędkości zadanego pojazdu w tych warunkach
+     * Średnie prędkości zadanego pojazdu na odcinkach przejechanych w kolejnych warunkach pogodowych
      */
-    private final Map<WeatherEnum, List<Long>> weatherSpeeds;
+    private final WeatherSpeeds weatherSpeeds;
     /**
      * Flaga mówiąca o tym, czy samochód miał wypadek
      */
@@ -34,14 +39,15 @@ public class SpeedResult {
     /**
      * Konstruktor ustawiający wszystkie parametry
      * @param averageSpeed Średnia prędkość pojazdu na scenie
-     * @param radarSpeed Prędkość pojazdu zmierzona na pomiarze odcinkowym
-     * @param weatherSpeeds Mapa zawierająca warunki pogodowe oraz średnie prędkości zadanego pojazdu w tych warunkach
+     * @param radarSpeed Prędkość pojazdu zmierzona na pomiarze odcinkowym lub RADAR_NOT_MEASURED
+     * @param weatherSpeeds Średnie prędkości zadanego pojazdu w kolejnych warunkach pogodowych
      * @param hadCollision Flaga mówiąca o tym, czy samochód miał wypadek
      * @param collisionWeather Pogoda w trakcie trwania której miał miejsce wypadek
      */
-    public SpeedResult(long averageSpeed, String radarSpeed, Map weatherSpeeds, boolean hadCollision, WeatherEnum collisionWeather) {
+    public SpeedResult(long averageSpeed, long radarSpeed, WeatherSpeeds weatherSpeeds, boolean hadCollision, WeatherEnum collisionWeather) {
         this.averageSpeed = averageSpeed;
         this.radarSpeed = radarSpeed;
+        this.radarSpeedValid = isRadarSpeedValid(radarSpeed);
         this.weatherSpeeds = weatherSpeeds;
         this.hadCollision = hadCollision;
         this.collisionWeather = collisionWeather;
@@ -57,17 +63,42 @@ public class SpeedResult {
 
     /**
      * Getter prędkość pojazdu zmierzonej na pomiarze odcinkowym
-     * @return Prędkość pojazdu zmierzona na pomiarze odcinkowym
+     * @return Prędkość pojazdu zmierzona na pomiarze odcinkowym lub RADAR_NOT_MEASURED
      */
-    public String getRadarSpeed() {
+    public long getRadarSpeed() {
         return radarSpeed;
     }
 
     /**
-     * Getter mapy zawierającej warunki pogodowe oraz średnie prędkości zadanego pojazdu w tych warunkach
-     * @return Mapa zawierająca warunki pogodowe oraz średnie prędkości zadanego pojazdu w tych warunkach
+     * Sprawdzenie, czy samochód przejechał cały pomiar odcinkowy
+     * @return True, jeśli prędkość z pomiaru odcinkowego została zmierzona
+     */
+    public boolean isRadarSpeedMeasured() {
+        return radarSpeed != RADAR_NOT_MEASURED;
+    }
+
+    /**
+     * Getter dla flagi mówiącej o tym, czy pomiar odcinkowy jest poprawny
+     * @return True, jeśli prędkość została zmierzona i mieści się w zakresie poprawnych pomiarów
+     */
+    public boolean isRadarSpeedValid() {
+        return radarSpeedValid;
+    }
+
+    /**
+     * Sprawdzenie, czy prędkość z pomiaru odcinkowego jest poprawna (dodatnia i nie wyższa niż SpeedHistograms.MAX_RADAR_SPEED)
+     * @param radarSpeed Prędkość z pomiaru odcinkowego lub RADAR_NOT_MEASURED
+     * @return True, jeśli prędkość została zmierzona i mieści się w zakresie poprawnych pomiarów
+     */
+    public static boolean isRadarSpeedValid(long radarSpeed) {
+        return radarSpeed > 0 && radarSpeed <= SpeedHistograms.MAX_RADAR_SPEED;
+    }
+
+    /**
+     * Getter średnich prędkości zadanego pojazdu w kolejnych warunkach pogodowych
+     * @return Średnie prędkości zadanego pojazdu w kolejnych warunkach pogodowych
      */
-    public Map<WeatherEnum, List<Long>> getWeatherSpeeds() {
+    public WeatherSpeeds getWeatherSpeeds() {
         return weatherSpeeds;
     }
 
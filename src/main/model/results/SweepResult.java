@@ -0,0 +1,136 @@
+package main.model.results;
+
+import main.model.SimulationParameters;
+
+/**
+ * Created by Krzysztof Baran
+ * Podsumowanie jednej konfiguracji z przeglądu parametrów: parametry symulacji oraz średnie i rozrzut wyników
+ * ze wszystkich uruchomień tej konfiguracji. Nie przechowuje pojedynczych pomiarów, więc wiele takich wierszy
+ * można trzymać w pamięci lub zapisywać na bieżąco
+ */
+public class SweepResult {
+    /**
+     * Numer konfiguracji w siatce przeglądu (od 0)
+     */
+    private final int configurationIndex;
+    /**
+     * Parametry symulacji konfiguracji (z ziarnem bazowym)
+     */
+    private final SimulationParameters parameters;
+    /**
+     * Liczba uruchomień konfiguracji
+     */
+    private final int runsCount;
+    /**
+     * Średnia i odchylenie standardowe liczby samochodów, które opuściły scenę
+     */
+    private final double carsLeftMean, carsLeftStdDev;
+    /**
+     * Średnia prędkość samochodów (średnia z uruchomień)
+     */
+    private final double averageSpeedMean;
+    /**
+     * Średnia liczba samochodów, które miały wypadek
+     */
+    private final double collidedCarsMean;
+    /**
+     * Średnia liczba zderzeń na skrzyżowaniach
+     */
+    private final double crossingCollisionsMean;
+    /**
+     * Czas wykonania wszystkich uruchomień konfiguracji w milisekundach
+     */
+    private final long wallTimeMillis;
+
+    /**
+     * Konstruktor podsumowania konfiguracji na podstawie raportu z jej uruchomień
+     * @param configurationIndex Numer konfiguracji w siatce przeglądu
+     * @param parameters Parametry symulacji konfiguracji
+     * @param report Raport z połączonymi wynikami uruchomień konfiguracji
+     * @param wallTimeMillis Czas wykonania wszystkich uruchomień w milisekundach
+     */
+    public SweepResult(int configurationIndex, SimulationParameters parameters, MonteCarloReport report, long wallTimeMillis) {
+        this.configurationIndex = configurationIndex;
+        this.parameters = parameters;
+        this.runsCount = report.getRunsCount();
+        double[] carsLeft = report.getCarsLeftPerRun();
+        this.carsLeftMean = MonteCarloReport.mean(carsLeft);
+        this.carsLeftStdDev = MonteCarloReport.standardDeviation(carsLeft);
+        this.averageSpeedMean = MonteCarloReport.mean(report.getMeanAverageSpeedPerRun());
+        this.collidedCarsMean = MonteCarloReport.mean(report.getCollidedCarsPerRun());
+        this.crossingCollisionsMean = MonteCarloReport.mean(report.getCrossingCollisionsPerRun());
+        this.wallTimeMillis = wallTimeMillis;
+    }
+
+    /**
+     * Getter dla numeru konfiguracji w siatce przeglądu
+     * @return Numer konfiguracji (od 0)
+     */
+    public int getConfigurationIndex() {
+        return configurationIndex;
+    }
+
+    /**
+     * Getter dla parametrów symulacji konfiguracji
+     * @return Parametry symulacji (z ziarnem bazowym)
+     */
+    public SimulationParameters getParameters() {
+        return parameters;
+    }
+
+    /**
+     * Getter dla liczby uruchomień konfiguracji
+     * @return Liczba uruchomień
+     */
+    public int getRunsCount() {
+        return runsCount;
+    }
+
+    /**
+     * Getter dla średniej liczby samochodów, które opuściły scenę
+     * @return Średnia liczba samochodów
+     */
+    public double getCarsLeftMean() {
+        return carsLeftMean;
+    }
+
+    /**
+     * Getter dla odchylenia standardowego liczby samochodów, które opuściły scenę
+     * @return Odchylenie standardowe liczby samochodów
+     */
+    public double getCarsLeftStdDev() {
+        return carsLeftStdDev;
+    }
+
+    /**
+     * Getter dla średniej prędkości samochodów
+     * @return Średnia prędkość samochodów
+     */
+    public double getAverageSpeedMean() {
+        return averageSpeedMean;
+    }
+
+    /**
+     * Getter dla średniej liczby samochodów, które miały wypadek
+     * @return Średnia liczba samochodów z wypadkiem
+     */
+    public double getCollidedCarsMean() {
+        return collidedCarsMean;
+    }
+
+    /**
+     * Getter dla średniej liczby zderzeń na skrzyżowaniach
+     * @return Średnia liczba zderzeń na skrzyżowaniach
+     */
+    public double getCrossingCollisionsMean() {
+        return crossingCollisionsMean;
+    }
+
+    /**
+     * Getter dla czasu wykonania wszystkich uruchomień konfiguracji
+     * @return Czas wykonania w milisekundach
+     */
+    public long getWallTimeMillis() {
+        return wallTimeMillis;
+    }
+}
@@ -0,0 +1,99 @@
+package main.model.results;
+
+import java.util.Arrays;
+
+import main.model.enums.WeatherEnum;
+
+/**
+ * Created by Krzysztof Baran
+ * Średnie prędkości samochodu na kolejnych odcinkach trasy przejechanych w stałej pogodzie (odcinek kończy się przy zmianie
+ * pogody lub zjeździe ze sceny). Odcinki zapisywane są w tablicach typów prostych (pogoda jako ordinal), a dla każdej pogody
+ * liczona jest na bieżąco liczba odcinków i suma prędkości, więc zapis odcinka nie tworzy żadnych obiektów
+ * (poza rzadkim powiększeniem tablic)
+ */
+public class WeatherSpeeds {
+    /**
+     * Wszystkie warunki pogodowe w kolejności ordinal (WeatherEnum.values() tworzy za każdym razem nową tablicę)
+     */
+    private static final WeatherEnum[] WEATHERS = WeatherEnum.values();
+    /**
+     * Początkowa liczba odcinków
+     */
+    private static final int INITIAL_SEGMENTS_COUNT = 8;
+    /**
+     * Pogoda (ordinal) i średnia prędkość na kolejnych odcinkach
+     */
+    private byte[] segmentWeathers = new byte[INITIAL_SEGMENTS_COUNT];
+    private long[] segmentSpeeds = new long[INITIAL_SEGMENTS_COUNT];
+    /**
+     * Liczba zapisanych odcinków
+     */
+    private int segmentsCount;
+    /**
+     * Liczba odcinków i suma prędkości w każdej z pogód (indeks to ordinal pogody)
+     */
+    private final int[] weatherCounts = new int[WEATHERS.length];
+    private final long[] weatherSums = new long[WEATHERS.length];
+
+    /**
+     * Zapisanie odcinka przejechanego w zadanej pogodzie
+     * @param weather Pogoda panująca na odcinku
+     * @param speed Średnia prędkość na odcinku
+     */
+    public void add(WeatherEnum weather, long speed) {
+        if (segmentsCount == segmentSpeeds.length) {
+            segmentWeathers = Arrays.copyOf(segmentWeathers, segmentsCount * 2);
+            segmentSpeeds = Arrays.copyOf(segmentSpeeds, segmentsCount * 2);
+        }
+        int ordinal = weather.ordinal();
+        segmentWeathers[segmentsCount] = (byte) ordinal;
+        segmentSpeeds[segmentsCount] = speed;
+        segmentsCount++;
+        weatherCounts[ordinal]++;
+        weatherSums[ordinal] += speed;
+    }
+
+    /**
+     * Getter dla liczby zapisanych odcinków
+     * @return Liczba odcinków
+     */
+    public int getSegmentsCount() {
+        return segmentsCount;
+    }
+
+    /**
+     * Getter dla pogody panującej na odcinku
+     * @param segment Numer odcinka
+     * @return Pogoda na odcinku
+     */
+    public WeatherEnum getWeather(int segment) {
+        return WEATHERS[segmentWeathers[segment]];
+    }
+
+    /**
+     * Getter dla średniej prędkości na odcinku
+     * @param segment Numer odcinka
+     * @return Średnia prędkość na odcinku
+     */
+    public long getSpeed(int segment) {
+        return segmentSpeeds[segment];
+    }
+
+    /**
+     * Getter dla liczby odcinków przejechanych w zadanej pogodzie
+     * @param weather Warunki pogodowe
+     * @return Liczba odcinków w zadanej pogodzie
+     */
+    public int getCount(WeatherEnum weather) {
+        return weatherCounts[weather.ordinal()];
+    }
+
+    /**
+     * Getter dla sumy średnich prędkości na odcinkach przejechanych w zadanej pogodzie
+     * @param weather Warunki pogodowe
+     * @return Suma prędkości w zadanej pogodzie
+     */
+    public long getSum(WeatherEnum weather) {
+        return weatherSums[weather.ordinal()];
+    }
+}
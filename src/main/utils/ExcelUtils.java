@@ -1,19 +1,31 @@
 package main.utils;
 
 
+import main.model.TrafficLightsAndCrossing;
 import main.model.belts.TrafficBelt;
 import main.model.enums.WeatherEnum;
+import main.model.results.BeltStatistics;
+import main.model.results.MonteCarloReport;
+import main.model.results.QuantileSketch;
+import main.model.results.SimulationRunResult;
+import main.model.results.SpeedHistogram;
+import main.model.results.SpeedHistograms;
 import main.model.results.SpeedResult;
+import main.model.results.WeatherSpeeds;
 import org.apache.poi.hssf.usermodel.HSSFRow;
 import org.apache.poi.hssf.usermodel.HSSFSheet;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
 import org.apache.poi.openxml4j.opc.OPCPackage;
 import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFRow;
 import org.apache.poi.xssf.usermodel.XSSFSheet;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -31,40 +43,74 @@ public class ExcelUtils {
      * DateTimeFormatter do formatowania daty w nazwach plików
      */
     private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss");
+    /**
+     * Liczba ostatnich wierszy każdego arkusza z danymi trzymanych w pamięci podczas zapisu strumieniowego
+     */
+    private static final int DATA_ROWS_WINDOW = 100;
+
+    /**
+     * Funkcja zapisująca wyniki symulacji do plików excel w katalogu roboczym aplikacji
+     *
+     * @param allBelts           Wszystkie pasy drogowe, z których możemy zczytać wyniki symulacji
+     * @param crossings          Wszystkie skrzyżowania, z których zczytujemy liczbę zderzeń na skrzyżowaniach
+     * @param weatherConditions  Lista warunków pogodowych jakie panowały na drodze podczas symulacji
+     * @param simulationDuration Czas trwania symulacji w sekundach
+     * @return Nazwa plików z podsumowaniem, który został utworzony przez aplikację
+     */
+    public static List<String> exportResults(List<TrafficBelt> allBelts, List<TrafficLightsAndCrossing> crossings,
+                                             List<WeatherEnum> weatherConditions, long simulationDuration) {
+        return exportResults(allBelts, crossings, weatherConditions, simulationDuration, null, 0, 0, 0);
+    }
 
     /**
      * Funkcja główna, której zadaniem jest utwożenie nowego dokumentu typu excel oraz workbooka.
      * Dodatkowo woła funkcje pomocnicze do eksportu poszczególnych zakładek dokumentu.
      *
      * @param allBelts           Wszystkie pasy drogowe, z których możemy zczytać wyniki symulacji
+     * @param crossings          Wszystkie skrzyżowania, z których zczytujemy liczbę zderzeń na skrzyżowaniach
      * @param weatherConditions  Lista warunków pogodowych jakie panowały na drodze podczas symulacji
      * @param simulationDuration Czas trwania symulacji w sekundach
+     * @param outputDirectory    Katalog, w którym zapisywane są pliki (null => katalog roboczy aplikacji)
+     * @param maxLagMillis       Największe opóźnienie pętli symulacji względem czasu rzeczywistego w milisekundach
+     * @param coalescedTicksCount Liczba taktów wykonanych bez przekazania migawki do renderera
+     * @param droppedFramesCount Liczba klatek pominiętych przez renderer
      * @return Nazwa plików z podsumowaniem, który został utworzony przez aplikację
      */
-    public static List<String> exportResults(List<TrafficBelt> allBelts, List<WeatherEnum> weatherConditions, long simulationDuration) {
-        try {
-            InputStream is = ExcelUtils.class.getClassLoader().getResourceAsStream("resources/charts_template.xlsx");
-            HSSFWorkbook dataWorkbook = new HSSFWorkbook();
+    public static List<String> exportResults(List<TrafficBelt> allBelts, List<TrafficLightsAndCrossing> crossings,
+                                             List<WeatherEnum> weatherConditions, long simulationDuration, File outputDirectory,
+                                             double maxLagMillis, long coalescedTicksCount, long droppedFramesCount) {
+        //Arkusze z wynikami dla poszczególnych samochodów zapisywane są strumieniowo - w pamięci trzymane jest tylko
+        //ostatnie DATA_ROWS_WINDOW wierszy każdego arkusza, a starsze trafiają do plików tymczasowych
+        SXSSFWorkbook dataWorkbook = new SXSSFWorkbook(DATA_ROWS_WINDOW);
+        dataWorkbook.setCompressTempFiles(true);
+        try (InputStream is = ExcelUtils.class.getClassLoader().getResourceAsStream("resources/charts_template.xlsx")) {
+            //Do szablonu z wykresami trafiają wyłącznie niewielkie, zagregowane tabele
             XSSFWorkbook chartsWorkbook = new XSSFWorkbook(OPCPackage.open(is));
-            exportCarsSimulationTimeAndWeather(allBelts, weatherConditions, simulationDuration, dataWorkbook);
+            exportCarsSimulationTimeAndWeather(allBelts, crossings, weatherConditions, simulationDuration, maxLagMillis,
+                coalescedTicksCount, droppedFramesCount, dataWorkbook);
             exportCarsThatLeftDuringTheWeather(allBelts, dataWorkbook, chartsWorkbook);
             exportCollisions(allBelts, dataWorkbook, chartsWorkbook);
             exportSpeeds(allBelts, dataWorkbook);
             exportSpeedMeasurements(allBelts, dataWorkbook);
             exportOverSpeedMeasurements(allBelts, dataWorkbook);
             exportSpeedDuringTheWeather(allBelts, dataWorkbook);
-            exportSpeedChartsWithinTheSpeed(allBelts, chartsWorkbook);
-            exportRadarSpeedChartsWithinTheSpeed(allBelts, chartsWorkbook);
-            exportOverSpeedChartsWithinTheSpeed(allBelts, chartsWorkbook);
-            exportAverageSpeedChartsWithinTheWeather(allBelts, chartsWorkbook);
-            String filename = "speeds_" + formatter.format(LocalDateTime.now()) + ".xls";
-            String chartsFilename = "charts_" + formatter.format(LocalDateTime.now()) + ".xlsx";
-            FileOutputStream fos = new FileOutputStream(filename);
-            FileOutputStream chartsFos = new FileOutputStream(chartsFilename);
-            dataWorkbook.write(fos);
-            chartsWorkbook.write(chartsFos);
-            fos.flush();
-            fos.close();
+            exportPercentiles(allBelts, dataWorkbook);
+            //Rozkłady prędkości do wykresów łączymy ze statystyk pasów zebranych w trakcie symulacji
+            SpeedHistograms histograms = new SpeedHistograms();
+            for (TrafficBelt belt : allBelts) {
+                histograms.merge(belt.getStatistics().getHistograms());
+            }
+            exportSpeedChartsWithinTheSpeed(histograms, chartsWorkbook);
+            exportRadarSpeedChartsWithinTheSpeed(histograms, chartsWorkbook);
+            exportOverSpeedChartsWithinTheSpeed(histograms, chartsWorkbook);
+            exportAverageSpeedChartsWithinTheWeather(histograms, chartsWorkbook);
+            String filename = new File(outputDirectory, "speeds_" + formatter.format(LocalDateTime.now()) + ".xlsx").getPath();
+            String chartsFilename = new File(outputDirectory, "charts_" + formatter.format(LocalDateTime.now()) + ".xlsx").getPath();
+            try (FileOutputStream fos = new FileOutputStream(filename);
+                 FileOutputStream chartsFos = new FileOutputStream(chartsFilename)) {
+                dataWorkbook.write(fos);
+                chartsWorkbook.write(chartsFos);
+            }
             List<String> files = new ArrayList<>(Arrays.asList(filename, chartsFilename));
             return files;
         } catch (FileNotFoundException e) {
@@ -73,239 +119,220 @@ public class ExcelUtils {
             e.printStackTrace();
         } catch (InvalidFormatException e) {
             e.printStackTrace();
+        } finally {
+            //Usuwamy pliki tymczasowe strumieniowego workbooka
+            dataWorkbook.dispose();
         }
         return null;
     }
 
     /**
-     * Metoda eksportująca średnie prędkości względem pogody przeliczone odpowiednio
+     * Funkcja zapisująca do pliku excel raport z wielokrotnego uruchomienia tej samej konfiguracji symulacji.
+     * Tworzy arkusze 'MonteCarloRuns' (wyniki każdego z uruchomień), 'MonteCarloSummary' (rozkłady wyników)
+     * oraz 'MonteCarloBelts' (połączone wyniki dla każdego z pasów)
      *
-     * @param allBelts       Wszystkie pasy drogowe
-     * @param chartsWorkbook Workbook z wykresami
+     * @param report          Raport z połączonymi wynikami uruchomień
+     * @param outputDirectory Katalog, w którym zapisywany jest plik (null => katalog roboczy aplikacji)
+     * @return Nazwa pliku z raportem lub null, jeśli nie udało się go zapisać
      */
-    private static void exportAverageSpeedChartsWithinTheWeather(List<TrafficBelt> allBelts, XSSFWorkbook chartsWorkbook) {
-        XSSFSheet sheet = chartsWorkbook.getSheet("Weather average speed");
-        int rowNum = 0;
-        XSSFRow row = sheet.createRow(rowNum++);
-        row.createCell(0).setCellValue("Średnia prędkość samochodów dla zadanej pogody");
-        Map<WeatherEnum, List<Long>> weatherSpeeds = new HashMap<>();
-        for (TrafficBelt belt : allBelts) {
-            for (SpeedResult result : belt.getSpeedResults()) {
-                for (Map.Entry<WeatherEnum, List<Long>> weatherEntry : result.getWeatherSpeeds().entrySet()) {
-                    if (!weatherSpeeds.containsKey(weatherEntry.getKey())) {
-                        weatherSpeeds.put(weatherEntry.getKey(), new ArrayList<>());
-                    }
-                    weatherSpeeds.get(weatherEntry.getKey()).addAll(weatherEntry.getValue());
-                }
-            }
+    public static String exportMonteCarloReport(MonteCarloReport report, File outputDirectory) {
+        HSSFWorkbook dataWorkbook = new HSSFWorkbook();
+        exportMonteCarloRuns(report, dataWorkbook);
+        exportMonteCarloSummary(report, dataWorkbook);
+        exportMonteCarloBelts(report, dataWorkbook);
+        String filename = new File(outputDirectory, "montecarlo_" + formatter.format(LocalDateTime.now()) + ".xls").getPath();
+        try (FileOutputStream fos = new FileOutputStream(filename)) {
+            dataWorkbook.write(fos);
+            return filename;
+        } catch (IOException e) {
+            e.printStackTrace();
         }
-        for (Map.Entry<WeatherEnum, List<Long>> weatherEntry : weatherSpeeds.entrySet()) {
-            double avgSpeed = 0.0;
-            for (Long speed : weatherEntry.getValue()) {
-                avgSpeed += speed;
-            }
-            if (avgSpeed != 0) {
-                avgSpeed = avgSpeed / (double) weatherEntry.getValue().size();
-            }
+        return null;
+    }
+
+    /**
+     * Funkcja tworząca arkusz 'MonteCarloRuns', w którym każdy wiersz to jedno uruchomienie symulacji
+     *
+     * @param report       Raport z połączonymi wynikami uruchomień
+     * @param dataWorkbook Workbook excelowy, do którego zapisujemy arkusz
+     */
+    private static void exportMonteCarloRuns(MonteCarloReport report, HSSFWorkbook dataWorkbook) {
+        HSSFSheet sheet = dataWorkbook.createSheet("MonteCarloRuns");
+        int rowNum = 0;
+        int cellNum = 0;
+        HSSFRow row = sheet.createRow(rowNum++);
+        row.createCell(cellNum++).setCellValue("Run");
+        row.createCell(cellNum++).setCellValue("Seed");
+        row.createCell(cellNum++).setCellValue("Cars that left the stage");
+        row.createCell(cellNum++).setCellValue("Mean average speed");
+        row.createCell(cellNum++).setCellValue("Cars with collision");
+        row.createCell(cellNum++).setCellValue("Collisions on crossings");
+        for (int i = 0; i < report.getRunsCount(); i++) {
+            SimulationRunResult run = report.getRuns().get(i);
+            cellNum = 0;
             row = sheet.createRow(rowNum++);
-            row.createCell(0).setCellValue(weatherEntry.getKey().getPlName());
-            row.createCell(1).setCellValue((int) avgSpeed);
+            row.createCell(cellNum++).setCellValue(i + 1);
+            //Ziarno zapisujemy jako tekst, bo liczba zmiennoprzecinkowa w excelu nie mieści całego zakresu long
+            row.createCell(cellNum++).setCellValue(Long.toString(run.getSeed()));
+            row.createCell(cellNum++).setCellValue(run.getAllCarsLeft());
+            row.createCell(cellNum++).setCellValue(run.getMeanAverageSpeed());
+            row.createCell(cellNum++).setCellValue(run.getCollidedCarsCount());
+            row.createCell(cellNum++).setCellValue(run.getAllCrossingCollisions());
         }
     }
 
     /**
-     * Funkcja służąca do eksportu pogrupowanych danych dla samochodów, które przekroczyły prędkość na pomiarze odcinkowym
+     * Funkcja tworząca arkusz 'MonteCarloSummary' z rozkładem (średnia, odchylenie standardowe, minimum, percentyle, maksimum)
+     * każdej z miar liczonych dla pojedynczego uruchomienia
      *
-     * @param allBelts       Wszystkie pasy drogowe
-     * @param chartsWorkbook Workbook z wykresami
+     * @param report       Raport z połączonymi wynikami uruchomień
+     * @param dataWorkbook Workbook excelowy, do którego zapisujemy arkusz
      */
-    private static void exportOverSpeedChartsWithinTheSpeed(List<TrafficBelt> allBelts, XSSFWorkbook chartsWorkbook) {
-        XSSFSheet sheet = chartsWorkbook.getSheet("Cars radar over speeds");
+    private static void exportMonteCarloSummary(MonteCarloReport report, HSSFWorkbook dataWorkbook) {
+        HSSFSheet sheet = dataWorkbook.createSheet("MonteCarloSummary");
         int rowNum = 0;
-        XSSFRow row = sheet.createRow(rowNum++);
-        row.createCell(0).setCellValue("Prędkości samochodów, które przekroczyły prędkość podczas pomiaru odcinkowego");
-        Map<String, Long> carsWithinTheSpeed = new TreeMap<>((Comparator<String>) (o1, o2) ->
-                Integer.valueOf(o1.split(" ")[0]).compareTo(Integer.valueOf(o2.split(" ")[0]))
-        );
-        long minSpeedRange = Long.MAX_VALUE, maxSpeedRange = 120L;
-
-        for (TrafficBelt belt : allBelts) {
-            for (SpeedResult result : belt.getSpeedResults()) {
-                if (!NumberUtils.isInteger(result.getRadarSpeed())) {
-                    continue;
-                }
-                if (Long.valueOf(result.getRadarSpeed()) > 120L && Long.valueOf(result.getRadarSpeed()) < 300L) {
-                    long speed = Long.valueOf(result.getRadarSpeed());
-                    long lowerBound = speed / 10 * 10;
-                    long higherBound = lowerBound + 9;
-                    if (lowerBound < minSpeedRange) {
-                        minSpeedRange = lowerBound;
-                    }
-                    if (higherBound > maxSpeedRange) {
-                        maxSpeedRange = higherBound;
-                    }
-                }
-            }
+        int cellNum = 0;
+        HSSFRow row = sheet.createRow(rowNum++);
+        row.createCell(cellNum++).setCellValue("Runs");
+        row.createCell(cellNum++).setCellValue(report.getRunsCount());
+        cellNum = 0;
+        row = sheet.createRow(rowNum++);
+        for (String header : Arrays.asList("Metric", "Mean", "Std dev", "Min", "P50", "P90", "P99", "Max")) {
+            row.createCell(cellNum++).setCellValue(header);
         }
-        //inicjalizujemy wejściowe przedziały, żeby były wszystkie, nawet puste
-        for (long i = minSpeedRange; i <= maxSpeedRange; i += 10) {
-            carsWithinTheSpeed.put(i + " - " + (i + 9), 0L);
+        Map<String, double[]> metrics = new LinkedHashMap<>();
+        metrics.put("Cars that left the stage", report.getCarsLeftPerRun());
+        metrics.put("Mean average speed", report.getMeanAverageSpeedPerRun());
+        metrics.put("Cars with collision", report.getCollidedCarsPerRun());
+        metrics.put("Collisions on crossings", report.getCrossingCollisionsPerRun());
+        for (Map.Entry<String, double[]> metric : metrics.entrySet()) {
+            double[] values = metric.getValue();
+            cellNum = 0;
+            row = sheet.createRow(rowNum++);
+            row.createCell(cellNum++).setCellValue(metric.getKey());
+            row.createCell(cellNum++).setCellValue(MonteCarloReport.mean(values));
+            row.createCell(cellNum++).setCellValue(MonteCarloReport.standardDeviation(values));
+            row.createCell(cellNum++).setCellValue(MonteCarloReport.percentile(values, 0));
+            row.createCell(cellNum++).setCellValue(MonteCarloReport.percentile(values, 50));
+            row.createCell(cellNum++).setCellValue(MonteCarloReport.percentile(values, 90));
+            row.createCell(cellNum++).setCellValue(MonteCarloReport.percentile(values, 99));
+            row.createCell(cellNum++).setCellValue(MonteCarloReport.percentile(values, 100));
         }
+    }
 
-        for (TrafficBelt belt : allBelts) {
-            for (SpeedResult result : belt.getSpeedResults()) {
-                if (!NumberUtils.isInteger(result.getRadarSpeed())) {
-                    continue;
-                }
-                if (Long.valueOf(result.getRadarSpeed()) > 120L && Long.valueOf(result.getRadarSpeed()) < 300L) {
-                    long speed = Long.valueOf(result.getRadarSpeed());
-                    long lowerBound = speed / 10 * 10;
-                    long higherBound = lowerBound + 9;
-                    String range = lowerBound + " - " + higherBound;
-                    if (!carsWithinTheSpeed.containsKey(range)) {
-                        carsWithinTheSpeed.put(range, 0L);
-                    }
-                    carsWithinTheSpeed.put(range, carsWithinTheSpeed.get(range) + 1);
-                }
-            }
+    /**
+     * Funkcja tworząca arkusz 'MonteCarloBelts' z połączonymi wynikami wszystkich uruchomień dla każdego z pasów
+     * oraz sumą zderzeń na każdym ze skrzyżowań
+     *
+     * @param report       Raport z połączonymi wynikami uruchomień
+     * @param dataWorkbook Workbook excelowy, do którego zapisujemy arkusz
+     */
+    private static void exportMonteCarloBelts(MonteCarloReport report, HSSFWorkbook dataWorkbook) {
+        HSSFSheet sheet = dataWorkbook.createSheet("MonteCarloBelts");
+        int rowNum = 0;
+        int cellNum = 0;
+        HSSFRow row = sheet.createRow(rowNum++);
+        row.createCell(cellNum++).setCellValue("Belt");
+        row.createCell(cellNum++).setCellValue("Cars that left the stage");
+        row.createCell(cellNum++).setCellValue("Cars per run");
+        row.createCell(cellNum++).setCellValue("Mean average speed");
+        row.createCell(cellNum++).setCellValue("Cars with collision");
+        row.createCell(cellNum++).setCellValue("Average speed P50");
+        row.createCell(cellNum++).setCellValue("Average speed P90");
+        row.createCell(cellNum++).setCellValue("Average speed P99");
+        for (int i = 0; i < report.getBeltLabels().size(); i++) {
+            BeltStatistics statistics = report.getMergedStatistics(i);
+            cellNum = 0;
+            row = sheet.createRow(rowNum++);
+            row.createCell(cellNum++).setCellValue(report.getBeltLabels().get(i));
+            row.createCell(cellNum++).setCellValue(report.getMergedCarsLeft(i));
+            row.createCell(cellNum++).setCellValue((double) report.getMergedCarsLeft(i) / report.getRunsCount());
+            row.createCell(cellNum++).setCellValue(statistics.getMeanAverageSpeed());
+            row.createCell(cellNum++).setCellValue(statistics.getCollidedCarsCount());
+            row.createCell(cellNum++).setCellValue(statistics.getAverageSpeedQuantiles().getPercentile(50));
+            row.createCell(cellNum++).setCellValue(statistics.getAverageSpeedQuantiles().getPercentile(90));
+            row.createCell(cellNum++).setCellValue(statistics.getAverageSpeedQuantiles().getPercentile(99));
         }
-
-        for (Map.Entry<String, Long> speedRange : carsWithinTheSpeed.entrySet()) {
+        ++rowNum;
+        for (int i = 0; i < report.getCrossingsCount(); i++) {
             row = sheet.createRow(rowNum++);
-            row.createCell(0).setCellValue(speedRange.getKey());
-            row.createCell(1).setCellValue(speedRange.getValue());
+            row.createCell(0).setCellValue("Collisions on crossing " + (i + 1));
+            row.createCell(1).setCellValue(report.getMergedCrossingCollisions(i));
         }
     }
 
     /**
-     * Funkcja służąca do eksportu pogrupowanych danych dla samochodów, które brały udział w pomiarze odcinkowym
+     * Metoda eksportująca średnie prędkości względem pogody przeliczone odpowiednio
      *
-     * @param allBelts       Wszystkie pasy drogowe
+     * @param histograms     Zagregowane rozkłady prędkości
      * @param chartsWorkbook Workbook z wykresami
      */
-    private static void exportRadarSpeedChartsWithinTheSpeed(List<TrafficBelt> allBelts, XSSFWorkbook chartsWorkbook) {
-        XSSFSheet sheet = chartsWorkbook.getSheet("Cars radar speeds");
+    private static void exportAverageSpeedChartsWithinTheWeather(SpeedHistograms histograms, XSSFWorkbook chartsWorkbook) {
+        XSSFSheet sheet = chartsWorkbook.getSheet("Weather average speed");
         int rowNum = 0;
         XSSFRow row = sheet.createRow(rowNum++);
-        row.createCell(0).setCellValue("Prędkości samochodów podczas pomiaru odcinkowego");
-        Map<String, Long> carsWithinTheSpeed = new TreeMap<>((Comparator<String>) (o1, o2) ->
-                Integer.valueOf(o1.split(" ")[0]).compareTo(Integer.valueOf(o2.split(" ")[0]))
-        );
-        long minSpeedRange = Long.MAX_VALUE, maxSpeedRange = 0L;
-
-        for (TrafficBelt belt : allBelts) {
-            for (SpeedResult result : belt.getSpeedResults()) {
-                if (!NumberUtils.isInteger(result.getRadarSpeed()) || Long.valueOf(result.getRadarSpeed()) <= 0L ||
-                        Long.valueOf(result.getRadarSpeed()) > 300L) {
-                    continue;
-                }
-                long speed = Long.valueOf(result.getRadarSpeed());
-                long lowerBound = speed / 10;
-                if (lowerBound % 2 == 1) {
-                    lowerBound--;
-                }
-                lowerBound *= 10;
-                long higherBound = lowerBound + 19;
-                if (lowerBound < minSpeedRange) {
-                    minSpeedRange = lowerBound;
-                }
-                if (higherBound > maxSpeedRange) {
-                    maxSpeedRange = higherBound;
-                }
+        row.createCell(0).setCellValue("Średnia prędkość samochodów dla zadanej pogody");
+        for (WeatherEnum weather : WeatherEnum.values()) {
+            if (!histograms.hasWeatherSpeeds(weather)) {
+                continue;
             }
+            row = sheet.createRow(rowNum++);
+            row.createCell(0).setCellValue(weather.getPlName());
+            row.createCell(1).setCellValue((int) histograms.getWeatherAverageSpeed(weather));
         }
-        //inicjalizujemy wejściowe przedziały, żeby były wszystkie, nawet puste
-        for (long i = minSpeedRange; i <= maxSpeedRange; i += 20) {
-            carsWithinTheSpeed.put(i + " - " + (i + 19), 0L);
-        }
+    }
 
-        for (TrafficBelt belt : allBelts) {
-            for (SpeedResult result : belt.getSpeedResults()) {
-                if (!NumberUtils.isInteger(result.getRadarSpeed()) || Long.valueOf(result.getRadarSpeed()) <= 0L ||
-                        Long.valueOf(result.getRadarSpeed()) > 300L) {
-                    continue;
-                }
-                long speed = Long.valueOf(result.getRadarSpeed());
-                long lowerBound = speed / 10;
-                if (lowerBound % 2 == 1) {
-                    lowerBound--;
-                }
-                lowerBound *= 10;
-                long higherBound = lowerBound + 19;
-                String range = lowerBound + " - " + higherBound;
-                if (!carsWithinTheSpeed.containsKey(range)) {
-                    carsWithinTheSpeed.put(range, 0L);
-                }
-                carsWithinTheSpeed.put(range, carsWithinTheSpeed.get(range) + 1);
-            }
-        }
+    /**
+     * Funkcja służąca do eksportu pogrupowanych danych dla samochodów, które przekroczyły prędkość na pomiarze odcinkowym
+     *
+     * @param histograms     Zagregowane rozkłady prędkości
+     * @param chartsWorkbook Workbook z wykresami
+     */
+    private static void exportOverSpeedChartsWithinTheSpeed(SpeedHistograms histograms, XSSFWorkbook chartsWorkbook) {
+        exportHistogram(chartsWorkbook.getSheet("Cars radar over speeds"),
+                "Prędkości samochodów, które przekroczyły prędkość podczas pomiaru odcinkowego", histograms.getRadarOverSpeeds());
+    }
 
-        for (Map.Entry<String, Long> speedRange : carsWithinTheSpeed.entrySet()) {
-            row = sheet.createRow(rowNum++);
-            row.createCell(0).setCellValue(speedRange.getKey());
-            row.createCell(1).setCellValue(speedRange.getValue());
-        }
+    /**
+     * Funkcja służąca do eksportu pogrupowanych danych dla samochodów, które brały udział w pomiarze odcinkowym
+     *
+     * @param histograms     Zagregowane rozkłady prędkości
+     * @param chartsWorkbook Workbook z wykresami
+     */
+    private static void exportRadarSpeedChartsWithinTheSpeed(SpeedHistograms histograms, XSSFWorkbook chartsWorkbook) {
+        exportHistogram(chartsWorkbook.getSheet("Cars radar speeds"),
+                "Prędkości samochodów podczas pomiaru odcinkowego", histograms.getRadarSpeeds());
+    }
+
+    /**
+     * Funkcja służąca do eksportu pogrupowanych danych średnich prędkości samochodów
+     *
+     * @param histograms     Zagregowane rozkłady prędkości
+     * @param chartsWorkbook Workbook z wykresami
+     */
+    private static void exportSpeedChartsWithinTheSpeed(SpeedHistograms histograms, XSSFWorkbook chartsWorkbook) {
+        exportHistogram(chartsWorkbook.getSheet("Cars avg speeds"), "Średnie prędkości samochodów", histograms.getAverageSpeeds());
     }
 
     /**
-     * Metoda eksportująca średnią prędkość samochodów z podziałem na sekcje co 20km/h
+     * Funkcja zapisująca histogram na arkuszu z wykresem: tytuł, a pod nim wszystkie przedziały (również puste)
+     * od najniższego do najwyższego niepustego przedziału w postaci 'od - do' oraz liczba samochodów
      *
-     * @param allBelts       Wszystkie pasy drogowe
-     * @param chartsWorkbook Workbook z generowanymi wykresami
+     * @param sheet     Arkusz z wykresem
+     * @param title     Tytuł wykresu
+     * @param histogram Histogram prędkości
      */
-    private static void exportSpeedChartsWithinTheSpeed(List<TrafficBelt> allBelts, XSSFWorkbook chartsWorkbook) {
-        XSSFSheet sheet = chartsWorkbook.getSheet("Cars avg speeds");
+    private static void exportHistogram(XSSFSheet sheet, String title, SpeedHistogram histogram) {
         int rowNum = 0;
         XSSFRow row = sheet.createRow(rowNum++);
-        row.createCell(0).setCellValue("Średnie prędkości samochodów");
-        Map<String, Long> carsWithinTheSpeed = new TreeMap<>((Comparator<String>) (o1, o2) ->
-                Integer.valueOf(o1.split(" ")[0]).compareTo(Integer.valueOf(o2.split(" ")[0]))
-        );
-        long minSpeedRange = Long.MAX_VALUE, maxSpeedRange = 0L;
-
-        for (TrafficBelt belt : allBelts) {
-            for (SpeedResult result : belt.getSpeedResults()) {
-                long avgSpeed = result.getAverageSpeed();
-                long lowerBound = avgSpeed / 10;
-                if (lowerBound % 2 == 1) {
-                    lowerBound--;
-                }
-                lowerBound *= 10;
-                long higherBound = lowerBound + 19;
-                if (lowerBound < minSpeedRange) {
-                    minSpeedRange = lowerBound;
-                }
-                if (higherBound > maxSpeedRange) {
-                    maxSpeedRange = higherBound;
-                }
-            }
-        }
-        //inicjalizujemy wejściowe przedziały, żeby były wszystkie, nawet puste
-        for (long i = minSpeedRange; i <= maxSpeedRange; i += 20) {
-            carsWithinTheSpeed.put(i + " - " + (i + 19), 0L);
+        row.createCell(0).setCellValue(title);
+        if (histogram.isEmpty()) {
+            return;
         }
-
-        for (TrafficBelt belt : allBelts) {
-            for (SpeedResult result : belt.getSpeedResults()) {
-                long avgSpeed = result.getAverageSpeed();
-                long lowerBound = avgSpeed / 10;
-                if (lowerBound % 2 == 1) {
-                    lowerBound--;
-                }
-                lowerBound *= 10;
-                long higherBound = lowerBound + 19;
-                String range = lowerBound + " - " + higherBound;
-                if (!carsWithinTheSpeed.containsKey(range)) {
-                    carsWithinTheSpeed.put(range, 0L);
-                }
-                carsWithinTheSpeed.put(range, carsWithinTheSpeed.get(range) + 1);
-            }
-        }
-
-        for (Map.Entry<String, Long> speedRange : carsWithinTheSpeed.entrySet()) {
+        for (int bin = histogram.getFirstBin(); bin <= histogram.getLastBin(); bin++) {
             row = sheet.createRow(rowNum++);
-            row.createCell(0).setCellValue(speedRange.getKey());
-            row.createCell(1).setCellValue(speedRange.getValue());
+            row.createCell(0).setCellValue(histogram.getLowerBound(bin) + " - " + histogram.getUpperBound(bin));
+            row.createCell(1).setCellValue(histogram.getCount(bin));
         }
     }
 
@@ -316,22 +343,29 @@ public class ExcelUtils {
      * 2. Ilość samochodów, które opuściły ekran symulacji (zliczane z wszystkich pasów drogowych)
      * 3. Kolejno panujące warunki pogodowe na drodze
      * 4. Wyszczególnienie ilości saochodów, które opuściły scenę symulacji dla każdego z pasów drogowych
+     * 5. Liczbę zderzeń na każdym ze skrzyżowań
+     * 6. Opóźnienie symulacji względem czasu rzeczywistego oraz liczbę połączonych taktów i pominiętych klatek
      *
      * @param allBelts           Lista wszystkich pasów drogowych, z których zczytujemy wyniki
+     * @param crossings          Lista wszystkich skrzyżowań, z których zczytujemy liczbę zderzeń
      * @param weatherConditions  Lista warunków pogodowych jakie panowały na drodze podczas symulacji
      * @param simulationDuration Czas trwania symulacji w sekundach
+     * @param maxLagMillis       Największe opóźnienie pętli symulacji względem czasu rzeczywistego w milisekundach
+     * @param coalescedTicksCount Liczba taktów wykonanych bez przekazania migawki do renderera
+     * @param droppedFramesCount Liczba klatek pominiętych przez renderer
      * @param dataWorkbook       Workbook excelowy, do którego zapisujemy arkusz
      */
-    private static void exportCarsSimulationTimeAndWeather(List<TrafficBelt> allBelts, List<WeatherEnum> weatherConditions,
-                                                           long simulationDuration, HSSFWorkbook dataWorkbook) {
-        HSSFSheet sheet = dataWorkbook.createSheet("SimulationSummary");
-        int rowNum = 0;
+    private static void exportCarsSimulationTimeAndWeather(List<TrafficBelt> allBelts, List<TrafficLightsAndCrossing> crossings,
+                                                           List<WeatherEnum> weatherConditions, long simulationDuration,
+                                                           double maxLagMillis, long coalescedTicksCount, long droppedFramesCount,
+                                                           Workbook dataWorkbook) {
+        StreamingSheetWriter sheet = new StreamingSheetWriter(dataWorkbook, "SimulationSummary");
         int cellNum = 0;
-        HSSFRow row = sheet.createRow(rowNum++);
+        Row row = sheet.createRow();
         row.createCell(cellNum++).setCellValue("Simulation time");
         row.createCell(cellNum++).setCellValue(simulationDuration + "s.");
         cellNum = 0;
-        row = sheet.createRow(rowNum++);
+        row = sheet.createRow();
         row.createCell(cellNum++).setCellValue("All cars that left the stage");
         long allCarsCount = 0;
         for (TrafficBelt belt : allBelts) {
@@ -339,21 +373,38 @@ public class ExcelUtils {
         }
         row.createCell(cellNum++).setCellValue(allCarsCount);
         cellNum = 0;
-        row = sheet.createRow(rowNum++);
+        row = sheet.createRow();
         row.createCell(cellNum++).setCellValue("Weather conditions");
         for (WeatherEnum weatherCondition : weatherConditions) {
             row.createCell(cellNum++).setCellValue(weatherCondition.toString());
         }
-        row = sheet.createRow(rowNum++);
+        row = sheet.createRow();
         row.createCell(0).setCellValue("Cars that left the stage on belts");
-        ++rowNum;
-        sheet.createRow(rowNum++);
+        sheet.skipRows(1);
+        sheet.createRow();
         for (TrafficBelt belt : allBelts) {
             cellNum = 0;
-            row = sheet.createRow(rowNum++);
+            row = sheet.createRow();
             row.createCell(cellNum++).setCellValue(belt.getBeltDirection().toString() + " " + belt.getBeltNumber());
             row.createCell(cellNum++).setCellValue(belt.getCarsThatLeftTheStage());
         }
+        row = sheet.createRow();
+        row.createCell(0).setCellValue("Collisions on crossings");
+        for (int i = 0; i < crossings.size(); i++) {
+            row = sheet.createRow();
+            row.createCell(0).setCellValue("Crossing " + (i + 1));
+            row.createCell(1).setCellValue(crossings.get(i).getCollisionsCount());
+        }
+        //Wskaźniki nadążania symulacji i renderera za czasem rzeczywistym
+        row = sheet.createRow();
+        row.createCell(0).setCellValue("Max lag behind real time (ms)");
+        row.createCell(1).setCellValue(maxLagMillis);
+        row = sheet.createRow();
+        row.createCell(0).setCellValue("Ticks coalesced into the next frame");
+        row.createCell(1).setCellValue(coalescedTicksCount);
+        row = sheet.createRow();
+        row.createCell(0).setCellValue("Frames dropped by the renderer");
+        row.createCell(1).setCellValue(droppedFramesCount);
     }
 
     /**
@@ -365,98 +416,94 @@ public class ExcelUtils {
      * @param allBelts     Wszystkie pasy drogowe, z których możemy zczytać wyniki symulacji
      * @param dataWorkbook Workbook excelowy, do którego zapisujemy arkusz
      */
-    private static void exportCarsThatLeftDuringTheWeather(List<TrafficBelt> allBelts, HSSFWorkbook dataWorkbook, XSSFWorkbook chartsWorkbook) {
-        HSSFSheet sheet = dataWorkbook.createSheet("CarsLeftTheStageDuringWeather");
+    private static void exportCarsThatLeftDuringTheWeather(List<TrafficBelt> allBelts, Workbook dataWorkbook, XSSFWorkbook chartsWorkbook) {
+        StreamingSheetWriter sheet = new StreamingSheetWriter(dataWorkbook, "CarsLeftTheStageDuringWeather");
         XSSFSheet chartSheet = chartsWorkbook.getSheet("CarsLeftTheStageDuringWeather");
-        int rowNum = 0;
-        Map<WeatherEnum, Long> allResultsWithoutBeltsDivision = new HashMap<>();
+        long[] allResultsWithoutBeltsDivision = new long[WeatherEnum.values().length];
         for (TrafficBelt belt : allBelts) {
-            HSSFRow row = sheet.createRow(rowNum++);
+            Row row = sheet.createRow();
             Cell cell = row.createCell(0);
             cell.setCellValue(belt.getBeltDirection().toString() + " " + belt.getBeltNumber());
-            for (Map.Entry<WeatherEnum, Long> weatherEnumLongEntry : belt.getCarsThatLeftTheStageWithWeather().entrySet()) {
-                HSSFRow entryRow = sheet.createRow(rowNum++);
-                int cellNo = 0;
-                entryRow.createCell(cellNo++).setCellValue(weatherEnumLongEntry.getKey().toString());
-                entryRow.createCell(cellNo++).setCellValue(weatherEnumLongEntry.getValue());
-
-                if (!allResultsWithoutBeltsDivision.containsKey(weatherEnumLongEntry.getKey())) {
-                    allResultsWithoutBeltsDivision.put(weatherEnumLongEntry.getKey(), 0L);
+            //Zapisujemy tylko pogody, w których jakikolwiek samochód opuścił pas
+            for (WeatherEnum weather : WeatherEnum.values()) {
+                long carsCount = belt.getCarsThatLeftTheStageWithWeather(weather);
+                if (carsCount == 0) {
+                    continue;
                 }
-                allResultsWithoutBeltsDivision.put(weatherEnumLongEntry.getKey(),
-                        allResultsWithoutBeltsDivision.get(weatherEnumLongEntry.getKey()) + weatherEnumLongEntry.getValue());
+                Row entryRow = sheet.createRow();
+                int cellNo = 0;
+                entryRow.createCell(cellNo++).setCellValue(weather.toString());
+                entryRow.createCell(cellNo++).setCellValue(carsCount);
+                allResultsWithoutBeltsDivision[weather.ordinal()] += carsCount;
             }
         }
-        rowNum += 2;
-        HSSFRow row = sheet.createRow(rowNum++);
+        sheet.skipRows(2);
+        Row row = sheet.createRow();
         row.createCell(0).setCellValue("Results without belts division:");
         int charRowNum = 0;
         chartSheet.createRow(charRowNum++).createCell(0).setCellValue("Samochody, które zakończyły symulację względem pogody");
-        for (Map.Entry<WeatherEnum, Long> weatherEnumLongEntry : allResultsWithoutBeltsDivision.entrySet()) {
+        for (WeatherEnum weather : WeatherEnum.values()) {
+            long carsCount = allResultsWithoutBeltsDivision[weather.ordinal()];
+            if (carsCount == 0) {
+                continue;
+            }
             XSSFRow charEntryRow = chartSheet.createRow(charRowNum++);
-            HSSFRow entryRow = sheet.createRow(rowNum++);
+            Row entryRow = sheet.createRow();
             int cellNo = 0;
-            charEntryRow.createCell(cellNo).setCellValue(weatherEnumLongEntry.getKey().getPlName());
-            entryRow.createCell(cellNo++).setCellValue(weatherEnumLongEntry.getKey().toString());
-            charEntryRow.createCell(cellNo).setCellValue(weatherEnumLongEntry.getValue());
-            entryRow.createCell(cellNo++).setCellValue(weatherEnumLongEntry.getValue());
+            charEntryRow.createCell(cellNo).setCellValue(weather.getPlName());
+            entryRow.createCell(cellNo++).setCellValue(weather.toString());
+            charEntryRow.createCell(cellNo).setCellValue(carsCount);
+            entryRow.createCell(cellNo++).setCellValue(carsCount);
         }
     }
 
     /**
      * Funkcja tworząca arkusz 'Collisions'.
      * Zapisuje kolejno:
-     * Funkcja ta dla każdego z pasów i dla każdego z samochodów, zlicza w jakiej pogodzie ile było wypadków na danym pasie i zapisuje te wartości
+     * Funkcja ta dla każdego z pasów zapisuje ze statystyk pasa, w jakiej pogodzie ile było wypadków na danym pasie
      * Potem zapisywane jest podsumowanie względem pogody, bez pasów
      *
      * @param allBelts     Lista wszystkich pasów drogowych, z których zczytujemy wyniki
      * @param dataWorkbook Workbook excelowy, do którego zapisujemy arkusz
      */
-    private static void exportCollisions(List<TrafficBelt> allBelts, HSSFWorkbook dataWorkbook, XSSFWorkbook chartsWorkbook) {
-        HSSFSheet sheet = dataWorkbook.createSheet("Collisions");
+    private static void exportCollisions(List<TrafficBelt> allBelts, Workbook dataWorkbook, XSSFWorkbook chartsWorkbook) {
+        StreamingSheetWriter sheet = new StreamingSheetWriter(dataWorkbook, "Collisions");
         XSSFSheet chartsSheet = chartsWorkbook.getSheet("Collisions");
-        int rowNum = 0;
-        Map<WeatherEnum, Integer> collisionsInWeather = new HashMap<>();
+        Map<WeatherEnum, Long> collisionsInWeather = new EnumMap<>(WeatherEnum.class);
         for (TrafficBelt belt : allBelts) {
-            HSSFRow row = sheet.createRow(rowNum++);
+            Row row = sheet.createRow();
             Cell cell = row.createCell(0);
             cell.setCellValue(belt.getBeltDirection().toString() + " " + belt.getBeltNumber());
-            Map<WeatherEnum, Integer> collisionsInWeatherForBelt = new HashMap<>();
-            for (SpeedResult speedResult : belt.getSpeedResults()) {
-                if (speedResult.isHadCollision()) {
-                    if (!collisionsInWeather.containsKey(speedResult.getCollisionWeather())) {
-                        collisionsInWeather.put(speedResult.getCollisionWeather(), 0);
-                    }
-                    if (!collisionsInWeatherForBelt.containsKey(speedResult.getCollisionWeather())) {
-                        collisionsInWeatherForBelt.put(speedResult.getCollisionWeather(), 0);
-                    }
-                    collisionsInWeatherForBelt
-                            .put(speedResult.getCollisionWeather(), collisionsInWeatherForBelt.get(speedResult.getCollisionWeather()) + 1);
-                    collisionsInWeather.put(speedResult.getCollisionWeather(), collisionsInWeather.get(speedResult.getCollisionWeather()) + 1);
+            //Liczniki wypadków w każdej z pogód są zbierane w statystykach pasa w trakcie symulacji
+            BeltStatistics statistics = belt.getStatistics();
+            boolean beltHadCollisions = false;
+            for (WeatherEnum weather : WeatherEnum.values()) {
+                long collisions = statistics.getCollisionsCount(weather);
+                if (collisions == 0) {
+                    continue;
                 }
+                beltHadCollisions = true;
+                collisionsInWeather.merge(weather, collisions, Long::sum);
+                row = sheet.createRow();
+                row.createCell(0).setCellValue(weather.name());
+                row.createCell(1).setCellValue(collisions);
             }
-            if (collisionsInWeatherForBelt.isEmpty()) {
-                sheet.createRow(rowNum++).createCell(0).setCellValue("No collisions detected");
-            } else {
-                for (Map.Entry<WeatherEnum, Integer> weatherBeltCollisionEntry : collisionsInWeatherForBelt.entrySet()) {
-                    row = sheet.createRow(rowNum++);
-                    row.createCell(0).setCellValue(weatherBeltCollisionEntry.getKey().name());
-                    row.createCell(1).setCellValue(weatherBeltCollisionEntry.getValue());
-                }
+            if (!beltHadCollisions) {
+                sheet.createRow().createCell(0).setCellValue("No collisions detected");
             }
         }
-        rowNum += 2;
+        sheet.skipRows(2);
         int chartsRowNum = 0;
-        sheet.createRow(rowNum++).createCell(0).setCellValue("Summary");
+        sheet.createRow().createCell(0).setCellValue("Summary");
         chartsSheet.createRow(chartsRowNum++).createCell(0).setCellValue("Liczba samochodów biorących udział w kolizji względem pogody");
         if (collisionsInWeather.isEmpty()) {
-            sheet.createRow(rowNum++).createCell(0).setCellValue("No collisions detected");
+            sheet.createRow().createCell(0).setCellValue("No collisions detected");
             XSSFRow chartsRow = chartsSheet.createRow(chartsRowNum++);
             chartsRow.createCell(0).setCellValue("Brak kolizji");
             chartsRow.createCell(1).setCellValue(0);
         } else {
-            for (Map.Entry<WeatherEnum, Integer> weatherBeltCollisionEntry : collisionsInWeather.entrySet()) {
-                HSSFRow row = sheet.createRow(rowNum++);
+            for (Map.Entry<WeatherEnum, Long> weatherBeltCollisionEntry : collisionsInWeather.entrySet()) {
+                Row row = sheet.createRow();
                 XSSFRow chartsRow = chartsSheet.createRow(chartsRowNum++);
                 row.createCell(0).setCellValue(weatherBeltCollisionEntry.getKey().name());
                 row.createCell(1).setCellValue(weatherBeltCollisionEntry.getValue());
@@ -474,24 +521,27 @@ public class ExcelUtils {
      * @param allBelts     Wszystkie pasy drogowe, z których możemy zczytać wyniki symulacji
      * @param dataWorkbook Workbook excelowy, do którego zapisujemy arkusz
      */
-    private static void exportSpeedDuringTheWeather(List<TrafficBelt> allBelts, HSSFWorkbook dataWorkbook) {
-        HSSFSheet sheet = dataWorkbook.createSheet("SpeedForWeather");
-        int rowNum = 0;
+    private static void exportSpeedDuringTheWeather(List<TrafficBelt> allBelts, Workbook dataWorkbook) {
+        StreamingSheetWriter sheet = new StreamingSheetWriter(dataWorkbook, "SpeedForWeather");
         for (TrafficBelt belt : allBelts) {
-            HSSFRow row = sheet.createRow(rowNum++);
+            Row row = sheet.createRow();
             Cell cell = row.createCell(0);
             cell.setCellValue(belt.getBeltDirection().toString() + " " + belt.getBeltNumber());
             for (SpeedResult speedResult : belt.getSpeedResults()) {
-                for (WeatherEnum weather : speedResult.getWeatherSpeeds().keySet()) {
-                    if (speedResult.getWeatherSpeeds().get(weather).size() == 1 && speedResult.getWeatherSpeeds().get(weather).get(0) == 0L) {
+                WeatherSpeeds weatherSpeeds = speedResult.getWeatherSpeeds();
+                for (WeatherEnum weather : WeatherEnum.values()) {
+                    //Pomijamy pogody, w których samochód nie jechał, oraz pojedyncze zerowe odcinki
+                    int count = weatherSpeeds.getCount(weather);
+                    if (count == 0 || (count == 1 && weatherSpeeds.getSum(weather) == 0L)) {
                         continue;
                     }
-                    HSSFRow speedRow = sheet.createRow(rowNum++);
+                    Row speedRow = sheet.createRow();
                     int cellNo = 0;
                     Cell weatherNameCell = speedRow.createCell(cellNo++);
                     weatherNameCell.setCellValue(weather.toString());
-                    for (Long speed : speedResult.getWeatherSpeeds().get(weather)) {
-                        if (speed == 0) {
+                    for (int segment = 0; segment < weatherSpeeds.getSegmentsCount(); segment++) {
+                        long speed = weatherSpeeds.getSpeed(segment);
+                        if (weatherSpeeds.getWeather(segment) != weather || speed == 0) {
                             continue;
                         }
                         speedRow.createCell(cellNo++).setCellValue(speed);
@@ -501,6 +551,74 @@ public class ExcelUtils {
         }
     }
 
+    /**
+     * Funkcja tworząca arkusz 'SpeedPercentiles'
+     * Dla każdego z pasów, a na końcu dla wszystkich pasów razem, zapisuje percentyle średnich prędkości,
+     * prędkości z pomiaru odcinkowego, prędkości w każdej z pogód oraz czasów dojazdu do każdego ze skrzyżowań.
+     * Percentyle odczytywane są ze szkiców zbieranych w statystykach pasów w trakcie symulacji
+     *
+     * @param allBelts     Wszystkie pasy drogowe, z których możemy zczytać wyniki symulacji
+     * @param dataWorkbook Workbook excelowy, do którego zapisujemy arkusz
+     */
+    private static void exportPercentiles(List<TrafficBelt> allBelts, Workbook dataWorkbook) {
+        StreamingSheetWriter sheet = new StreamingSheetWriter(dataWorkbook, "SpeedPercentiles");
+        int cellNum = 0;
+        Row row = sheet.createRow();
+        for (String header : Arrays.asList("Metric", "Count", "Min", "P50", "P90", "P99", "Max")) {
+            row.createCell(cellNum++).setCellValue(header);
+        }
+        BeltStatistics allStatistics = new BeltStatistics();
+        for (TrafficBelt belt : allBelts) {
+            BeltStatistics statistics = belt.getStatistics();
+            allStatistics.merge(statistics);
+            sheet.createRow().createCell(0).setCellValue(belt.getBeltDirection().toString() + " " + belt.getBeltNumber());
+            exportPercentiles(statistics, sheet);
+        }
+        sheet.skipRows(1);
+        sheet.createRow().createCell(0).setCellValue("All belts");
+        exportPercentiles(allStatistics, sheet);
+    }
+
+    /**
+     * Funkcja pomocnicza zapisująca wiersze z percentylami wszystkich szkiców z zadanych statystyk (pomijając puste szkice)
+     *
+     * @param statistics Statystyki pasa lub wszystkich pasów
+     * @param sheet      Arkusz, do którego zapisujemy wiersze
+     */
+    private static void exportPercentiles(BeltStatistics statistics, StreamingSheetWriter sheet) {
+        exportPercentilesRow(sheet, "AverageSpeed", statistics.getAverageSpeedQuantiles());
+        exportPercentilesRow(sheet, "RadarMeasuredSpeed", statistics.getRadarSpeedQuantiles());
+        for (WeatherEnum weather : WeatherEnum.values()) {
+            exportPercentilesRow(sheet, "Speed " + weather.name(), statistics.getWeatherSpeedQuantiles(weather));
+        }
+        for (int crossingIndex : statistics.getApproachCrossings()) {
+            exportPercentilesRow(sheet, "Travel time to crossing " + (crossingIndex + 1) + " [ms]",
+                statistics.getApproachTravelTimes(crossingIndex));
+        }
+    }
+
+    /**
+     * Funkcja pomocnicza zapisująca jeden wiersz z liczbą wartości, minimum, percentylami 50, 90, 99 i maksimum szkicu
+     *
+     * @param sheet     Arkusz, do którego zapisujemy wiersz
+     * @param label     Opis wiersza
+     * @param quantiles Szkic percentyli (pusty szkic nie jest zapisywany)
+     */
+    private static void exportPercentilesRow(StreamingSheetWriter sheet, String label, QuantileSketch quantiles) {
+        if (quantiles.getCount() == 0) {
+            return;
+        }
+        int cellNum = 0;
+        Row row = sheet.createRow();
+        row.createCell(cellNum++).setCellValue(label);
+        row.createCell(cellNum++).setCellValue(quantiles.getCount());
+        row.createCell(cellNum++).setCellValue(quantiles.getMin());
+        row.createCell(cellNum++).setCellValue(quantiles.getPercentile(50));
+        row.createCell(cellNum++).setCellValue(quantiles.getPercentile(90));
+        row.createCell(cellNum++).setCellValue(quantiles.getPercentile(99));
+        row.createCell(cellNum++).setCellValue(quantiles.getMax());
+    }
+
     /**
      * Funkcja tworząca arkusz 'OverSpeedMeasurements'
      * Funkcja zbiera z wszystkich samochodów odcinkowe pomiary prędkości na poszczególnych pasach (jeśli istnieje),
@@ -510,21 +628,21 @@ public class ExcelUtils {
      * @param allBelts     Wszystkie pasy drogowe, z których możemy zczytać wyniki symulacji
      * @param dataWorkbook Workbook excelowy, do którego zapisujemy arkusz
      */
-    private static void exportOverSpeedMeasurements(List<TrafficBelt> allBelts, HSSFWorkbook dataWorkbook) {
-        HSSFSheet sheet = dataWorkbook.createSheet("OverSpeedMeasurements");
-        int rowNum = 0;
+    private static void exportOverSpeedMeasurements(List<TrafficBelt> allBelts, Workbook dataWorkbook) {
+        StreamingSheetWriter sheet = new StreamingSheetWriter(dataWorkbook, "OverSpeedMeasurements");
         for (TrafficBelt belt : allBelts) {
-            HSSFRow row = sheet.createRow(rowNum++);
+            Row row = sheet.createRow();
             Cell cell = row.createCell(0);
             cell.setCellValue(belt.getBeltDirection().toString() + " " + belt.getBeltNumber());
             for (SpeedResult speedResult : belt.getSpeedResults()) {
-                if (NumberUtils.isInteger(speedResult.getRadarSpeed()) && Integer.parseInt(speedResult.getRadarSpeed()) > 120
-                        && Integer.parseInt(speedResult.getRadarSpeed()) < 300) {
-                    HSSFRow speedRow = sheet.createRow(rowNum++);
+                long radarSpeed = speedResult.getRadarSpeed();
+                if (speedResult.isRadarSpeedValid() && radarSpeed > SpeedHistograms.SPEED_LIMIT
+                    && radarSpeed < SpeedHistograms.MAX_RADAR_SPEED) {
+                    Row speedRow = sheet.createRow();
                     Cell radarSpeedCell = speedRow.createCell(0);
                     Cell radarSpeedValCell = speedRow.createCell(1);
                     radarSpeedCell.setCellValue("RadarMeasuredOverSpeed:");
-                    radarSpeedValCell.setCellValue(Integer.parseInt(speedResult.getRadarSpeed()));
+                    radarSpeedValCell.setCellValue(radarSpeed);
                 }
             }
         }
@@ -538,24 +656,22 @@ public class ExcelUtils {
      * @param allBelts     Lista wszystkich pasów drogowych, z których zczytujemy wyniki
      * @param dataWorkbook Workbook excelowy, do którego zapisujemy arkusz
      */
-    private static void exportSpeedMeasurements(List<TrafficBelt> allBelts, HSSFWorkbook dataWorkbook) {
-        HSSFSheet sheet = dataWorkbook.createSheet("SpeedMeasurements");
-        int rowNum = 0;
+    private static void exportSpeedMeasurements(List<TrafficBelt> allBelts, Workbook dataWorkbook) {
+        StreamingSheetWriter sheet = new StreamingSheetWriter(dataWorkbook, "SpeedMeasurements");
 
         for (TrafficBelt belt : allBelts) {
-            HSSFRow row = sheet.createRow(rowNum++);
+            Row row = sheet.createRow();
             Cell cell = row.createCell(0);
             cell.setCellValue(belt.getBeltDirection().toString() + " " + belt.getBeltNumber());
             for (SpeedResult speedResult : belt.getSpeedResults()) {
-                HSSFRow speedRow = sheet.createRow(rowNum++);
+                Row speedRow = sheet.createRow();
                 Cell radarSpeedCell = speedRow.createCell(0);
                 Cell radarSpeedValCell = speedRow.createCell(1);
                 radarSpeedCell.setCellValue("RadarMeasuredSpeed:");
-                if (NumberUtils.isInteger(speedResult.getRadarSpeed()) && Integer.parseInt(speedResult.getRadarSpeed()) > 0
-                        && Integer.parseInt(speedResult.getRadarSpeed()) < 300) {
-                    radarSpeedValCell.setCellValue(Integer.parseInt(speedResult.getRadarSpeed()));
-                } else {
+                if (speedResult.isRadarSpeedMeasured()) {
                     radarSpeedValCell.setCellValue(speedResult.getRadarSpeed());
+                } else {
+                    radarSpeedValCell.setCellValue("n/a");
                 }
             }
         }
@@ -569,16 +685,15 @@ public class ExcelUtils {
      * @param allBelts     Lista wszystkich pasów drogowych, z których zczytujemy wyniki
      * @param dataWorkbook Workbook excelowy, do którego zapisujemy arkusz
      */
-    private static void exportSpeeds(List<TrafficBelt> allBelts, HSSFWorkbook dataWorkbook) {
-        HSSFSheet sheet = dataWorkbook.createSheet("AverageSpeedResults");
-        int rowNum = 0;
+    private static void exportSpeeds(List<TrafficBelt> allBelts, Workbook dataWorkbook) {
+        StreamingSheetWriter sheet = new StreamingSheetWriter(dataWorkbook, "AverageSpeedResults");
 
         for (TrafficBelt belt : allBelts) {
-            HSSFRow row = sheet.createRow(rowNum++);
+            Row row = sheet.createRow();
             Cell cell = row.createCell(0);
             cell.setCellValue(belt.getBeltDirection().toString() + " " + belt.getBeltNumber());
             for (SpeedResult speedResult : belt.getSpeedResults()) {
-                HSSFRow speedRow = sheet.createRow(rowNum++);
+                Row speedRow = sheet.createRow();
                 Cell avgSpeedCell = speedRow.createCell(0);
                 Cell avgSpeedValCell = speedRow.createCell(1);
                 avgSpeedCell.setCellValue("AverageSpeed:");
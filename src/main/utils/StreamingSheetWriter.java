@@ -0,0 +1,93 @@
+package main.utils;
+
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+
+/**
+ * Created by Krzysztof Baran
+ * Zapis kolejnych wierszy arkusza z wynikami dla poszczególnych samochodów.
+ * Wiersze tworzone są wyłącznie po kolei (czego wymaga strumieniowy workbook), a po osiągnięciu limitu wierszy
+ * formatu xlsx zapis jest kontynuowany w kolejnym arkuszu o nazwie z numerem, np. 'AverageSpeedResults (2)'
+ */
+public class StreamingSheetWriter {
+    /**
+     * Maksymalna liczba wierszy w arkuszu formatu xlsx
+     */
+    private static final int MAX_ROWS = SpreadsheetVersion.EXCEL2007.getMaxRows();
+    /**
+     * Workbook, do którego zapisywane są arkusze
+     */
+    private final Workbook workbook;
+    /**
+     * Nazwa pierwszego arkusza (kolejne arkusze otrzymują numer)
+     */
+    private final String sheetName;
+    /**
+     * Maksymalna liczba wierszy w jednym arkuszu
+     */
+    private final int maxRows;
+    /**
+     * Aktualnie zapisywany arkusz
+     */
+    private Sheet sheet;
+    /**
+     * Liczba arkuszy utworzonych do tej pory
+     */
+    private int sheetsCount;
+    /**
+     * Numer kolejnego wiersza w aktualnym arkuszu
+     */
+    private int rowNum;
+
+    /**
+     * Konstruktor tworzący pierwszy arkusz
+     * @param workbook Workbook, do którego zapisywane są arkusze
+     * @param sheetName Nazwa pierwszego arkusza
+     */
+    public StreamingSheetWriter(Workbook workbook, String sheetName) {
+        this(workbook, sheetName, MAX_ROWS);
+    }
+
+    /**
+     * Konstruktor tworzący pierwszy arkusz, z zadaną maksymalną liczbą wierszy w arkuszu
+     * @param workbook Workbook, do którego zapisywane są arkusze
+     * @param sheetName Nazwa pierwszego arkusza
+     * @param maxRows Maksymalna liczba wierszy w jednym arkuszu
+     */
+    public StreamingSheetWriter(Workbook workbook, String sheetName, int maxRows) {
+        this.workbook = workbook;
+        this.sheetName = sheetName;
+        this.maxRows = Math.min(maxRows, MAX_ROWS);
+        nextSheet();
+    }
+
+    /**
+     * Utworzenie kolejnego wiersza (w nowym arkuszu, jeśli aktualny jest pełny)
+     * @return Utworzony wiersz
+     */
+    public Row createRow() {
+        if (rowNum >= maxRows) {
+            nextSheet();
+        }
+        return sheet.createRow(rowNum++);
+    }
+
+    /**
+     * Pominięcie zadanej liczby pustych wierszy (nie przechodzi do kolejnego arkusza)
+     * @param count Liczba pomijanych wierszy
+     */
+    public void skipRows(int count) {
+        rowNum = Math.min(rowNum + count, maxRows);
+    }
+
+    /**
+     * Utworzenie kolejnego arkusza i zapis od jego pierwszego wiersza
+     */
+    private void nextSheet() {
+        sheetsCount++;
+        sheet = workbook.createSheet(sheetsCount == 1 ? sheetName : sheetName + " (" + sheetsCount + ")");
+        rowNum = 0;
+    }
+}
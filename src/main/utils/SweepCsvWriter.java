@@ -0,0 +1,68 @@
+package main.utils;
+
+import main.model.SimulationParameters;
+import main.model.results.SweepResult;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * Created by Krzysztof Baran
+ * Zapis podsumowań przeglądu parametrów do pliku CSV na bieżąco - każde podsumowanie to jeden wiersz,
+ * zapisywany i opróżniany z bufora zaraz po zakończeniu konfiguracji, więc częściowe wyniki długiego przeglądu
+ * są dostępne w trakcie jego trwania
+ */
+public class SweepCsvWriter implements Consumer<SweepResult>, Closeable {
+    /**
+     * Nagłówek pliku CSV
+     */
+    private static final String HEADER = "configuration,verticalBeltsCount,verticalBelts2Count,horizontalBeltsCount,carsLimit,weather,"
+        + "algorithm,runs,carsLeftMean,carsLeftStdDev,averageSpeedMean,collidedCarsMean,crossingCollisionsMean,wallTimeMillis";
+    /**
+     * Strumień, do którego zapisywane są wiersze
+     */
+    private final PrintWriter writer;
+
+    /**
+     * Konstruktor zapisujący od razu nagłówek pliku
+     * @param writer Strumień, do którego zapisywane są wiersze
+     */
+    public SweepCsvWriter(Writer writer) {
+        this.writer = new PrintWriter(writer);
+        this.writer.println(HEADER);
+        this.writer.flush();
+    }
+
+    /**
+     * Zapisanie wiersza z podsumowaniem konfiguracji
+     * @param result Podsumowanie konfiguracji
+     */
+    @Override
+    public synchronized void accept(SweepResult result) {
+        SimulationParameters parameters = result.getParameters();
+        //Pogoda losowa (null) zapisywana jest jako RANDOM
+        String weather = parameters.getWeatherConditions() == null ? "RANDOM" : parameters.getWeatherConditions().toString();
+        writer.println(String.format(Locale.ROOT, "%d,%d,%d,%d,%d,%s,%s,%d,%.2f,%.2f,%.2f,%.2f,%.2f,%d",
+            result.getConfigurationIndex(), parameters.getVerticalBeltsCount(), parameters.getVerticalBelts2Count(),
+            parameters.getHorizontalBeltsCount(), parameters.getCarsLimit(), weather, parameters.getAlgorithmType(),
+            result.getRunsCount(), result.getCarsLeftMean(), result.getCarsLeftStdDev(), result.getAverageSpeedMean(),
+            result.getCollidedCarsMean(), result.getCrossingCollisionsMean(), result.getWallTimeMillis()));
+        writer.flush();
+    }
+
+    /**
+     * Zamknięcie strumienia
+     * @throws IOException Jeśli nie udało się zapisać danych
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+        if (writer.checkError()) {
+            throw new IOException("Could not write sweep results");
+        }
+    }
+}
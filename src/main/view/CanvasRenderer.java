@@ -0,0 +1,260 @@
+package main.view;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import main.controllers.SimulationController;
+import main.model.Car;
+import main.model.SpeedRadar;
+import main.model.TrafficLightsAndCrossing;
+import main.model.belts.TrafficBelt;
+import main.model.enums.LightColorEnum;
+import main.model.enums.WeatherEnum;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Created by Krzysztof Baran
+ * Renderer rysujący całą symulację na jednym obiekcie Canvas.
+ * W przeciwieństwie do SceneGraphRenderer samochody nie są węzłami sceny - w każdej klatce animacji cała scena
+ * (pasy, skrzyżowania ze światłami, radary, znaki i samochody) jest rysowana na nowo z tablic pozycji ostatniej migawki,
+ * więc koszt klatki nie zależy od liczby dodanych i usuniętych węzłów, a tempo rysowania wyznacza puls JavaFX
+ */
+public class CanvasRenderer implements SimulationRenderer {
+    /**
+     * Rozmiar obrazka ze światłami (użyty do wycentrowania pozycji)
+     */
+    private static final int LIGHTS_IMAGE_SIZE = 14;
+    /**
+     * Kolor wypełnienia pasów i skrzyżowań
+     */
+    private static final Color ROAD_COLOR = Color.web("0x34495E");
+    /**
+     * Kolor obramowania pasów
+     */
+    private static final Color ROAD_STROKE_COLOR = Color.web("0xC9CED4");
+    /**
+     * Panel główny symulacji, na którym umieszczany jest Canvas
+     */
+    private final Pane terrainMainPanel;
+    /**
+     * Szerokość okna symulacji
+     */
+    private final double windowWidth;
+    /**
+     * Obsługa zakończenia symulacji (pokazanie ekranu podsumowania)
+     */
+    private final Consumer<List<String>> resultsHandler;
+    /**
+     * Canvas, na którym rysowana jest cała symulacja
+     */
+    private final Canvas canvas;
+    /**
+     * Skrzynka na migawki - wątek symulacji wkłada do niej migawki, a wątek UI pobiera ostatnią w każdej klatce animacji
+     */
+    private final FrameMailbox frameMailbox = new FrameMailbox();
+    /**
+     * Timer animacji JavaFX, wołany w każdym pulsie wątku UI
+     */
+    private final AnimationTimer animationTimer;
+    /**
+     * Prostokąty pasów (x, y, szerokość, wysokość)
+     */
+    private double[][] beltRects = new double[0][];
+    /**
+     * Prostokąty skrzyżowań (x1, y1, x2, y2)
+     */
+    private int[][] crossingRects = new int[0][];
+    /**
+     * Pozycje radarów i znaków ograniczenia prędkości (lewy górny róg)
+     */
+    private double[][] radarPositions = new double[0][], speedLimitPositions = new double[0][];
+    /**
+     * Ostatnio narysowana migawka (przed startem symulacji migawka z początkowymi kolorami świateł)
+     */
+    private FrameUpdate currentFrame;
+    /**
+     * Aktualne warunki pogodowe
+     */
+    private WeatherEnum weatherConditions;
+
+    /**
+     * Konstruktor renderera
+     * @param terrainMainPanel Panel główny symulacji
+     * @param windowWidth Szerokość okna symulacji
+     * @param windowHeight Wysokość okna symulacji
+     * @param resultsHandler Obsługa zakończenia symulacji, wołana w wątku UI
+     */
+    public CanvasRenderer(Pane terrainMainPanel, double windowWidth, double windowHeight, Consumer<List<String>> resultsHandler) {
+        this.terrainMainPanel = terrainMainPanel;
+        this.windowWidth = windowWidth;
+        this.resultsHandler = resultsHandler;
+        this.canvas = new Canvas(windowWidth, windowHeight);
+        this.animationTimer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                drawLatestFrame();
+            }
+        };
+    }
+
+    /**
+     * Metoda zapamiętująca położenie statycznych elementów sceny i umieszczająca Canvas na panelu
+     * @param simulationController Kontroler symulacji, którego stan ma być prezentowany
+     */
+    @Override
+    public void bind(SimulationController simulationController) {
+        //Zapamiętujemy prostokąty pasów
+        List<TrafficBelt> belts = simulationController.getAllBelts();
+        beltRects = new double[belts.size()][];
+        for (int i = 0; i < belts.size(); i++) {
+            TrafficBelt belt = belts.get(i);
+            beltRects[i] = new double[] {belt.getXPos(), belt.getYPos(), belt.getWidth(), belt.getHeight()};
+        }
+        //Zapamiętujemy prostokąty skrzyżowań
+        List<TrafficLightsAndCrossing> crossings = simulationController.getCrossings();
+        crossingRects = new int[crossings.size()][];
+        for (int i = 0; i < crossings.size(); i++) {
+            TrafficLightsAndCrossing crossing = crossings.get(i);
+            crossingRects[i] = new int[] {crossing.getX1(), crossing.getY1(), crossing.getX2(), crossing.getY2()};
+        }
+        //Do czasu pierwszej migawki rysujemy początkowe kolory świateł bez samochodów
+        LightColorEnum[] verticalLights = new LightColorEnum[crossings.size()];
+        LightColorEnum[] horizontalLights = new LightColorEnum[crossings.size()];
+        for (int i = 0; i < crossings.size(); i++) {
+            verticalLights[i] = crossings.get(i).getVerticalLight();
+            horizontalLights[i] = crossings.get(i).getHorizontalLight();
+        }
+        currentFrame = new FrameUpdate(0, Collections.emptyList(), Collections.emptyList(), new Car[0], new int[0], new int[0],
+            verticalLights, horizontalLights, null);
+        //Obliczamy pozycje radarów, a na środku pomiędzy każdą parą radarów umieszczamy ograniczenie prędkości
+        List<SpeedRadar> radars = simulationController.getSpeedRadars();
+        if (radars != null && !radars.isEmpty()) {
+            double radarSize = SpriteCache.getRadar().getWidth();
+            double signSize = SpriteCache.getSpeedLimit().getWidth();
+            radarPositions = new double[radars.size()][];
+            for (int i = 0; i < radars.size(); i++) {
+                radarPositions[i] = new double[] {radars.get(i).getX() - radarSize / 2.0, radars.get(i).getY()};
+            }
+            speedLimitPositions = new double[radars.size() / 2][];
+            for (int i = 0; i + 1 < radars.size(); i += 2) {
+                double lowerX = Math.min(radarPositions[i][0], radarPositions[i + 1][0]);
+                double biggerX = Math.max(radarPositions[i][0], radarPositions[i + 1][0]);
+                double x = lowerX + (biggerX - lowerX) / 2.0 + 10;
+                speedLimitPositions[i / 2] = new double[] {x - signSize / 2.0, radarPositions[i][1]};
+            }
+        }
+        weatherConditions = simulationController.getWeatherConditions();
+        //Canvas umieszczamy pod przyciskiem startu symulacji
+        terrainMainPanel.getChildren().add(0, canvas);
+        draw();
+        animationTimer.start();
+    }
+
+    @Override
+    public void runInRenderThread(Runnable task) {
+        Platform.runLater(task);
+    }
+
+    /**
+     * Metoda przekazująca migawkę do skrzynki, z której pobierze ją najbliższa klatka animacji.
+     * Migawki, których wątek UI nie zdążył narysować, są łączone
+     * @param frame Migawka zmian na scenie
+     */
+    @Override
+    public void renderFrame(FrameUpdate frame) {
+        frameMailbox.offer(frame);
+    }
+
+    /**
+     * Metoda wołana w każdej klatce animacji, rysująca ostatnią migawkę, jeśli pojawiła się nowa
+     */
+    private void drawLatestFrame() {
+        FrameUpdate frame = frameMailbox.take();
+        if (frame == null) {
+            return;
+        }
+        if (frame.getWeatherConditions() != null) {
+            weatherConditions = frame.getWeatherConditions();
+        }
+        currentFrame = frame;
+        draw();
+    }
+
+    /**
+     * Narysowanie całej sceny: pasów, skrzyżowań ze światłami, radarów, znaków, samochodów i znaku pogody
+     */
+    private void draw() {
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        //Czyścimy Canvas, tło (trawa) pochodzi z panelu głównego
+        gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        gc.setFill(ROAD_COLOR);
+        gc.setStroke(ROAD_STROKE_COLOR);
+        for (double[] rect : beltRects) {
+            gc.fillRect(rect[0], rect[1], rect[2], rect[3]);
+            gc.strokeRect(rect[0], rect[1], rect[2], rect[3]);
+        }
+        for (int i = 0; i < crossingRects.length; i++) {
+            int[] rect = crossingRects[i];
+            gc.fillRect(rect[0], rect[1], rect[2] - rect[0], rect[3] - rect[1]);
+            drawLights(rect, currentFrame.getVerticalLight(i), currentFrame.getHorizontalLight(i));
+        }
+        //Obrazy z pamięci obrazów są już przeskalowane, więc rysujemy je bez skalowania
+        for (double[] position : radarPositions) {
+            gc.drawImage(SpriteCache.getRadar(), position[0], position[1]);
+        }
+        for (double[] position : speedLimitPositions) {
+            gc.drawImage(SpriteCache.getSpeedLimit(), position[0], position[1]);
+        }
+        for (int i = 0; i < currentFrame.getCarsCount(); i++) {
+            gc.drawImage(SpriteCache.getCar(currentFrame.getCar(i).getDirection()), currentFrame.getCarX(i), currentFrame.getCarY(i));
+        }
+        gc.drawImage(SpriteCache.getWeatherSign(weatherConditions), windowWidth / 2.0 - SpriteCache.WEATHER_SIGN_WIDTH / 2.0, 0);
+    }
+
+    /**
+     * Narysowanie świateł na skrzyżowaniu - pionowych na środku górnej i dolnej krawędzi,
+     * poziomych na środku lewej i prawej krawędzi
+     * @param rect Prostokąt skrzyżowania (x1, y1, x2, y2)
+     * @param vertical Kolor świateł pionowych
+     * @param horizontal Kolor świateł poziomych
+     */
+    private void drawLights(int[] rect, LightColorEnum vertical, LightColorEnum horizontal) {
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        int x1 = rect[0], y1 = rect[1], x2 = rect[2], y2 = rect[3];
+        Image verticalImage = SpriteCache.getLight(vertical);
+        gc.drawImage(verticalImage, x1 + (x2 - x1) / 2 - LIGHTS_IMAGE_SIZE / 2, y1);
+        gc.drawImage(verticalImage, x1 + (x2 - x1) / 2 - LIGHTS_IMAGE_SIZE / 2, y2 - LIGHTS_IMAGE_SIZE);
+        Image horizontalImage = SpriteCache.getLight(horizontal);
+        gc.drawImage(horizontalImage, x1, y1 + (y2 - y1) / 2 - LIGHTS_IMAGE_SIZE / 2);
+        gc.drawImage(horizontalImage, x2 - LIGHTS_IMAGE_SIZE, y1 + (y2 - y1) / 2 - LIGHTS_IMAGE_SIZE / 2);
+    }
+
+    @Override
+    public boolean consumesFrames() {
+        return true;
+    }
+
+    @Override
+    public long getDroppedFramesCount() {
+        return frameMailbox.getDroppedFramesCount();
+    }
+
+    /**
+     * Zatrzymanie animacji i przekazanie wyników do obsługi zakończenia symulacji
+     * @param resFilenames Nazwy plików z wynikami symulacji
+     */
+    @Override
+    public void showResults(List<String> resFilenames) {
+        //Rysujemy ostatnią migawkę, która mogła nie zostać jeszcze narysowana
+        drawLatestFrame();
+        animationTimer.stop();
+        resultsHandler.accept(resFilenames);
+    }
+}
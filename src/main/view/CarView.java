@@ -0,0 +1,30 @@
+package main.view;
+
+import javafx.scene.image.ImageView;
+import main.model.enums.DirectionEnum;
+
+/**
+ * Created by Krzysztof Baran
+ * Graficzna reprezentacja samochodu na scenie.
+ * Dziedziczy po ImageView przez co sama w sobie jest obiektem sceny, którego pozycja ustawiana jest z migawki symulacji
+ */
+public class CarView extends ImageView {
+    /**
+     * Konstruktor widoku samochodu
+     * @param direction Kierunek jazdy samochodu (wybiera poziomy lub pionowy obraz samochodu)
+     */
+    public CarView(DirectionEnum direction) {
+        //Obraz pobieramy ze współdzielonej pamięci obrazów, jest on już przeskalowany do rozmiaru samochodu
+        super(SpriteCache.getCar(direction));
+    }
+
+    /**
+     * Przeniesienie obrazu na pozycję samochodu
+     * @param x Pozycja samochodu na osi X
+     * @param y Pozycja samochodu na osi Y
+     */
+    public void moveTo(int x, int y) {
+        setX(x);
+        setY(y);
+    }
+}
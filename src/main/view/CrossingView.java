@@ -0,0 +1,80 @@
+package main.view;
+
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.Pane;
+import main.model.TrafficLightsAndCrossing;
+import main.model.enums.LightColorEnum;
+
+/**
+ * Created by Krzysztof Baran
+ * Graficzna reprezentacja skrzyżowania oraz umieszczonych na nim świateł
+ */
+public class CrossingView extends Pane {
+    /**
+     * Rozmiar poziomy obrazka ze światłami (użyty do wycentrowania pozycji)
+     */
+    private static final int LIGHTS_IMAGE_SIZE_X = 14;
+    /**
+     * Rozmiar pionowy obrazka ze światłami (użyty do wycentrowania pozycji)
+     */
+    private static final int LIGHTS_IMAGE_SIZE_Y = 14;
+    /**
+     * Objekt przetrzymujący obraz świateł pionowych (góra/dół)
+     */
+    private final ImageView lightUp, lightDown;
+    /**
+     * Objekt przetrzymujący obraz świateł poziomych (lewo/prawo)
+     */
+    private final ImageView lightLeft, lightRight;
+    /**
+     * Ostatnio wyświetlone kolory świateł, aby nie podmieniać obrazów bez potrzeby
+     */
+    private LightColorEnum shownVertical, shownHorizontal;
+
+    /**
+     * Konstruktor ustawiający położenie skrzyżowania na scenie oraz tworzący obiekty świateł.
+     * Ustawiany jest odpowiedni rozmiar na scenie w zależności od wierzchołków, a także ciemne tło imitujące asfalt.
+     * @param crossing Skrzyżowanie, które ma być prezentowane
+     */
+    public CrossingView(TrafficLightsAndCrossing crossing) {
+        int x1 = crossing.getX1(), x2 = crossing.getX2(), y1 = crossing.getY1(), y2 = crossing.getY2();
+        //Ustawienie rozmiaru panelu
+        setPrefSize(x2 - x1, y2 - y1);
+        setMinSize(x2 - x1, y2 - y1);
+        setMaxSize(x2 - x1, y2 - y1);
+        //Przeniesienie go na scenie w początkowy górny lewy wierzchołek
+        relocate(x1, y1);
+        //Ustawienie koloru tła
+        setStyle("-fx-background-color: #34495e;");
+        //Utworzenie i rozmieszczenie obiektów świateł, obrazy ustawiane są przy odświeżeniu
+        lightUp = new ImageView();
+        lightUp.relocate((x2 - x1) / 2 - LIGHTS_IMAGE_SIZE_X / 2, 0);
+        lightDown = new ImageView();
+        lightDown.relocate((x2 - x1) / 2 - LIGHTS_IMAGE_SIZE_X / 2, y2 - y1 - LIGHTS_IMAGE_SIZE_Y);
+        lightLeft = new ImageView();
+        lightLeft.relocate(0, (y2 - y1) / 2 - LIGHTS_IMAGE_SIZE_Y / 2);
+        lightRight = new ImageView();
+        lightRight.relocate(x2 - x1 - LIGHTS_IMAGE_SIZE_X, (y2 - y1) / 2 - LIGHTS_IMAGE_SIZE_Y / 2);
+        getChildren().addAll(lightLeft, lightUp, lightRight, lightDown);
+        refresh(crossing.getVerticalLight(), crossing.getHorizontalLight());
+    }
+
+    /**
+     * Metoda odświeżająca obrazy świateł, jeśli ich kolor na skrzyżowaniu uległ zmianie.
+     * Obrazy świateł pobierane są ze współdzielonej pamięci obrazów, więc zmiana świateł nie wczytuje plików
+     * @param vertical Kolor świateł pionowych
+     * @param horizontal Kolor świateł poziomych
+     */
+    public void refresh(LightColorEnum vertical, LightColorEnum horizontal) {
+        if (vertical != shownVertical) {
+            lightUp.setImage(SpriteCache.getLight(vertical));
+            lightDown.setImage(SpriteCache.getLight(vertical));
+            shownVertical = vertical;
+        }
+        if (horizontal != shownHorizontal) {
+            lightLeft.setImage(SpriteCache.getLight(horizontal));
+            lightRight.setImage(SpriteCache.getLight(horizontal));
+            shownHorizontal = horizontal;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package main.view;
+
+/**
+ * Created by Krzysztof Baran
+ * Skrzynka na migawki sceny pomiędzy wątkiem symulacji a wątkiem renderera, przechowująca co najwyżej jedną migawkę.
+ * Jeśli renderer nie zdążył pobrać poprzedniej migawki, nowa jest z nią łączona zamiast trafiać do kolejki wątku UI,
+ * dzięki czemu wolny renderer pomija klatki, a nie gromadzi zaległych zadań. Symulacja wykonuje przy tym wszystkie takty
+ */
+public class FrameMailbox {
+    /**
+     * Migawka oczekująca na pobranie przez renderer (null, jeśli skrzynka jest pusta)
+     */
+    private FrameUpdate pendingFrame;
+    /**
+     * Liczba migawek połączonych z wcześniejszymi (klatek pominiętych przez renderer)
+     */
+    private long droppedFramesCount;
+
+    /**
+     * Przekazanie nowej migawki do skrzynki. Jeśli poprzednia migawka nie została pobrana, obie są łączone
+     * @param frame Nowa migawka
+     * @return True, jeśli skrzynka była pusta i należy zlecić rendererowi pobranie migawki, wpp false
+     */
+    public synchronized boolean offer(FrameUpdate frame) {
+        if (pendingFrame == null) {
+            pendingFrame = frame;
+            return true;
+        }
+        pendingFrame = pendingFrame.mergeWith(frame);
+        droppedFramesCount++;
+        return false;
+    }
+
+    /**
+     * Pobranie oczekującej migawki ze skrzynki
+     * @return Oczekująca migawka lub null, jeśli skrzynka jest pusta
+     */
+    public synchronized FrameUpdate take() {
+        FrameUpdate frame = pendingFrame;
+        pendingFrame = null;
+        return frame;
+    }
+
+    /**
+     * Getter dla liczby klatek pominiętych przez renderer
+     * @return Liczba migawek połączonych z wcześniejszymi
+     */
+    public synchronized long getDroppedFramesCount() {
+        return droppedFramesCount;
+    }
+}
@@ -0,0 +1,193 @@
+package main.view;
+
+import main.model.Car;
+import main.model.enums.LightColorEnum;
+import main.model.enums.WeatherEnum;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Created by Krzysztof Baran
+ * Zwarta migawka zmian na scenie po iteracji symulacji, przekazywana z wątku symulacji do wątku renderera.
+ * Zawiera samochody, które pojawiły się lub zniknęły ze sceny, pozycje wszystkich samochodów na scenie w tablicach liczb,
+ * kolory świateł na skrzyżowaniach oraz nową pogodę. Po utworzeniu nie jest modyfikowana, więc renderer nie czyta
+ * stanu modelu zmienianego równolegle przez wątek symulacji
+ */
+public class FrameUpdate {
+    /**
+     * Takt symulacji, po którym wykonana została migawka
+     */
+    private final long tick;
+    /**
+     * Samochody, które pojawiły się na scenie od poprzedniej migawki
+     */
+    private final List<Car> addedCars;
+    /**
+     * Samochody, które opuściły scenę od poprzedniej migawki
+     */
+    private final List<Car> removedCars;
+    /**
+     * Samochody znajdujące się na scenie (klucze do ich widoków)
+     */
+    private final Car[] cars;
+    /**
+     * Pozycje samochodów na osi X i Y (indeksy jak w tablicy cars)
+     */
+    private final int[] carsX, carsY;
+    /**
+     * Kolory świateł pionowych i poziomych na kolejnych skrzyżowaniach
+     */
+    private final LightColorEnum[] verticalLights, horizontalLights;
+    /**
+     * Nowe warunki pogodowe lub null, jeśli pogoda się nie zmieniła
+     */
+    private final WeatherEnum weatherConditions;
+
+    /**
+     * Konstruktor migawki
+     * @param tick Takt symulacji
+     * @param addedCars Samochody, które pojawiły się na scenie
+     * @param removedCars Samochody, które opuściły scenę
+     * @param cars Samochody znajdujące się na scenie
+     * @param carsX Pozycje samochodów na osi X
+     * @param carsY Pozycje samochodów na osi Y
+     * @param verticalLights Kolory świateł pionowych na skrzyżowaniach
+     * @param horizontalLights Kolory świateł poziomych na skrzyżowaniach
+     * @param weatherConditions Nowe warunki pogodowe lub null, jeśli pogoda się nie zmieniła
+     */
+    public FrameUpdate(long tick, List<Car> addedCars, List<Car> removedCars, Car[] cars, int[] carsX, int[] carsY,
+                       LightColorEnum[] verticalLights, LightColorEnum[] horizontalLights, WeatherEnum weatherConditions) {
+        this.tick = tick;
+        this.addedCars = addedCars;
+        this.removedCars = removedCars;
+        this.cars = cars;
+        this.carsX = carsX;
+        this.carsY = carsY;
+        this.verticalLights = verticalLights;
+        this.horizontalLights = horizontalLights;
+        this.weatherConditions = weatherConditions;
+    }
+
+    /**
+     * Połączenie migawki z migawką następującą po niej, gdy renderer nie zdążył pokazać wcześniejszej.
+     * Pozycje samochodów, światła i takt pochodzą z nowszej migawki, a samochody dodane i usunięte są sumowane.
+     * Samochód dodany i usunięty w łączonych migawkach w ogóle nie trafia do renderera
+     * @param newer Migawka następująca po aktualnej
+     * @return Nowa migawka obejmująca zmiany z obu migawek
+     */
+    public FrameUpdate mergeWith(FrameUpdate newer) {
+        Set<Car> added = Collections.newSetFromMap(new IdentityHashMap<>());
+        added.addAll(addedCars);
+        added.addAll(newer.addedCars);
+        List<Car> mergedRemoved = new ArrayList<>(removedCars);
+        for (Car car : newer.removedCars) {
+            //Samochód, który jeszcze nie został pokazany, po prostu pomijamy
+            if (!added.remove(car)) {
+                mergedRemoved.add(car);
+            }
+        }
+        List<Car> mergedAdded = new ArrayList<>(addedCars.size() + newer.addedCars.size());
+        for (Car car : addedCars) {
+            if (added.contains(car)) {
+                mergedAdded.add(car);
+            }
+        }
+        for (Car car : newer.addedCars) {
+            if (added.contains(car)) {
+                mergedAdded.add(car);
+            }
+        }
+        WeatherEnum mergedWeather = newer.weatherConditions != null ? newer.weatherConditions : weatherConditions;
+        return new FrameUpdate(newer.tick, mergedAdded, mergedRemoved, newer.cars, newer.carsX, newer.carsY,
+            newer.verticalLights, newer.horizontalLights, mergedWeather);
+    }
+
+    /**
+     * Getter dla taktu symulacji, po którym wykonana została migawka
+     * @return Takt symulacji
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Getter dla samochodów, które pojawiły się na scenie
+     * @return Samochody, które pojawiły się na scenie
+     */
+    public List<Car> getAddedCars() {
+        return addedCars;
+    }
+
+    /**
+     * Getter dla samochodów, które opuściły scenę
+     * @return Samochody, które opuściły scenę
+     */
+    public List<Car> getRemovedCars() {
+        return removedCars;
+    }
+
+    /**
+     * Getter dla liczby samochodów na scenie
+     * @return Liczba samochodów na scenie
+     */
+    public int getCarsCount() {
+        return cars.length;
+    }
+
+    /**
+     * Getter dla samochodu o zadanym indeksie
+     * @param i Indeks samochodu
+     * @return Samochód
+     */
+    public Car getCar(int i) {
+        return cars[i];
+    }
+
+    /**
+     * Getter dla pozycji samochodu o zadanym indeksie na osi X
+     * @param i Indeks samochodu
+     * @return Pozycja na osi X
+     */
+    public int getCarX(int i) {
+        return carsX[i];
+    }
+
+    /**
+     * Getter dla pozycji samochodu o zadanym indeksie na osi Y
+     * @param i Indeks samochodu
+     * @return Pozycja na osi Y
+     */
+    public int getCarY(int i) {
+        return carsY[i];
+    }
+
+    /**
+     * Getter dla koloru świateł pionowych na skrzyżowaniu
+     * @param crossingIndex Numer skrzyżowania
+     * @return Kolor świateł pionowych
+     */
+    public LightColorEnum getVerticalLight(int crossingIndex) {
+        return verticalLights[crossingIndex];
+    }
+
+    /**
+     * Getter dla koloru świateł poziomych na skrzyżowaniu
+     * @param crossingIndex Numer skrzyżowania
+     * @return Kolor świateł poziomych
+     */
+    public LightColorEnum getHorizontalLight(int crossingIndex) {
+        return horizontalLights[crossingIndex];
+    }
+
+    /**
+     * Getter dla nowych warunków pogodowych
+     * @return Nowe warunki pogodowe lub null, jeśli pogoda się nie zmieniła
+     */
+    public WeatherEnum getWeatherConditions() {
+        return weatherConditions;
+    }
+}
@@ -0,0 +1,63 @@
+package main.view;
+
+import main.controllers.SimulationController;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Created by Krzysztof Baran
+ * Renderer niczego nie wyświetlający, pozwalający uruchomić symulację bez inicjalizacji JavaFX (np. na serwerze).
+ * Zadania wykonywane są bezpośrednio w wątku symulacji
+ */
+public class HeadlessRenderer implements SimulationRenderer {
+    /**
+     * Zatrzask zwalniany po zakończeniu symulacji
+     */
+    private final CountDownLatch finished = new CountDownLatch(1);
+    /**
+     * Nazwy plików z wynikami symulacji
+     */
+    private volatile List<String> resFilenames;
+
+    @Override
+    public void bind(SimulationController simulationController) {
+    }
+
+    @Override
+    public void runInRenderThread(Runnable task) {
+        task.run();
+    }
+
+    @Override
+    public void renderFrame(FrameUpdate frame) {
+    }
+
+    @Override
+    public boolean consumesFrames() {
+        //Nic nie jest wyświetlane, więc migawki nie są potrzebne
+        return false;
+    }
+
+    @Override
+    public void showResults(List<String> resFilenames) {
+        this.resFilenames = resFilenames;
+        finished.countDown();
+    }
+
+    @Override
+    public long getDroppedFramesCount() {
+        //Migawki nie są rysowane, więc żadna nie jest pomijana
+        return 0;
+    }
+
+    /**
+     * Metoda blokująca aktualny wątek do czasu zakończenia symulacji
+     * @return Nazwy plików z wynikami symulacji
+     * @throws InterruptedException Wyjątek rzucany, gdy wątek zostanie przerwany podczas oczekiwania
+     */
+    public List<String> awaitResults() throws InterruptedException {
+        finished.await();
+        return resFilenames;
+    }
+}
@@ -0,0 +1,222 @@
+package main.view;
+
+import javafx.application.Platform;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Rectangle;
+import main.controllers.SimulationController;
+import main.model.Car;
+import main.model.SpeedRadar;
+import main.model.TrafficLightsAndCrossing;
+import main.model.belts.TrafficBelt;
+import main.model.enums.WeatherEnum;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Created by Krzysztof Baran
+ * Renderer prezentujący symulację za pomocą grafu sceny JavaFX.
+ * Każdy samochód, skrzyżowanie i radar jest osobnym węzłem na panelu głównym symulacji.
+ * Węzły zmieniane są wyłącznie w wątku UI na podstawie migawek z wątku symulacji
+ */
+public class SceneGraphRenderer implements SimulationRenderer {
+    /**
+     * Panel główny symulacji, na którym prezentowana jest cała symulacja
+     */
+    private final Pane terrainMainPanel;
+    /**
+     * Szerokość okna symulacji
+     */
+    private final double windowWidth;
+    /**
+     * Obsługa zakończenia symulacji (pokazanie ekranu podsumowania)
+     */
+    private final Consumer<List<String>> resultsHandler;
+    /**
+     * Widoki samochodów aktualnie znajdujących się na scenie
+     */
+    private final Map<Car, CarView> carViews = new IdentityHashMap<>();
+    /**
+     * Widoki skrzyżowań
+     */
+    private final List<CrossingView> crossingViews = new ArrayList<>();
+    /**
+     * Skrzynka na migawki oczekujące na naniesienie w wątku UI (łączy migawki, których wątek UI nie zdążył pokazać)
+     */
+    private final FrameMailbox frameMailbox = new FrameMailbox();
+    /**
+     * Obraz prezentujący aktualną pogodę na scenie
+     */
+    private ImageView currentWeather;
+
+    /**
+     * Konstruktor renderera
+     * @param terrainMainPanel Panel główny symulacji
+     * @param windowWidth Szerokość okna symulacji
+     * @param resultsHandler Obsługa zakończenia symulacji, wołana w wątku UI
+     */
+    public SceneGraphRenderer(Pane terrainMainPanel, double windowWidth, Consumer<List<String>> resultsHandler) {
+        this.terrainMainPanel = terrainMainPanel;
+        this.windowWidth = windowWidth;
+        this.resultsHandler = resultsHandler;
+    }
+
+    /**
+     * Metoda dodająca na scenę reprezentacje pasów, skrzyżowań, pomiarów odcinkowych oraz znaku pogody
+     * @param simulationController Kontroler symulacji, którego stan ma być prezentowany
+     */
+    @Override
+    public void bind(SimulationController simulationController) {
+        //Dla każdego z pasów, które zostały zainicjowane w kontrolerze symulacji, dodawane są ich
+        //reprezentacje na ekranie
+        for (TrafficBelt belt : simulationController.getAllBelts()) {
+            terrainMainPanel.getChildren().add(createBeltGraphics(belt));
+        }
+        //Dla każdego ze skrzyżowań, które zostały zainicjowane w kontrolerze symulacji, dodawane są ich
+        //reprezentacje na ekranie
+        for (TrafficLightsAndCrossing crossing : simulationController.getCrossings()) {
+            CrossingView crossingView = new CrossingView(crossing);
+            crossingViews.add(crossingView);
+            terrainMainPanel.getChildren().add(crossingView);
+        }
+        //Dla każdego z pomiarów odcinkowych, które zostały zainicjowane w kontrolerze symulacji, dodawane są ich
+        //reprezentacje na ekranie. Obliczamy punkt początku i końca pomiaru odcinkowego i odpowiednio przesuwamy
+        //go dla rozmiaru obrazu, aby wyśrodkować, a następnie w obu miejscach dodajemy obraz z fotoradarem.
+        //Dodajemy również obraz z ograniczeniem prędkości na środku pomiędzy radarami
+        if (simulationController.getSpeedRadars() != null && !simulationController.getSpeedRadars().isEmpty()) {
+            List<SpeedRadarView> radarViews = new ArrayList<>();
+            for (SpeedRadar radar : simulationController.getSpeedRadars()) {
+                radarViews.add(new SpeedRadarView(radar));
+            }
+            terrainMainPanel.getChildren().addAll(radarViews);
+            for (int i = 0; i < radarViews.size(); i+=2) {
+                double x1 = radarViews.get(i).getX();
+                double x2 = radarViews.get(i+1).getX();
+                double lowerX = x1 < x2 ? x1 : x2;
+                double biggerX = x1 > x2 ? x1 : x2;
+                double x = lowerX + (biggerX - lowerX) / 2.0 + 10;
+                terrainMainPanel.getChildren().add(new SpeedLimitSign(x, radarViews.get(i).getY()));
+            }
+        }
+        //Ustawiamy aktualny znak
+        setWeatherSign(simulationController.getWeatherConditions());
+    }
+
+    /**
+     * Utworzenie reprezentacji graficznej pasa i nadanie kolorów, wysokości, szerokości
+     * @param belt Pas drogowy
+     * @return Graficzna reprezentacja pasa ruchu
+     */
+    private Rectangle createBeltGraphics(TrafficBelt belt) {
+        Rectangle beltRect = new Rectangle(belt.getXPos(), belt.getYPos(), belt.getWidth(), belt.getHeight());
+        beltRect.setFill(Color.web("0x34495E"));
+        beltRect.setStroke(Color.web("0xC9CED4"));
+        return beltRect;
+    }
+
+    @Override
+    public void runInRenderThread(Runnable task) {
+        Platform.runLater(task);
+    }
+
+    /**
+     * Metoda przenosząca migawkę zmian do wątku UI, w którym zostanie naniesiona na scenę.
+     * Do kolejki wątku UI trafia co najwyżej jedno zadanie - jeśli poprzednia migawka nie została jeszcze naniesiona,
+     * nowa jest z nią łączona w skrzynce
+     * @param frame Migawka zmian na scenie
+     */
+    @Override
+    public void renderFrame(FrameUpdate frame) {
+        if (frameMailbox.offer(frame)) {
+            Platform.runLater(() -> applyFrame(frameMailbox.take()));
+        }
+    }
+
+    /**
+     * Metoda nanosząca migawkę na scenę (w wątku UI): dodaje i usuwa widoki samochodów, przesuwa je na pozycje z migawki,
+     * odświeża światła na skrzyżowaniach oraz znak pogody
+     * @param frame Migawka zmian na scenie
+     */
+    private void applyFrame(FrameUpdate frame) {
+        //Najpierw dodajemy nowe samochody, bo migawka obejmująca kilka taktów może zawierać samochód dodany i usunięty
+        for (Car car : frame.getAddedCars()) {
+            addCar(car);
+        }
+        removeCars(frame.getRemovedCars());
+        for (int i = 0; i < frame.getCarsCount(); i++) {
+            CarView carView = carViews.get(frame.getCar(i));
+            if (carView != null) {
+                carView.moveTo(frame.getCarX(i), frame.getCarY(i));
+            }
+        }
+        for (int i = 0; i < crossingViews.size(); i++) {
+            crossingViews.get(i).refresh(frame.getVerticalLight(i), frame.getHorizontalLight(i));
+        }
+        if (frame.getWeatherConditions() != null) {
+            setWeatherSign(frame.getWeatherConditions());
+        }
+    }
+
+    /**
+     * Metoda dodająca obiekt samochodu do sceny, aby był widoczny na ekranie
+     * @param car Samochód do dodania na scenie
+     */
+    private void addCar(Car car) {
+        CarView carView = new CarView(car.getDirection());
+        carViews.put(car, carView);
+        terrainMainPanel.getChildren().add(carView);
+    }
+
+    /**
+     * Metoda usuwająca obiekty samochodów ze sceny, aby nie przeładowywać pamięci
+     * @param cars Samochody do usunięcia ze sceny
+     */
+    private void removeCars(List<Car> cars) {
+        if (cars.isEmpty()) {
+            return;
+        }
+        List<CarView> viewsToRemove = new ArrayList<>();
+        for (Car car : cars) {
+            CarView carView = carViews.remove(car);
+            if (carView != null) {
+                viewsToRemove.add(carView);
+            }
+        }
+        terrainMainPanel.getChildren().removeAll(viewsToRemove);
+    }
+
+    /**
+     * Metoda ustawiająca i zmieniająca znak z warunkami pogodowymi na scenie
+     * @param weatherConditions Aktualne warunki pogodowe do wczytania
+     */
+    private void setWeatherSign(WeatherEnum weatherConditions) {
+        //Przy pierwszym wywołaniu tworzymy obiekt znaku, ustawiamy jego położenie i dodajemy go do sceny
+        if (currentWeather == null) {
+            currentWeather = new ImageView();
+            currentWeather.setX(windowWidth / 2.0 - SpriteCache.WEATHER_SIGN_WIDTH / 2.0);
+            terrainMainPanel.getChildren().add(currentWeather);
+        }
+        //Podmieniamy obraz na znak aktualnej pogody ze współdzielonej pamięci obrazów (już przeskalowany)
+        currentWeather.setImage(SpriteCache.getWeatherSign(weatherConditions));
+    }
+
+    @Override
+    public boolean consumesFrames() {
+        return true;
+    }
+
+    @Override
+    public long getDroppedFramesCount() {
+        return frameMailbox.getDroppedFramesCount();
+    }
+
+    @Override
+    public void showResults(List<String> resFilenames) {
+        resultsHandler.accept(resFilenames);
+    }
+}
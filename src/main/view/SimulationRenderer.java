@@ -0,0 +1,52 @@
+package main.view;
+
+import main.controllers.SimulationController;
+
+import java.util.List;
+
+/**
+ * Created by Krzysztof Baran
+ * Adapter pomiędzy modelem symulacji a jej reprezentacją graficzną.
+ * Model symulacji nie zna JavaFX, wszystkie zmiany na ekranie przekazywane są przez implementacje tego interfejsu
+ * w postaci migawek wykonanych w wątku symulacji
+ */
+public interface SimulationRenderer {
+    /**
+     * Metoda wiążąca renderer z kontrolerem symulacji, wołana przed startem symulacji.
+     * Renderer tworzy w niej reprezentacje pasów, skrzyżowań i pomiarów odcinkowych
+     * @param simulationController Kontroler symulacji, którego stan ma być prezentowany
+     */
+    void bind(SimulationController simulationController);
+
+    /**
+     * Metoda wykonująca zadanie w wątku odpowiedzialnym za rysowanie (dla JavaFX jest to wątek UI)
+     * @param task Zadanie do wykonania
+     */
+    void runInRenderThread(Runnable task);
+
+    /**
+     * Metoda przekazująca do renderera zmiany na scenie po iteracji symulacji.
+     * Wołana w wątku symulacji - renderer sam przenosi migawkę do wątku odpowiedzialnego za rysowanie
+     * @param frame Migawka zmian na scenie
+     */
+    void renderFrame(FrameUpdate frame);
+
+    /**
+     * Sprawdzenie, czy renderer korzysta z migawek. Jeśli nie, symulacja nie tworzy migawek ani nie zbiera zmian
+     * na scenie, więc nie ponosi kosztu rysowania
+     * @return True, jeśli migawki mają być przekazywane do renderFrame, wpp false
+     */
+    boolean consumesFrames();
+
+    /**
+     * Metoda wołana po zakończeniu symulacji i zapisaniu wyników
+     * @param resFilenames Nazwy plików z wynikami symulacji
+     */
+    void showResults(List<String> resFilenames);
+
+    /**
+     * Getter dla liczby klatek pominiętych przez renderer, który nie nadążał za symulacją
+     * @return Liczba migawek połączonych z wcześniejszymi
+     */
+    long getDroppedFramesCount();
+}
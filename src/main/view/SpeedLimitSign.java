@@ -0,0 +1,24 @@
+package main.view;
+
+import javafx.scene.image.ImageView;
+
+/**
+ * Created by Krzysztof Baran
+ * Klasa reprezentująca graficzny obiekt ograniczenia prędkości widocznego na scenie
+ */
+public class SpeedLimitSign extends ImageView {
+
+    /**
+     * Konstruktor ustawiający pozycję i rozmiar ograniczenia prędkości na scenie
+     * @param x Środek obrazu na osi X
+     * @param y Góra obrazu na osi Y
+     */
+    public SpeedLimitSign(double x, double y) {
+        //utworzenie klasy nadrzędnej z obrazem ze współdzielonej pamięci obrazów (już przeskalowanym)
+        super(SpriteCache.getSpeedLimit());
+        //Przesunięcie obrazu względem osi X o połowę rozmiaru
+        setX(x - getImage().getWidth() / 2.0);
+        //Ustawienie wartości na osi Y
+        setY(y);
+    }
+}
@@ -0,0 +1,25 @@
+package main.view;
+
+import javafx.scene.image.ImageView;
+import main.model.SpeedRadar;
+
+/**
+ * Created by Krzysztof Baran
+ * Klasa reprezentująca graficzny obiekt początku/końca pomiaru odcinkowego
+ */
+public class SpeedRadarView extends ImageView {
+
+    /**
+     * Konstruktor ustawiający pozycję i rozmiar radarów na scenie
+     * @param radar Radar, który ma zostać wyświetlony
+     */
+    public SpeedRadarView(SpeedRadar radar) {
+        //utworzenie klasy nadrzędnej z obrazem ze współdzielonej pamięci obrazów (już przeskalowanym)
+        super(SpriteCache.getRadar());
+        //Przesunięcie obrazu względem osi X o połowę rozmiaru
+        setX(radar.getX() - getImage().getWidth() / 2.0);
+        //Ustawienie wartości na osi Y
+        setY(radar.getY());
+    }
+
+}
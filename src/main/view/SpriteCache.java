@@ -0,0 +1,178 @@
+package main.view;
+
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelReader;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritableImage;
+import main.model.Car;
+import main.model.enums.DirectionEnum;
+import main.model.enums.LightColorEnum;
+import main.model.enums.WeatherEnum;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Created by Krzysztof Baran
+ * Współdzielona w całej aplikacji pamięć podręczna obrazów (samochodów, świateł, radarów, znaków i pogody).
+ * Każdy plik PNG dekodowany jest tylko raz, od razu w docelowym rozmiarze na scenie, więc dodanie samochodu,
+ * zmiana świateł czy pogody nie wczytują już obrazów z resource'ów
+ */
+public final class SpriteCache {
+    /**
+     * Katalog z obrazami w resource'ach
+     */
+    private static final String IMAGES_PATH = "resources/images/";
+    /**
+     * Rozmiar obrazu informującego o pogodzie na scenie (oryginalny rozmiar pomniejszony 6 razy)
+     */
+    public static final double WEATHER_SIGN_WIDTH = 801.0 / 6.0;
+    public static final double WEATHER_SIGN_HEIGHT = 323.0 / 6.0;
+    /**
+     * Współczynnik pomniejszenia obrazu radaru
+     */
+    private static final double RADAR_IMAGE_RATIO = 16;
+    /**
+     * Współczynnik pomniejszenia obrazu ograniczenia prędkości
+     */
+    private static final double SPEED_LIMIT_IMAGE_RATIO = 3;
+    /**
+     * Obraz samochodu jadącego w poziomie (lewo/prawo) i w pionie (góra/dół), przeskalowany do rozmiaru samochodu
+     */
+    private static final Image HORIZONTAL_CAR;
+    private static final Image VERTICAL_CAR;
+    /**
+     * Obrazy świateł czerwone/żółte/zielone
+     */
+    private static final Map<LightColorEnum, Image> LIGHTS = new EnumMap<>(LightColorEnum.class);
+    /**
+     * Obrazy znaków pogody dla każdej z pogód
+     */
+    private static final Map<WeatherEnum, Image> WEATHER_SIGNS = new EnumMap<>(WeatherEnum.class);
+    /**
+     * Obraz radaru pomiaru odcinkowego
+     */
+    private static final Image RADAR;
+    /**
+     * Obraz ograniczenia prędkości
+     */
+    private static final Image SPEED_LIMIT;
+
+    static {
+        //Większy wymiar obrazu samochodu skalujemy do rozmiaru samochodu, a wersję pionową obracamy o 90 stopni
+        Image car = load("car.png");
+        double carScale = ((double) Car.CAR_SIZE) / Math.max(car.getWidth(), car.getHeight());
+        Image scaledCar = load("car.png", car.getWidth() * carScale, car.getHeight() * carScale);
+        boolean horizontalSource = car.getWidth() >= car.getHeight();
+        HORIZONTAL_CAR = horizontalSource ? scaledCar : rotate(scaledCar);
+        VERTICAL_CAR = horizontalSource ? rotate(scaledCar) : scaledCar;
+        for (LightColorEnum light : LightColorEnum.values()) {
+            LIGHTS.put(light, load(light.getResourceName()));
+        }
+        for (WeatherEnum weather : WeatherEnum.values()) {
+            //Pogoda iterowana po kolei nie ma własnego znaku
+            if (!weather.getResourceName().isEmpty()) {
+                WEATHER_SIGNS.put(weather, load("weather/" + weather.getResourceName(), WEATHER_SIGN_WIDTH, WEATHER_SIGN_HEIGHT));
+            }
+        }
+        double radarSize = load("radar.png").getWidth() / RADAR_IMAGE_RATIO;
+        RADAR = load("radar.png", radarSize, radarSize);
+        double speedLimitSize = load("maxSpeed.PNG").getWidth() / SPEED_LIMIT_IMAGE_RATIO;
+        SPEED_LIMIT = load("maxSpeed.PNG", speedLimitSize, speedLimitSize);
+    }
+
+    /**
+     * Konstruktor prywatny - klasa udostępnia wyłącznie metody statyczne
+     */
+    private SpriteCache() {
+    }
+
+    /**
+     * Wczytanie wszystkich obrazów z góry (np. przy starcie aplikacji), aby nie dekodować ich w trakcie symulacji
+     */
+    public static void preload() {
+        //Obrazy wczytywane są przy inicjalizacji klasy, więc wystarczy się do niej odwołać
+    }
+
+    /**
+     * Wczytanie obrazu z resource'ów w oryginalnym rozmiarze
+     * @param fileName Nazwa pliku w katalogu z obrazami
+     * @return Wczytany obraz
+     */
+    private static Image load(String fileName) {
+        return new Image(SpriteCache.class.getClassLoader().getResourceAsStream(IMAGES_PATH + fileName));
+    }
+
+    /**
+     * Wczytanie obrazu z resource'ów przeskalowanego do zadanego rozmiaru
+     * @param fileName Nazwa pliku w katalogu z obrazami
+     * @param width Docelowa szerokość
+     * @param height Docelowa wysokość
+     * @return Wczytany obraz
+     */
+    private static Image load(String fileName, double width, double height) {
+        return new Image(SpriteCache.class.getClassLoader().getResourceAsStream(IMAGES_PATH + fileName), width, height, false, true);
+    }
+
+    /**
+     * Obrócenie obrazu o 90 stopni zgodnie z ruchem wskazówek zegara
+     * @param image Obraz do obrócenia
+     * @return Obrócony obraz
+     */
+    private static Image rotate(Image image) {
+        int width = (int) image.getWidth();
+        int height = (int) image.getHeight();
+        WritableImage rotated = new WritableImage(height, width);
+        PixelReader reader = image.getPixelReader();
+        PixelWriter writer = rotated.getPixelWriter();
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                writer.setArgb(height - 1 - y, x, reader.getArgb(x, y));
+            }
+        }
+        return rotated;
+    }
+
+    /**
+     * Getter dla obrazu samochodu jadącego w zadanym kierunku
+     * @param direction Kierunek jazdy samochodu
+     * @return Obraz samochodu w wersji poziomej lub pionowej
+     */
+    public static Image getCar(DirectionEnum direction) {
+        return direction.getXDirection() != 0 ? HORIZONTAL_CAR : VERTICAL_CAR;
+    }
+
+    /**
+     * Getter dla obrazu światła
+     * @param light Kolor światła
+     * @return Obraz światła
+     */
+    public static Image getLight(LightColorEnum light) {
+        return LIGHTS.get(light);
+    }
+
+    /**
+     * Getter dla znaku pogody przeskalowanego do rozmiaru na scenie
+     * @param weather Warunki pogodowe
+     * @return Obraz znaku pogody
+     */
+    public static Image getWeatherSign(WeatherEnum weather) {
+        return WEATHER_SIGNS.get(weather);
+    }
+
+    /**
+     * Getter dla obrazu radaru przeskalowanego do rozmiaru na scenie
+     * @return Obraz radaru
+     */
+    public static Image getRadar() {
+        return RADAR;
+    }
+
+    /**
+     * Getter dla obrazu ograniczenia prędkości przeskalowanego do rozmiaru na scenie
+     * @return Obraz ograniczenia prędkości
+     */
+    public static Image getSpeedLimit() {
+        return SPEED_LIMIT;
+    }
+}